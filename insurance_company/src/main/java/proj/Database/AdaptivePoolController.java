@@ -0,0 +1,200 @@
+package proj.Database;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resizes the HikariCP pool at runtime based on workload feedback.
+ * <p>
+ * The controller periodically samples the number of threads waiting for a
+ * connection and the number of active connections. When threads are waiting,
+ * the maximum pool size grows by the number of waiters (at least one step).
+ * When utilisation stays below {@link #LOW_UTILISATION} for
+ * {@link #SHRINK_AFTER_SAMPLES} consecutive samples, the pool shrinks by one
+ * step, letting Hikari retire the surplus idle connections. The size always
+ * stays within the configured bounds.
+ * </p>
+ * <p>
+ * Every resize is logged and kept in a bounded history available through
+ * {@link #getDecisions()}, so load tests can check how the pool reacted.
+ * </p>
+ */
+public class AdaptivePoolController implements AutoCloseable {
+    /** Logger for this class. */
+    private static final Logger logger = LogManager.getLogger(AdaptivePoolController.class);
+
+    /** Utilisation (active / size) below which a sample counts as underused. */
+    static final double LOW_UTILISATION = 0.5;
+
+    /** Number of consecutive underused samples required before shrinking. */
+    static final int SHRINK_AFTER_SAMPLES = 3;
+
+    /** Maximum number of decisions kept in the history. */
+    static final int HISTORY_SIZE = 100;
+
+    private final HikariPoolMXBean poolMetrics;
+    private final HikariConfigMXBean poolConfig;
+    private final int minSize;
+    private final int maxSize;
+    private final int step;
+    private final Deque<PoolResizeDecision> decisions = new ArrayDeque<>();
+    private int underusedSamples;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Creates a controller for the given pool.
+     *
+     * @param poolMetrics runtime metrics of the pool
+     * @param poolConfig  runtime configuration of the pool
+     * @param minSize     lower bound of the maximum pool size
+     * @param maxSize     upper bound of the maximum pool size
+     * @param step        number of connections added or removed per resize
+     * @throws IllegalArgumentException if the bounds or step are invalid
+     */
+    public AdaptivePoolController(HikariPoolMXBean poolMetrics, HikariConfigMXBean poolConfig,
+            int minSize, int maxSize, int step) {
+        if (minSize < 1 || maxSize < minSize) {
+            throw new IllegalArgumentException("Invalid pool bounds: " + minSize + ".." + maxSize);
+        }
+        if (step < 1) {
+            throw new IllegalArgumentException("Resize step must be positive: " + step);
+        }
+        this.poolMetrics = poolMetrics;
+        this.poolConfig = poolConfig;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.step = step;
+    }
+
+    /**
+     * Starts sampling the pool in a background daemon thread.
+     *
+     * @param intervalMillis sampling interval in milliseconds
+     */
+    public synchronized void start(long intervalMillis) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "adaptive-pool-controller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::safeSample, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        logger.info("Adaptive pool sizing started: bounds {}..{}, step {}, interval {} ms",
+                minSize, maxSize, step, intervalMillis);
+    }
+
+    private void safeSample() {
+        try {
+            sample();
+        } catch (RuntimeException e) {
+            // The pool may be shutting down; the next sample will try again
+            logger.warn("Pool sampling failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Samples the pool metrics once and applies a resize if needed.
+     *
+     * @return the decision made, or null if the pool size was left unchanged
+     */
+    public synchronized PoolResizeDecision sample() {
+        int currentSize = poolConfig.getMaximumPoolSize();
+        int active = poolMetrics.getActiveConnections();
+        int idle = poolMetrics.getIdleConnections();
+        int awaiting = poolMetrics.getThreadsAwaitingConnection();
+
+        int newSize = decide(currentSize, active, awaiting);
+        if (newSize == currentSize) {
+            return null;
+        }
+
+        String reason = newSize > currentSize
+                ? awaiting + " thread(s) waiting for a connection"
+                : "utilisation below " + (int) (LOW_UTILISATION * 100) + "% for "
+                        + SHRINK_AFTER_SAMPLES + " samples";
+        poolConfig.setMaximumPoolSize(newSize);
+        PoolResizeDecision decision = new PoolResizeDecision(LocalDateTime.now(), currentSize, newSize,
+                active, idle, awaiting, reason);
+        if (decisions.size() == HISTORY_SIZE) {
+            decisions.removeFirst();
+        }
+        decisions.addLast(decision);
+        logger.info("Pool resized {} -> {} (active={}, idle={}, awaiting={}): {}",
+                currentSize, newSize, active, idle, awaiting, reason);
+        return decision;
+    }
+
+    /**
+     * Computes the new maximum pool size from one sample of pool metrics.
+     *
+     * @param currentSize current maximum pool size
+     * @param active      connections in use
+     * @param awaiting    threads waiting for a connection
+     * @return the new maximum pool size, within the configured bounds
+     */
+    int decide(int currentSize, int active, int awaiting) {
+        if (awaiting > 0) {
+            underusedSamples = 0;
+            return Math.min(maxSize, currentSize + Math.max(step, awaiting));
+        }
+
+        if (currentSize > minSize && active < currentSize * LOW_UTILISATION) {
+            underusedSamples++;
+            if (underusedSamples >= SHRINK_AFTER_SAMPLES) {
+                underusedSamples = 0;
+                return Math.max(minSize, Math.max(active, currentSize - step));
+            }
+        } else {
+            underusedSamples = 0;
+        }
+        return Math.max(minSize, Math.min(maxSize, currentSize));
+    }
+
+    /**
+     * Returns the most recent resize decisions, oldest first.
+     *
+     * @return a copy of the decision history
+     */
+    public synchronized List<PoolResizeDecision> getDecisions() {
+        return new ArrayList<>(decisions);
+    }
+
+    /**
+     * @return lower bound of the maximum pool size
+     */
+    public int getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * @return upper bound of the maximum pool size
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Stops sampling. The pool keeps its current size.
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+            logger.info("Adaptive pool sizing stopped");
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package proj.Database;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs blocking database calls asynchronously, one virtual thread per call.
+ * <p>
+ * A fair semaphore sized to the connection pool limits how many calls run at
+ * once, so callers wait on the semaphore (which unmounts the virtual thread)
+ * instead of inside the pool, where a waiting thread could pin its carrier.
+ * Each call must take at most one pooled connection at a time and must not
+ * wait for another asynchronous call, otherwise the permits can run out.
+ * </p>
+ * <p>
+ * Every call runs on a fresh thread; read-after-write routing to the primary
+ * ({@link DatabaseManager#getReadConnection()}) is process-wide, so a call
+ * still reads the writes made on other threads.
+ * </p>
+ */
+public class DatabaseExecutor implements AutoCloseable {
+    /** Logger for this class. */
+    private static final Logger logger = LogManager.getLogger(DatabaseExecutor.class);
+
+    /**
+     * A blocking database call.
+     *
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    public interface DatabaseCall<T> {
+        /**
+         * Executes the call.
+         *
+         * @return the result of the call
+         * @throws SQLException if a database access error occurs
+         */
+        T call() throws SQLException;
+    }
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+
+    /**
+     * Creates an executor.
+     *
+     * @param maxConcurrency the maximum number of calls running at once,
+     *                       normally the maximum pool size
+     * @throws IllegalArgumentException if maxConcurrency is not positive
+     */
+    public DatabaseExecutor(int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Max concurrency must be positive: " + maxConcurrency);
+        }
+        ThreadFactory factory = Thread.ofVirtual().name("db-async-", 0).factory();
+        this.executor = Executors.newThreadPerTaskExecutor(factory);
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxConcurrency = maxConcurrency;
+        logger.info("Async database executor started, max concurrency {}", maxConcurrency);
+    }
+
+    /**
+     * Runs the call on a virtual thread once a permit is available.
+     * An {@link SQLException} thrown by the call completes the future
+     * exceptionally with a {@link CompletionException} wrapping it.
+     *
+     * @param call the blocking database call
+     * @param <T>  the type of the result
+     * @return a future completed with the result of the call
+     */
+    public <T> CompletableFuture<T> submit(DatabaseCall<T> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+            try {
+                return call.call();
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+
+    /**
+     * @return the maximum number of calls running at once
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * @return the number of calls that can start right now without waiting
+     */
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Stops accepting calls. Calls already submitted still run to completion.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        logger.info("Async database executor stopped");
+    }
+}
@@ -5,9 +5,17 @@ import org.apache.logging.log4j.Logger;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfoService;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -29,6 +37,18 @@ import java.io.InputStream;
  * <p>
  * Configuration is loaded from the db.properties file in the classpath.
  * </p>
+ * <p>
+ * Read-only queries should use {@link #getReadConnection()}. When
+ * {@code db.replica.url} is configured they are routed to a read replica;
+ * otherwise they use the primary. {@link #getConnection()} always returns a
+ * primary connection and records a write, and {@link #inTransaction} records
+ * it again once the transaction has committed. For the read-your-writes
+ * window ({@code db.replica.read.after.write}, milliseconds) after the last
+ * write, all reads stay on the primary and never observe replication lag.
+ * The window is process-wide rather than per thread, because reads often run
+ * on other threads than the write that preceded them (Swing workers,
+ * {@link DatabaseExecutor} calls).
+ * </p>
  */
 public class DatabaseManager {
     /** Logger for this class. */
@@ -40,13 +60,38 @@ public class DatabaseManager {
     /** HikariCP data source for connection pooling. */
     private static HikariDataSource dataSource;
 
+    /** HikariCP data source for the read replica, or null if none is configured. */
+    private static HikariDataSource replicaDataSource;
+
+    /** How long reads stay on the primary after the last write, in nanoseconds. */
+    private static long readAfterWriteNanos;
+
+    /** Time of the last recorded write, from {@link System#nanoTime()}, or 0 if none. */
+    private static final AtomicLong lastWrite = new AtomicLong();
+
+    /** Controller that resizes the pool according to the workload. */
+    private static AdaptivePoolController poolController;
+
+    /** Executor for asynchronous repository calls, capped at the pool size. */
+    private static DatabaseExecutor asyncExecutor;
+
+    /** Configuration loaded from db.properties. */
+    private static Properties configuration = new Properties();
+
+    /** Number of years ahead for which insurance_obligations partitions are kept. */
+    private static int partitionYearsAhead;
+
     /**
      * Private constructor to prevent direct instantiation.
-     * Initializes the connection pool and runs migrations.
+     * Initializes the connection pool, runs migrations and creates upcoming
+     * partitions, recording how long each step took.
+     *
+     * @param timings receives the duration of each initialization step
      */
-    private DatabaseManager() {
-        initializeConnectionPool();
-        runMigrations();
+    private DatabaseManager(StartupTimings timings) {
+        timings.time("connection pool", this::initializeConnectionPool);
+        timings.time("schema migrations", this::runMigrations);
+        timings.time("partitions", this::createUpcomingPartitions);
     }
 
     /**
@@ -55,8 +100,19 @@ public class DatabaseManager {
      * @return the singleton instance
      */
     public static synchronized DatabaseManager getInstance() {
+        return getInstance(null);
+    }
+
+    /**
+     * Returns the singleton instance of DatabaseManager, recording the
+     * duration of its initialization steps if it is created by this call.
+     *
+     * @param timings receives the initialization steps, or null
+     * @return the singleton instance
+     */
+    public static synchronized DatabaseManager getInstance(StartupTimings timings) {
         if (instance == null) {
-            instance = new DatabaseManager();
+            instance = new DatabaseManager(timings != null ? timings : new StartupTimings());
         }
         return instance;
     }
@@ -75,6 +131,7 @@ public class DatabaseManager {
 
             Properties props = new Properties();
             props.load(inputStream);
+            configuration = props;
 
             HikariConfig config = new HikariConfig();
             config.setJdbcUrl(props.getProperty("db.url"));
@@ -82,8 +139,13 @@ public class DatabaseManager {
             config.setPassword(props.getProperty("db.password"));
             config.setDriverClassName(props.getProperty("db.driver", "org.postgresql.Driver"));
 
-            // Pool configuration
-            config.setMaximumPoolSize(Integer.parseInt(props.getProperty("db.pool.size", "10")));
+            // Pool configuration: db.pool.size is the initial size, db.pool.min/db.pool.max
+            // bound the adaptive resizing (both default to the initial size, i.e. a fixed pool)
+            int poolSize = Integer.parseInt(props.getProperty("db.pool.size", "10"));
+            int minPoolSize = Integer.parseInt(props.getProperty("db.pool.min", String.valueOf(poolSize)));
+            int maxPoolSize = Integer.parseInt(props.getProperty("db.pool.max", String.valueOf(poolSize)));
+            config.setMaximumPoolSize(Math.max(minPoolSize, Math.min(maxPoolSize, poolSize)));
+            config.setMinimumIdle(minPoolSize);
             config.setConnectionTimeout(Long.parseLong(props.getProperty("db.connection.timeout", "30000")));
             config.setIdleTimeout(Long.parseLong(props.getProperty("db.idle.timeout", "600000")));
             config.setMaxLifetime(Long.parseLong(props.getProperty("db.max.lifetime", "1800000")));
@@ -92,6 +154,20 @@ public class DatabaseManager {
             dataSource = new HikariDataSource(config);
             logger.info("Database connection pool initialized successfully");
 
+            poolController = new AdaptivePoolController(dataSource.getHikariPoolMXBean(),
+                    dataSource.getHikariConfigMXBean(), minPoolSize, maxPoolSize,
+                    Integer.parseInt(props.getProperty("db.pool.adapt.step", "2")));
+            if (minPoolSize < maxPoolSize) {
+                poolController.start(Long.parseLong(props.getProperty("db.pool.adapt.interval", "5000")));
+            }
+
+            // Capped at the upper bound of the adaptive pool so the controller still
+            // sees the load it needs to grow the pool
+            asyncExecutor = new DatabaseExecutor(Math.max(minPoolSize, maxPoolSize));
+
+            initializeReplicaPool(props, config);
+            partitionYearsAhead = Integer.parseInt(props.getProperty("db.partitions.years.ahead", "1"));
+
         } catch (IOException e) {
             logger.fatal("Error loading database configuration: {}", e.getMessage());
             throw new IllegalStateException("Error loading database configuration", e);
@@ -99,7 +175,42 @@ public class DatabaseManager {
     }
 
     /**
-     * Runs Flyway database migrations.
+     * Initializes the read replica pool if {@code db.replica.url} is set. Credentials
+     * and timeouts default to those of the primary.
+     *
+     * @param props   database configuration
+     * @param primary configuration of the primary pool
+     */
+    private void initializeReplicaPool(Properties props, HikariConfig primary) {
+        readAfterWriteNanos = TimeUnit.MILLISECONDS.toNanos(
+                Long.parseLong(props.getProperty("db.replica.read.after.write", "5000")));
+
+        String replicaUrl = props.getProperty("db.replica.url");
+        if (replicaUrl == null || replicaUrl.isBlank()) {
+            return;
+        }
+
+        HikariConfig config = new HikariConfig();
+        primary.copyStateTo(config);
+        config.setPoolName("replica");
+        config.setJdbcUrl(replicaUrl);
+        config.setUsername(props.getProperty("db.replica.user", primary.getUsername()));
+        config.setPassword(props.getProperty("db.replica.password", primary.getPassword()));
+        config.setMaximumPoolSize(Integer.parseInt(
+                props.getProperty("db.replica.pool.size", String.valueOf(primary.getMaximumPoolSize()))));
+        config.setMinimumIdle(config.getMaximumPoolSize());
+        config.setReadOnly(true);
+
+        replicaDataSource = new HikariDataSource(config);
+        logger.info("Read replica connection pool initialized successfully");
+    }
+
+    /**
+     * Runs Flyway database migrations. When no migration is pending and the
+     * checksums of the applied migrations still match the scripts, the schema
+     * is up to date and {@code migrate} (which locks the schema history table)
+     * is skipped. A changed checksum still goes through {@code migrate}, which
+     * reports the mismatch.
      */
     private void runMigrations() {
         Flyway flyway = Flyway.configure()
@@ -108,24 +219,239 @@ public class DatabaseManager {
                 .baselineOnMigrate(true)
                 .load();
 
+        MigrationInfoService info = flyway.info();
+        if (info.current() != null && info.pending().length == 0
+                && flyway.validateWithResult().validationSuccessful) {
+            logger.info("Database schema is up to date at version {}, migrations skipped",
+                    info.current().getVersion());
+            return;
+        }
+
         flyway.migrate();
         logger.info("Database migrations completed");
     }
 
     /**
-     * Returns a connection from the connection pool.
+     * Creates the yearly insurance_obligations partitions for the current year and
+     * {@code db.partitions.years.ahead} years ahead, so new obligations never land
+     * in the default partition. Existing partitions are left untouched.
+     */
+    private void createUpcomingPartitions() {
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement stmt = conn.prepareStatement("SELECT create_obligation_partitions(?)")) {
+            stmt.setInt(1, partitionYearsAhead);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                logger.info("Obligation partitions checked, {} created", rs.getInt(1));
+            }
+        } catch (SQLException e) {
+            // Missing partitions only mean new rows go to the default partition
+            logger.error("Error creating obligation partitions: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Returns a connection from the connection pool. The connection is assumed
+     * to be used for writing, so reads go to the primary for the
+     * read-your-writes window; callers that commit later should use
+     * {@link #inTransaction}, which records the write again after the commit.
      *
      * @return a {@link Connection} object
      * @throws SQLException if a database access error occurs
      */
     public Connection getConnection() throws SQLException {
+        recordWrite();
         return dataSource.getConnection();
     }
 
+    /**
+     * Opens a new connection to the primary outside the pool. It is meant for
+     * long-lived sessions such as {@link NotificationListener}, which would
+     * otherwise hold a pooled connection indefinitely. The caller must close it.
+     *
+     * @return a new {@link Connection} to the primary
+     * @throws SQLException if a database access error occurs
+     */
+    public Connection openDedicatedConnection() throws SQLException {
+        return DriverManager.getConnection(configuration.getProperty("db.url"),
+                configuration.getProperty("db.user"), configuration.getProperty("db.password"));
+    }
+
+    /**
+     * Returns a connection for read-only queries. It comes from the read replica
+     * when one is configured, unless a write was recorded within the
+     * read-your-writes window; in that case the primary is used.
+     *
+     * @return a {@link Connection} object for reading
+     * @throws SQLException if a database access error occurs
+     */
+    public Connection getReadConnection() throws SQLException {
+        if (replicaDataSource == null || isWithinReadAfterWriteWindow()) {
+            return dataSource.getConnection();
+        }
+        return replicaDataSource.getConnection();
+    }
+
+    /**
+     * @return true if a read replica is configured
+     */
+    public boolean hasReplica() {
+        return replicaDataSource != null;
+    }
+
+    private static void recordWrite() {
+        long now = System.nanoTime();
+        lastWrite.accumulateAndGet(now, (previous, current) -> current - previous > 0 ? current : previous);
+    }
+
+    private static boolean isWithinReadAfterWriteWindow() {
+        long writtenAt = lastWrite.get();
+        return writtenAt != 0 && System.nanoTime() - writtenAt < readAfterWriteNanos;
+    }
+
+    /**
+     * Returns a setting from db.properties, e.g. for background jobs configured
+     * next to the database.
+     *
+     * @param key          the property name
+     * @param defaultValue the value to return if the property is not set
+     * @return the property value or the default
+     */
+    public String getConfigProperty(String key, String defaultValue) {
+        return configuration.getProperty(key, defaultValue);
+    }
+
+    /**
+     * Returns the controller that adapts the pool size to the workload. Its
+     * decision history can be inspected to verify how the pool reacted to load.
+     *
+     * @return the adaptive pool controller
+     */
+    public AdaptivePoolController getPoolController() {
+        return poolController;
+    }
+
+    /**
+     * Returns the executor that runs repository calls asynchronously on virtual
+     * threads, never more at once than the pool can serve.
+     *
+     * @return the asynchronous call executor
+     */
+    public DatabaseExecutor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    /**
+     * Opens the pool's minimum number of idle connections in parallel and
+     * validates each of them, so the first queries after startup do not pay
+     * for connection setup. All connections are held until every one of them
+     * is open; otherwise the pool would hand the same connection to each task.
+     *
+     * @return the number of connections opened and validated
+     */
+    public int warmUp() {
+        int count = dataSource.getMinimumIdle();
+        CountDownLatch opened = new CountDownLatch(count);
+        List<CompletableFuture<Boolean>> connections = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            connections.add(asyncExecutor.submit(() -> {
+                try (Connection conn = dataSource.getConnection()) {
+                    opened.countDown();
+                    opened.await(dataSource.getConnectionTimeout(), TimeUnit.MILLISECONDS);
+                    return conn.isValid((int) TimeUnit.MILLISECONDS.toSeconds(dataSource.getValidationTimeout()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                } finally {
+                    // A failed connection must not keep the others waiting
+                    opened.countDown();
+                }
+            }));
+        }
+
+        int warmed = 0;
+        for (CompletableFuture<Boolean> connection : connections) {
+            try {
+                if (connection.join()) {
+                    warmed++;
+                }
+            } catch (CompletionException e) {
+                logger.warn("Connection warm-up failed: {}", e.getCause().getMessage());
+            }
+        }
+        logger.info("Warmed up {} of {} pool connections", warmed, count);
+        return warmed;
+    }
+
+    /**
+     * A unit of work executed on a single connection inside one transaction.
+     *
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    public interface TransactionCallback<T> {
+        /**
+         * Executes the work using the given connection.
+         *
+         * @param conn the transactional connection; must not be closed or committed
+         *             by the callback
+         * @return the result of the work
+         * @throws SQLException if a database access error occurs
+         */
+        T execute(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Runs the given work on one pooled connection in a single transaction.
+     * The transaction is committed when the work completes and rolled back if it
+     * throws, so no partially written state is left behind. The read-your-writes
+     * window starts again at the commit, so it also covers long transactions.
+     *
+     * @param work the unit of work
+     * @param <T>  the type of the result
+     * @return the result of the work
+     * @throws SQLException if a database access error occurs
+     */
+    public <T> T inTransaction(TransactionCallback<T> work) throws SQLException {
+        try (Connection conn = getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                T result = work.execute(conn);
+                conn.commit();
+                recordWrite();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                logger.warn("Transaction rolled back: {}", e.getMessage());
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    /**
+     * @return true if the connection pool is not initialized or has been closed
+     */
+    public boolean isClosed() {
+        return dataSource == null || dataSource.isClosed();
+    }
+
     /**
      * Closes the connection pool and releases all resources.
      */
     public void close() {
+        if (poolController != null) {
+            poolController.close();
+        }
+        if (asyncExecutor != null) {
+            asyncExecutor.close();
+        }
+        if (replicaDataSource != null && !replicaDataSource.isClosed()) {
+            replicaDataSource.close();
+            logger.info("Read replica connection pool closed");
+        }
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
             logger.info("Database connection pool closed");
@@ -0,0 +1,129 @@
+package proj.Database;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Listens for PostgreSQL {@code NOTIFY} messages on one channel and runs a
+ * callback when they arrive.
+ * <p>
+ * The listener holds its own connection outside the pool, because a pooled
+ * connection kept open for the lifetime of the application would count as a
+ * leak. If the connection is lost, the listener reconnects after
+ * {@link #RECONNECT_DELAY_MILLIS}. The callback also runs after every
+ * (re)connect, since notifications sent while disconnected are lost.
+ * </p>
+ */
+public class NotificationListener implements AutoCloseable {
+    /** Logger for this class. */
+    private static final Logger logger = LogManager.getLogger(NotificationListener.class);
+
+    /** How long a single wait for notifications blocks, in milliseconds. */
+    static final int POLL_TIMEOUT_MILLIS = 1000;
+
+    /** Delay before reconnecting after the connection was lost, in milliseconds. */
+    static final long RECONNECT_DELAY_MILLIS = 5000;
+
+    /**
+     * Opens the dedicated connection used for listening.
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    private final ConnectionFactory connectionFactory;
+    private final String channel;
+    private final Runnable callback;
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * Creates a listener.
+     *
+     * @param connectionFactory opens the dedicated listening connection
+     * @param channel           notification channel (an SQL identifier)
+     * @param callback          run for every batch of notifications received
+     * @throws IllegalArgumentException if the channel is not a plain identifier
+     */
+    public NotificationListener(ConnectionFactory connectionFactory, String channel, Runnable callback) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid notification channel: " + channel);
+        }
+        this.connectionFactory = connectionFactory;
+        this.channel = channel;
+        this.callback = callback;
+    }
+
+    /**
+     * Starts listening in a background daemon thread.
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::listen, "notify-" + channel);
+        thread.setDaemon(true);
+        thread.start();
+        logger.info("Listening for notifications on channel {}", channel);
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection conn = connectionFactory.open()) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("LISTEN " + channel);
+                }
+                PGConnection pgConnection = conn.unwrap(PGConnection.class);
+                notifyCallback();
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications != null && notifications.length > 0) {
+                        logger.debug("Received {} notification(s) on channel {}", notifications.length, channel);
+                        notifyCallback();
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                logger.warn("Notification connection for channel {} lost: {}", channel, e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+
+    private void notifyCallback() {
+        try {
+            callback.run();
+        } catch (RuntimeException e) {
+            logger.error("Notification callback for channel {} failed: {}", channel, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Stops listening and closes the connection.
+     */
+    @Override
+    public synchronized void close() {
+        if (thread != null) {
+            running = false;
+            thread.interrupt();
+            thread = null;
+            logger.info("Stopped listening on channel {}", channel);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package proj.Database;
+
+import java.time.LocalDateTime;
+
+/**
+ * A single resize decision made by the {@link AdaptivePoolController}, together
+ * with the pool metrics it was based on.
+ */
+public class PoolResizeDecision {
+    private final LocalDateTime time;
+    private final int previousSize;
+    private final int newSize;
+    private final int activeConnections;
+    private final int idleConnections;
+    private final int threadsAwaiting;
+    private final String reason;
+
+    /**
+     * Creates a resize decision.
+     *
+     * @param time              when the decision was made
+     * @param previousSize      maximum pool size before the decision
+     * @param newSize           maximum pool size after the decision
+     * @param activeConnections connections in use at sampling time
+     * @param idleConnections   idle connections at sampling time
+     * @param threadsAwaiting   threads waiting for a connection at sampling time
+     * @param reason            human-readable reason for the resize
+     */
+    public PoolResizeDecision(LocalDateTime time, int previousSize, int newSize, int activeConnections,
+            int idleConnections, int threadsAwaiting, String reason) {
+        this.time = time;
+        this.previousSize = previousSize;
+        this.newSize = newSize;
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+        this.threadsAwaiting = threadsAwaiting;
+        this.reason = reason;
+    }
+
+    public LocalDateTime getTime() {
+        return time;
+    }
+
+    public int getPreviousSize() {
+        return previousSize;
+    }
+
+    public int getNewSize() {
+        return newSize;
+    }
+
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    public int getThreadsAwaiting() {
+        return threadsAwaiting;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d -> %d (active=%d, idle=%d, awaiting=%d) %s",
+                time, previousSize, newSize, activeConnections, idleConnections, threadsAwaiting, reason);
+    }
+}
@@ -0,0 +1,100 @@
+package proj.Database;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records how long each application startup phase took, in the order the
+ * phases finished, and formats them as a report. Phases may be recorded from
+ * different threads.
+ */
+public class StartupTimings {
+    private final Map<String, Duration> phases = new LinkedHashMap<>();
+    private final long startedAt = System.nanoTime();
+
+    /**
+     * A startup phase that may fail with a checked exception.
+     *
+     * @param <T> the type of the result
+     * @param <E> the type of the exception
+     */
+    @FunctionalInterface
+    public interface Phase<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    /**
+     * Runs a phase and records its duration, also when it fails.
+     *
+     * @param name  the phase name shown in the report
+     * @param phase the work of the phase
+     * @param <T>   the type of the result
+     * @param <E>   the type of the exception
+     * @return the result of the phase
+     * @throws E if the phase fails
+     */
+    public <T, E extends Exception> T time(String name, Phase<T, E> phase) throws E {
+        long start = System.nanoTime();
+        try {
+            return phase.run();
+        } finally {
+            record(name, Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Runs a phase without a result and records its duration, also when it fails.
+     *
+     * @param name  the phase name shown in the report
+     * @param phase the work of the phase
+     */
+    public void time(String name, Runnable phase) {
+        long start = System.nanoTime();
+        try {
+            phase.run();
+        } finally {
+            record(name, Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Records the duration of a phase measured elsewhere.
+     *
+     * @param name     the phase name
+     * @param duration how long the phase took
+     */
+    public synchronized void record(String name, Duration duration) {
+        phases.merge(name, duration, Duration::plus);
+    }
+
+    /**
+     * @return the recorded phases and their durations, in the order they finished
+     */
+    public synchronized Map<String, Duration> getPhases() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(phases));
+    }
+
+    /**
+     * @return the time since this object was created
+     */
+    public Duration getElapsed() {
+        return Duration.ofNanos(System.nanoTime() - startedAt);
+    }
+
+    /**
+     * Formats the phases as a multi-line report. Phases that ran in parallel
+     * can add up to more than the total elapsed time.
+     *
+     * @return the report
+     */
+    public synchronized String report() {
+        StringBuilder report = new StringBuilder("Startup timings:");
+        for (Map.Entry<String, Duration> phase : phases.entrySet()) {
+            report.append(String.format("%n  %-28s %6d ms", phase.getKey(), phase.getValue().toMillis()));
+        }
+        report.append(String.format("%n  %-28s %6d ms", "total", getElapsed().toMillis()));
+        return report.toString();
+    }
+}
@@ -1,55 +1,129 @@
 package proj;
 
 import proj.Database.DatabaseManager;
+import proj.Database.NotificationListener;
+import proj.Database.StartupTimings;
+import proj.Models.Risk;
+import proj.Models.insurance.InsuranceObligation;
+import proj.Models.insurance.SnowflakePolicyNumberGenerator;
+import proj.Repositories.CacheStats;
+import proj.Repositories.InsuranceObligationRepository;
+import proj.Repositories.RiskRepository;
+import proj.Repositories.SequencePolicyNumberGenerator;
+import proj.Service.ObligationArchiver;
 import proj.UI.Tab.DerivativesTab;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import javax.swing.*;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Головний клас програми страхування з інтеграцією деривативів.
  * Відповідає за ініціалізацію бази даних, створення головного вікна та вкладок,
- * а також за коректне завершення роботи програми.
+ * а також за коректне завершення роботи програми. Вікно з'являється одразу, а
+ * база даних ініціалізується у фоні.
  */
 public class InsuranceApp extends JFrame {
 
     private static final Logger logger = LogManager.getLogger(InsuranceApp.class);
     private static DatabaseManager dbManager;
+    private static ObligationArchiver archiver;
+    private static NotificationListener riskCatalogListener;
+    private static final StartupTimings timings = new StartupTimings();
+
+    private final JTabbedPane tabbedPane;
+    private final JLabel loadingLabel;
 
     /**
      * Конструктор головного вікна програми.
-     * Ініціалізує базу даних, створює вкладки та налаштовує основні параметри
-     * вікна.
+     * Налаштовує основні параметри вікна та показує його одразу із заглушкою,
+     * а базу даних ініціалізує у фоні (див. {@link #initializeInBackground()}),
+     * не блокуючи потік подій Swing.
      */
     public InsuranceApp() {
         logger.info("Ініціалізація головного вікна InsuranceApp");
 
-        try {
-            logger.debug("Спроба отримати екземпляр DatabaseManager...");
-            dbManager = DatabaseManager.getInstance();
-            if (dbManager == null) {
-                logger.error("DatabaseManager повернув null. Перевірте конфігурацію бази даних.");
-                throw new IllegalStateException("DatabaseManager не ініціалізовано. Перевірте конфігурацію.");
-            }
-            logger.info("База даних успішно ініціалізована");
-        } catch (Exception e) {
-            logger.error("Невідома помилка під час ініціалізації бази даних: {}", e.getMessage(), e);
-            JOptionPane.showMessageDialog(this,
-                    "Помилка підключення до бази даних: " + e.getMessage(),
-                    "Помилка бази даних",
-                    JOptionPane.ERROR_MESSAGE);
-            System.exit(1);
-        }
-
         setTitle("Система страхування");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setSize(1200, 800);
         setLocationRelativeTo(null);
 
-        JTabbedPane tabbedPane = new JTabbedPane();
+        tabbedPane = new JTabbedPane();
+        loadingLabel = new JLabel("Підключення до бази даних...", SwingConstants.CENTER);
+        add(loadingLabel);
+
+        initializeInBackground();
+
+        logger.info("Головне вікно InsuranceApp ініціалізовано");
+    }
+
+    /**
+     * Ініціалізує базу даних у фоновому потоці: пул з'єднань, перевірку схеми
+     * та міграції, фонові служби. Потім паралельно відкриває з'єднання пулу та
+     * завантажує каталог ризиків, щоб перші запити вкладки не чекали на них.
+     * Після завершення замінює заглушку вкладками і записує в журнал звіт про
+     * тривалість етапів запуску.
+     */
+    private void initializeInBackground() {
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                logger.debug("Спроба отримати екземпляр DatabaseManager...");
+                dbManager = DatabaseManager.getInstance(timings);
+                if (dbManager == null) {
+                    logger.error("DatabaseManager повернув null. Перевірте конфігурацію бази даних.");
+                    throw new IllegalStateException("DatabaseManager не ініціалізовано. Перевірте конфігурацію.");
+                }
+                logger.info("База даних успішно ініціалізована");
+                timings.time("background services", () -> {
+                    configurePolicyNumberGenerator();
+                    startArchiver();
+                    startRiskCatalogListener();
+                });
 
+                long warmUpStart = System.nanoTime();
+                CompletableFuture<Map<String, Risk>> catalog = new RiskRepository().getCatalogAsync();
+                timings.time("connection warm-up", dbManager::warmUp);
+                try {
+                    catalog.join();
+                } catch (CompletionException e) {
+                    // Каталог буде завантажено повторно під час першого звернення
+                    logger.warn("Не вдалося попередньо завантажити каталог ризиків: {}", e.getCause().getMessage());
+                }
+                timings.record("risk catalog preload", Duration.ofNanos(System.nanoTime() - warmUpStart));
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    get();
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+                    logger.error("Невідома помилка під час ініціалізації бази даних: {}", cause.getMessage(), cause);
+                    JOptionPane.showMessageDialog(InsuranceApp.this,
+                            "Помилка підключення до бази даних: " + cause.getMessage(),
+                            "Помилка бази даних",
+                            JOptionPane.ERROR_MESSAGE);
+                    System.exit(1);
+                }
+
+                timings.time("derivatives tab", InsuranceApp.this::addTabs);
+                logger.info(timings.report());
+            }
+        }.execute();
+    }
+
+    /**
+     * Замінює заглушку вкладками програми.
+     */
+    private void addTabs() {
         try {
             logger.info("Додавання вкладки 'Деривативи'");
             tabbedPane.addTab("Деривативи", new DerivativesTab(tabbedPane));
@@ -61,9 +135,55 @@ public class InsuranceApp extends JFrame {
                     JOptionPane.ERROR_MESSAGE);
         }
 
+        remove(loadingLabel);
         add(tabbedPane);
+        revalidate();
+        repaint();
+    }
 
-        logger.info("Головне вікно InsuranceApp ініціалізовано");
+    /**
+     * Обирає генератор номерів полісів за параметром policy.number.generator з
+     * db.properties: {@code sequence} — блоки з послідовності бази даних,
+     * інакше Snowflake з номером вузла policy.node.id (якщо його задано).
+     */
+    private static void configurePolicyNumberGenerator() {
+        String generator = dbManager.getConfigProperty("policy.number.generator", "snowflake");
+        if ("sequence".equalsIgnoreCase(generator)) {
+            InsuranceObligation.setPolicyNumberGenerator(new SequencePolicyNumberGenerator(dbManager));
+            logger.info("Номери полісів видаються з послідовності бази даних");
+            return;
+        }
+        String nodeId = dbManager.getConfigProperty("policy.node.id", null);
+        if (nodeId == null) {
+            logger.warn("policy.node.id не задано; номер вузла для номерів полісів обрано за ідентифікатором процесу");
+            return;
+        }
+        SnowflakePolicyNumberGenerator snowflake = new SnowflakePolicyNumberGenerator(Integer.parseInt(nodeId));
+        InsuranceObligation.setPolicyNumberGenerator(snowflake);
+        logger.info("Номери полісів видаються генератором Snowflake, вузол {}", snowflake.getNodeId());
+    }
+
+    /**
+     * Запускає фонове архівування завершених зобов'язань з параметрами з
+     * db.properties (db.archive.retention.days, db.archive.batch.size,
+     * db.archive.interval.minutes).
+     */
+    private static void startArchiver() {
+        archiver = new ObligationArchiver(new InsuranceObligationRepository(),
+                Duration.ofDays(Long.parseLong(dbManager.getConfigProperty("db.archive.retention.days", "365"))),
+                Integer.parseInt(dbManager.getConfigProperty("db.archive.batch.size", "1000")));
+        archiver.start(Duration.ofMinutes(
+                Long.parseLong(dbManager.getConfigProperty("db.archive.interval.minutes", "60"))));
+    }
+
+    /**
+     * Підписується на повідомлення бази даних про зміну каталогу ризиків, щоб
+     * кеш каталогу скидався і після змін, зроблених іншими процесами.
+     */
+    private static void startRiskCatalogListener() {
+        riskCatalogListener = new NotificationListener(dbManager::openDedicatedConnection,
+                RiskRepository.CATALOG_CHANNEL, RiskRepository::invalidateCatalog);
+        riskCatalogListener.start();
     }
 
     /**
@@ -79,7 +199,7 @@ public class InsuranceApp extends JFrame {
         SwingUtilities.invokeLater(() -> {
             try {
                 logger.debug("Спроба створити екземпляр InsuranceApp...");
-                new InsuranceApp().setVisible(true);
+                timings.time("main window", () -> new InsuranceApp().setVisible(true));
             } catch (Exception e) {
                 logger.error("Помилка запуску програми: {}", e.getMessage(), e);
                 JOptionPane.showMessageDialog(null,
@@ -91,6 +211,16 @@ public class InsuranceApp extends JFrame {
 
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             try {
+                if (archiver != null) {
+                    archiver.close();
+                }
+                if (riskCatalogListener != null) {
+                    riskCatalogListener.close();
+                }
+                CacheStats cacheStats = InsuranceObligationRepository.getCacheStats();
+                if (cacheStats != null) {
+                    logger.info("Статистика кешу зобов'язань: {}", cacheStats);
+                }
                 if (dbManager != null) {
                     logger.debug("Спроба закрити з'єднання з базою даних...");
                     dbManager.close();
@@ -11,6 +11,11 @@ import java.time.LocalDateTime;
  * зобов'язань.
  * Містить інформацію про назву, список зобов'язань, загальну вартість, дати
  * створення та оновлення.
+ * <p>
+ * Список зобов'язань може завантажуватися ліниво: репозиторій прив'язує
+ * {@link ObligationLoader}, і зобов'язання читаються з бази лише під час
+ * першого звернення до них. Загальна вартість при цьому не перераховується.
+ * </p>
  */
 public class Derivative {
     private int id;
@@ -19,6 +24,8 @@ public class Derivative {
     private double totalValue;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Set<Integer> persistedObligationIds;
+    private ObligationLoader obligationLoader;
 
     /**
      * Створює новий дериватив з вказаною назвою.
@@ -56,6 +63,7 @@ public class Derivative {
      * @return список зобов'язань
      */
     public List<InsuranceObligation> getObligations() {
+        ensureObligationsLoaded();
         return Collections.unmodifiableList(obligations);
     }
 
@@ -66,15 +74,42 @@ public class Derivative {
      */
     public void setObligations(List<InsuranceObligation> obligations) {
         this.obligations = Objects.requireNonNull(obligations, "Obligations cannot be null");
+        this.obligationLoader = null;
         updateDerivative();
     }
 
-        /**
+    /**
+     * Робить список зобов'язань лінивим: він буде завантажений через вказаний
+     * завантажувач під час першого звернення.
+     *
+     * @param obligationLoader завантажувач зобов'язань
+     */
+    public void setObligationLoader(ObligationLoader obligationLoader) {
+        this.obligationLoader = Objects.requireNonNull(obligationLoader, "Obligation loader cannot be null");
+        this.obligations = null;
+    }
+
+    /**
+     * @return true, якщо зобов'язання вже в пам'яті (не очікують лінивого завантаження)
+     */
+    public boolean isObligationsLoaded() {
+        return obligations != null;
+    }
+
+    private void ensureObligationsLoaded() {
+        if (obligations == null) {
+            obligations = new ArrayList<>(obligationLoader.load(this));
+            obligationLoader = null;
+        }
+    }
+
+    /**
      * Додає страхове зобов'язання до деривативу.
      *
      * @param obligation страхове зобов'язання
      */
     public void addObligation(InsuranceObligation obligation) {
+        ensureObligationsLoaded();
         if (!obligations.contains(obligation)) {
             obligations.add(obligation);
             totalValue += InsuranceService.getInstance().calculateObligationValue(obligation);
@@ -88,10 +123,49 @@ public class Derivative {
      * @param obligation страхове зобов'язання
      */
     public void removeObligation(InsuranceObligation obligation) {
+        ensureObligationsLoaded();
         obligations.remove(obligation);
         updateDerivative();
     }
 
+    /**
+     * Повертає ідентифікатори зобов'язань, зв'язки з якими востаннє
+     * синхронізовано з базою даних. Репозиторій порівнює їх з поточним
+     * списком, щоб записати лише додані та видалені зв'язки.
+     *
+     * @return знімок ідентифікаторів (тільки для читання) або null, якщо невідомий
+     */
+    public Set<Integer> getPersistedObligationIds() {
+        return persistedObligationIds == null ? null : Collections.unmodifiableSet(persistedObligationIds);
+    }
+
+    /**
+     * Встановлює знімок ідентифікаторів зобов'язань, збережених у базі даних.
+     *
+     * @param ids ідентифікатори або null, якщо стан бази невідомий
+     */
+    public void setPersistedObligationIds(Collection<Integer> ids) {
+        this.persistedObligationIds = ids == null ? null : new HashSet<>(ids);
+    }
+
+    /**
+     * Відмічає у знімку збережених зв'язків додавання або видалення зв'язку
+     * із зобов'язанням. Якщо знімок невідомий, нічого не змінює.
+     *
+     * @param obligationId ідентифікатор зобов'язання
+     * @param persisted    true, якщо зв'язок збережено; false, якщо видалено
+     */
+    public void setObligationPersisted(int obligationId, boolean persisted) {
+        if (persistedObligationIds == null) {
+            return;
+        }
+        if (persisted) {
+            persistedObligationIds.add(obligationId);
+        } else {
+            persistedObligationIds.remove(obligationId);
+        }
+    }
+
     public double getTotalValue() {
         return totalValue;
     }
@@ -144,7 +218,9 @@ public class Derivative {
 
     @Override
     public String toString() {
-        return String.format("Derivative{id=%d, name='%s', obligations=%d, totalValue=%.2f, created=%s, updated=%s}",
-                id, name, obligations.size(), totalValue, createdAt, updatedAt);
+        // Не ініціює ліниве завантаження
+        String obligationCount = obligations == null ? "?" : String.valueOf(obligations.size());
+        return String.format("Derivative{id=%d, name='%s', obligations=%s, totalValue=%.2f, created=%s, updated=%s}",
+                id, name, obligationCount, totalValue, createdAt, updatedAt);
     }
 }
\ No newline at end of file
@@ -0,0 +1,96 @@
+package proj.Models;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Зведена статистика деривативу: кількість зобов'язань, суми їхніх сум,
+ * розрахункових вартостей і рівнів ризику та кількість ризиків за категоріями.
+ * Модель лише для читання; база даних підтримує ці значення тригерами, тож
+ * для них не потрібно завантажувати зобов'язання.
+ */
+public class DerivativeStats {
+    private final int derivativeId;
+    private final int obligationCount;
+    private final double amountSum;
+    private final double calculatedValueSum;
+    private final double riskLevelSum;
+    private final Map<Risk.RiskCategory, Integer> riskCounts;
+
+    /**
+     * Створює статистику деривативу.
+     *
+     * @param derivativeId       ідентифікатор деривативу
+     * @param obligationCount    кількість зобов'язань
+     * @param amountSum          сума страхових сум
+     * @param calculatedValueSum сума розрахункових вартостей
+     * @param riskLevelSum       сума рівнів ризику
+     * @param riskCounts         кількість ризиків за категоріями
+     */
+    public DerivativeStats(int derivativeId, int obligationCount, double amountSum, double calculatedValueSum,
+            double riskLevelSum, Map<Risk.RiskCategory, Integer> riskCounts) {
+        this.derivativeId = derivativeId;
+        this.obligationCount = obligationCount;
+        this.amountSum = amountSum;
+        this.calculatedValueSum = calculatedValueSum;
+        this.riskLevelSum = riskLevelSum;
+        this.riskCounts = new EnumMap<>(Risk.RiskCategory.class);
+        this.riskCounts.putAll(Objects.requireNonNull(riskCounts, "Risk counts cannot be null"));
+    }
+
+    public int getDerivativeId() {
+        return derivativeId;
+    }
+
+    public int getObligationCount() {
+        return obligationCount;
+    }
+
+    public double getAmountSum() {
+        return amountSum;
+    }
+
+    public double getCalculatedValueSum() {
+        return calculatedValueSum;
+    }
+
+    public double getRiskLevelSum() {
+        return riskLevelSum;
+    }
+
+    /**
+     * Обчислює середній рівень ризику зобов'язань деривативу.
+     *
+     * @return середній рівень ризику або 0.0, якщо зобов'язань немає
+     */
+    public double getAverageRiskLevel() {
+        return obligationCount == 0 ? 0.0 : riskLevelSum / obligationCount;
+    }
+
+    /**
+     * Повертає кількість ризиків категорії серед зобов'язань деривативу.
+     *
+     * @param category категорія ризику
+     * @return кількість ризиків
+     */
+    public int getRiskCount(Risk.RiskCategory category) {
+        return riskCounts.getOrDefault(category, 0);
+    }
+
+    /**
+     * Повертає кількість ризиків за категоріями (тільки для читання).
+     *
+     * @return мапа категорія ризику → кількість
+     */
+    public Map<Risk.RiskCategory, Integer> getRiskCounts() {
+        return Collections.unmodifiableMap(riskCounts);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DerivativeStats{derivativeId=%d, obligations=%d, calculatedValueSum=%.2f, "
+                + "averageRisk=%.2f}", derivativeId, obligationCount, calculatedValueSum, getAverageRiskLevel());
+    }
+}
@@ -0,0 +1,23 @@
+package proj.Models;
+
+import proj.Models.insurance.InsuranceObligation;
+
+import java.util.List;
+
+/**
+ * Завантажувач зобов'язань деривативу, що викликається під час першого
+ * звернення до них. Прив'язується до деривативу репозиторієм, який його
+ * прочитав, і викликається не більше одного разу.
+ */
+@FunctionalInterface
+public interface ObligationLoader {
+    /**
+     * Завантажує зобов'язання деривативу.
+     *
+     * @param derivative дериватив, зобов'язання якого потрібні
+     * @return список зобов'язань
+     * @throws IllegalStateException якщо завантаження неможливе (наприклад,
+     *                               з'єднання з базою даних закрито)
+     */
+    List<InsuranceObligation> load(Derivative derivative);
+}
@@ -0,0 +1,92 @@
+package proj.Models;
+
+import proj.Models.insurance.InsuranceObligation;
+import proj.Models.insurance.InsuranceObligation.ObligationStatus;
+
+import java.util.Objects;
+
+/**
+ * Рядок таблиці зобов'язань: лише ті поля, що показуються у списку
+ * (номер полісу, тип, рівень ризику, сума, розрахункова вартість, статус).
+ * Модель лише для читання; дані підтипів, ризики та примітки для неї не
+ * завантажуються. Повне зобов'язання читається за {@link #getId()}, коли
+ * воно дійсно потрібне.
+ */
+public class ObligationRow {
+    private final int id;
+    private final String policyNumber;
+    private final String type;
+    private final double riskLevel;
+    private final double amount;
+    private final double calculatedValue;
+    private final ObligationStatus status;
+
+    /**
+     * Створює рядок таблиці зобов'язань.
+     *
+     * @param id              ідентифікатор зобов'язання
+     * @param policyNumber    номер полісу
+     * @param type            тип страхування
+     * @param riskLevel       рівень ризику
+     * @param amount          сума страхування
+     * @param calculatedValue розрахункова вартість
+     * @param status          статус зобов'язання
+     */
+    public ObligationRow(int id, String policyNumber, String type, double riskLevel, double amount,
+            double calculatedValue, ObligationStatus status) {
+        this.id = id;
+        this.policyNumber = policyNumber;
+        this.type = type;
+        this.riskLevel = riskLevel;
+        this.amount = amount;
+        this.calculatedValue = calculatedValue;
+        this.status = status;
+    }
+
+    /**
+     * Створює рядок з уже завантаженого зобов'язання.
+     *
+     * @param obligation зобов'язання
+     * @return рядок таблиці
+     */
+    public static ObligationRow of(InsuranceObligation obligation) {
+        Objects.requireNonNull(obligation, "Obligation cannot be null");
+        return new ObligationRow(obligation.getId(), obligation.getPolicyNumber(), obligation.getType(),
+                obligation.getRiskLevel(), obligation.getAmount(), obligation.getCalculatedValue(),
+                obligation.getStatus());
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getPolicyNumber() {
+        return policyNumber;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public double getRiskLevel() {
+        return riskLevel;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public double getCalculatedValue() {
+        return calculatedValue;
+    }
+
+    public ObligationStatus getStatus() {
+        return status;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ObligationRow{id=%d, policyNumber='%s', type='%s', status=%s}",
+                id, policyNumber, type, status);
+    }
+}
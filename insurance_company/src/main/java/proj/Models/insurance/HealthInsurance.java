@@ -67,18 +67,29 @@ public class HealthInsurance extends InsuranceObligation {
     }
 
     /**
-     * Конструктор копіювання з InsuranceObligation.
+     * Конструктор копіювання з InsuranceObligation. Якщо other — теж
+     * медичне страхування, копіюються й поля підтипу, інакше вони отримують типові
+     * значення. Дата оновлення зберігається з other.
      *
      * @param other інший об'єкт InsuranceObligation
      */
     public HealthInsurance(InsuranceObligation other) {
         super(other);
         setType("HEALTH");
-        this.age = 0;
-        this.hasPreexistingConditions = false;
-        this.coverageLimit = 0;
-        this.includesHospitalization = false;
-        this.includesDentalCare = false;
+        setUpdatedAt(other.getUpdatedAt());
+        if (other instanceof HealthInsurance health) {
+            this.age = health.age;
+            this.hasPreexistingConditions = health.hasPreexistingConditions;
+            this.coverageLimit = health.coverageLimit;
+            this.includesHospitalization = health.includesHospitalization;
+            this.includesDentalCare = health.includesDentalCare;
+        } else {
+            this.age = 0;
+            this.hasPreexistingConditions = false;
+            this.coverageLimit = 0;
+            this.includesHospitalization = false;
+            this.includesDentalCare = false;
+        }
     }
 
     /**
@@ -146,7 +157,8 @@ public class HealthInsurance extends InsuranceObligation {
      * @param age вік
      */
     public void setAge(int age) {
-        this.age = validateAge(age);
+        markDirty("age", this.age, validateAge(age));
+        this.age = age;
     }
 
     /**
@@ -155,6 +167,7 @@ public class HealthInsurance extends InsuranceObligation {
      * @param hasPreexistingConditions чи є хронічні хвороби
      */
     public void setHasPreexistingConditions(boolean hasPreexistingConditions) {
+        markDirty("hasPreexistingConditions", this.hasPreexistingConditions, hasPreexistingConditions);
         this.hasPreexistingConditions = hasPreexistingConditions;
     }
 
@@ -164,6 +177,7 @@ public class HealthInsurance extends InsuranceObligation {
      * @param coverageLimit ліміт покриття
      */
     public void setCoverageLimit(int coverageLimit) {
+        markDirty("coverageLimit", this.coverageLimit, coverageLimit);
         this.coverageLimit = coverageLimit;
     }
 
@@ -173,6 +187,7 @@ public class HealthInsurance extends InsuranceObligation {
      * @param includesHospitalization чи включає госпіталізацію
      */
     public void setIncludesHospitalization(boolean includesHospitalization) {
+        markDirty("includesHospitalization", this.includesHospitalization, includesHospitalization);
         this.includesHospitalization = includesHospitalization;
     }
 
@@ -182,6 +197,7 @@ public class HealthInsurance extends InsuranceObligation {
      * @param includesDentalCare чи включає стоматологію
      */
     public void setIncludesDentalCare(boolean includesDentalCare) {
+        markDirty("includesDentalCare", this.includesDentalCare, includesDentalCare);
         this.includesDentalCare = includesDentalCare;
     }
 }
\ No newline at end of file
@@ -1,9 +1,11 @@
 package proj.Models.insurance;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import proj.Models.Risk;
 
@@ -11,6 +13,13 @@ import proj.Models.Risk;
  * Абстрактний клас, що представляє страхове зобов'язання.
  * Містить основні поля, такі як сума, тривалість, статус, ризики, дати та інше.
  * Всі конкретні типи страхових зобов'язань повинні наслідувати цей клас.
+ * <p>
+ * Зобов'язання відстежує, які поля змінилися з моменту останньої
+ * синхронізації з базою даних ({@link #markClean()}), щоб репозиторій
+ * оновлював лише змінені стовпці. Сетери позначають поле зміненим, тільки
+ * якщо значення справді інше. Поки стан бази невідомий (нове зобов'язання або
+ * створене поза репозиторієм), {@link #getDirtyFields()} повертає null.
+ * </p>
  */
 public abstract class InsuranceObligation {
     private int id;
@@ -27,6 +36,21 @@ public abstract class InsuranceObligation {
     private ObligationStatus status;
     private String notes;
     private Set<Risk> coveredRisks = new HashSet<>();
+    private Set<String> dirtyFields;
+    private Set<String> persistedRiskCodes;
+
+    /** Назва «поля» набору покритих ризиків у {@link #getDirtyFields()}. */
+    public static final String COVERED_RISKS = "coveredRisks";
+
+    /**
+     * Генератор номерів полісів для нових зобов'язань. Типово — Snowflake з
+     * номером вузла, похідним від ідентифікатора процесу; екземпляри
+     * застосунку, що працюють з однією базою, повинні отримати явні різні
+     * номери вузлів або генератор на основі послідовності.
+     */
+    private static volatile PolicyNumberGenerator policyNumberGenerator =
+            new SnowflakePolicyNumberGenerator((int) (ProcessHandle.current().pid()
+                    % (SnowflakePolicyNumberGenerator.MAX_NODE_ID + 1)));
 
     /**
      * Перелік можливих статусів страхового зобов'язання.
@@ -51,7 +75,24 @@ public abstract class InsuranceObligation {
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
         this.status = ObligationStatus.DRAFT;
-        this.policyNumber = generatePolicyNumber();
+        this.policyNumber = policyNumberGenerator.nextPolicyNumber();
+    }
+
+    /**
+     * Конструктор для відновлення збереженого зобов'язання: номер поліса
+     * береться з бази даних, тож генератор номерів не викликається.
+     *
+     * @param policyNumber   збережений номер поліса
+     * @param riskLevel      рівень ризику (0-1)
+     * @param amount         сума страхування
+     * @param durationMonths тривалість у місяцях
+     */
+    protected InsuranceObligation(String policyNumber, double riskLevel, double amount, int durationMonths) {
+        this.riskLevel = validateRiskLevel(riskLevel);
+        this.amount = validateAmount(amount);
+        this.durationMonths = validateDuration(durationMonths);
+        this.status = ObligationStatus.DRAFT;
+        this.policyNumber = Objects.requireNonNull(policyNumber, "Policy number cannot be null");
     }
 
     /**
@@ -106,7 +147,8 @@ public abstract class InsuranceObligation {
      * @param policyNumber номер поліса
      */
     public void setPolicyNumber(String policyNumber) {
-        this.policyNumber = Objects.requireNonNull(policyNumber);
+        markDirty("policyNumber", this.policyNumber, Objects.requireNonNull(policyNumber));
+        this.policyNumber = policyNumber;
     }
 
     /**
@@ -122,7 +164,8 @@ public abstract class InsuranceObligation {
      * @param type тип зобов'язання
      */
     public void setType(String type) {
-        this.type = Objects.requireNonNull(type, "Type cannot be null");
+        markDirty("type", this.type, Objects.requireNonNull(type, "Type cannot be null"));
+        this.type = type;
         this.updatedAt = LocalDateTime.now();
     }
 
@@ -139,7 +182,8 @@ public abstract class InsuranceObligation {
      * @param riskLevel рівень ризику (0-1)
      */
     public void setRiskLevel(double riskLevel) {
-        this.riskLevel = validateRiskLevel(riskLevel);
+        markDirty("riskLevel", this.riskLevel, validateRiskLevel(riskLevel));
+        this.riskLevel = riskLevel;
         this.updatedAt = LocalDateTime.now();
     }
 
@@ -156,7 +200,8 @@ public abstract class InsuranceObligation {
      * @param amount сума страхування
      */
     public void setAmount(double amount) {
-        this.amount = validateAmount(amount);
+        markDirty("amount", this.amount, validateAmount(amount));
+        this.amount = amount;
         this.updatedAt = LocalDateTime.now();
     }
 
@@ -173,8 +218,9 @@ public abstract class InsuranceObligation {
      * @param durationMonths тривалість у місяцях
      */
     public void setDurationMonths(int durationMonths) {
-        this.durationMonths = validateDuration(durationMonths);
-        this.endDate = startDate.plusMonths(durationMonths);
+        markDirty("durationMonths", this.durationMonths, validateDuration(durationMonths));
+        this.durationMonths = durationMonths;
+        changeEndDate(startDate.plusMonths(durationMonths));
         this.updatedAt = LocalDateTime.now();
     }
 
@@ -191,6 +237,7 @@ public abstract class InsuranceObligation {
      * @param calculatedValue розрахована вартість
      */
     public void setCalculatedValue(double calculatedValue) {
+        markDirty("calculatedValue", this.calculatedValue, calculatedValue);
         this.calculatedValue = calculatedValue;
     }
 
@@ -207,8 +254,9 @@ public abstract class InsuranceObligation {
      * @param startDate дата початку
      */
     public void setStartDate(LocalDateTime startDate) {
-        this.startDate = Objects.requireNonNull(startDate);
-        this.endDate = startDate.plusMonths(durationMonths);
+        markDirty("startDate", this.startDate, Objects.requireNonNull(startDate));
+        this.startDate = startDate;
+        changeEndDate(startDate.plusMonths(durationMonths));
         this.updatedAt = LocalDateTime.now();
     }
 
@@ -225,7 +273,7 @@ public abstract class InsuranceObligation {
      * @param endDate дата завершення
      */
     public void setEndDate(LocalDateTime endDate) {
-        this.endDate = Objects.requireNonNull(endDate);
+        changeEndDate(Objects.requireNonNull(endDate));
         this.updatedAt = LocalDateTime.now();
     }
 
@@ -274,7 +322,7 @@ public abstract class InsuranceObligation {
      * @param status статус
      */
     public void setStatus(ObligationStatus status) {
-        this.status = Objects.requireNonNull(status);
+        changeStatus(Objects.requireNonNull(status));
         this.updatedAt = LocalDateTime.now();
     }
 
@@ -291,7 +339,9 @@ public abstract class InsuranceObligation {
      * @param notes нотатки
      */
     public void setNotes(String notes) {
+        markDirty("notes", this.notes, notes);
         this.notes = notes;
+        this.updatedAt = LocalDateTime.now();
     }
 
     /**
@@ -352,9 +402,11 @@ public abstract class InsuranceObligation {
      */
     public void activate() {
         if (status == ObligationStatus.DRAFT) {
-            status = ObligationStatus.ACTIVE;
-            startDate = LocalDateTime.now();
-            endDate = startDate.plusMonths(durationMonths);
+            changeStatus(ObligationStatus.ACTIVE);
+            LocalDateTime now = LocalDateTime.now();
+            markDirty("startDate", startDate, now);
+            startDate = now;
+            changeEndDate(startDate.plusMonths(durationMonths));
             updatedAt = LocalDateTime.now();
         }
     }
@@ -364,7 +416,7 @@ public abstract class InsuranceObligation {
      */
     public void cancel() {
         if (status == ObligationStatus.ACTIVE || status == ObligationStatus.PENDING) {
-            status = ObligationStatus.CANCELLED;
+            changeStatus(ObligationStatus.CANCELLED);
             updatedAt = LocalDateTime.now();
         }
     }
@@ -376,8 +428,9 @@ public abstract class InsuranceObligation {
      */
     public void renew(int additionalMonths) {
         if (isActive()) {
+            markDirty("durationMonths", durationMonths, durationMonths + additionalMonths);
             durationMonths += additionalMonths;
-            endDate = endDate.plusMonths(additionalMonths);
+            changeEndDate(endDate.plusMonths(additionalMonths));
             updatedAt = LocalDateTime.now();
         }
     }
@@ -392,6 +445,83 @@ public abstract class InsuranceObligation {
                 LocalDateTime.now().isBefore(endDate);
     }
 
+    // Відстеження змін
+
+    /**
+     * Повертає поля, змінені з моменту останньої синхронізації з базою даних.
+     * Зміну набору ризиків позначає {@link #COVERED_RISKS}; вона визначається
+     * порівнянням кодів ризиків зі знімком, тож враховуються й зміни,
+     * зроблені безпосередньо через {@link #getCoveredRisks()}.
+     *
+     * @return назви змінених полів (тільки для читання) або null, якщо стан бази невідомий
+     */
+    public Set<String> getDirtyFields() {
+        if (dirtyFields == null) {
+            return null;
+        }
+        if (riskCodes().equals(persistedRiskCodes)) {
+            return Collections.unmodifiableSet(dirtyFields);
+        }
+        Set<String> fields = new HashSet<>(dirtyFields);
+        fields.add(COVERED_RISKS);
+        return Collections.unmodifiableSet(fields);
+    }
+
+    /**
+     * @return true, якщо є незбережені зміни або стан бази невідомий
+     */
+    public boolean isDirty() {
+        Set<String> fields = getDirtyFields();
+        return fields == null || !fields.isEmpty();
+    }
+
+    /**
+     * Позначає поточний стан як синхронізований з базою даних: очищає
+     * змінені поля та запам'ятовує знімок кодів ризиків.
+     */
+    public void markClean() {
+        dirtyFields = new HashSet<>();
+        persistedRiskCodes = riskCodes();
+    }
+
+    /**
+     * Позначає стан бази невідомим, після чого зобов'язання записується повністю.
+     */
+    public void markUntracked() {
+        dirtyFields = null;
+        persistedRiskCodes = null;
+    }
+
+    /**
+     * Позначає поле зміненим, якщо нове значення відрізняється від поточного,
+     * і оновлює дату оновлення, щоб частковий UPDATE записав нову updated_at.
+     * Підкласи викликають цей метод у своїх сетерах.
+     *
+     * @param field    назва поля
+     * @param oldValue поточне значення
+     * @param newValue нове значення
+     */
+    protected void markDirty(String field, Object oldValue, Object newValue) {
+        if (dirtyFields != null && !Objects.equals(oldValue, newValue)) {
+            dirtyFields.add(field);
+            updatedAt = LocalDateTime.now();
+        }
+    }
+
+    private void changeStatus(ObligationStatus status) {
+        markDirty("status", this.status, status);
+        this.status = status;
+    }
+
+    private void changeEndDate(LocalDateTime endDate) {
+        markDirty("endDate", this.endDate, endDate);
+        this.endDate = endDate;
+    }
+
+    private Set<String> riskCodes() {
+        return coveredRisks.stream().map(Risk::getCode).collect(Collectors.toSet());
+    }
+
     /**
      * Валідує рівень ризику.
      *
@@ -435,12 +565,19 @@ public abstract class InsuranceObligation {
     }
 
     /**
-     * Генерує унікальний номер поліса.
+     * Встановлює генератор номерів полісів для всіх нових зобов'язань.
      *
-     * @return номер поліса
+     * @param generator генератор номерів полісів
+     */
+    public static void setPolicyNumberGenerator(PolicyNumberGenerator generator) {
+        policyNumberGenerator = Objects.requireNonNull(generator);
+    }
+
+    /**
+     * @return поточний генератор номерів полісів
      */
-    private String generatePolicyNumber() {
-        return "POL-" + System.currentTimeMillis() + "-" + (int) (Math.random() * 1000);
+    public static PolicyNumberGenerator getPolicyNumberGenerator() {
+        return policyNumberGenerator;
     }
 
     /**
@@ -60,16 +60,25 @@ public class LifeInsurance extends InsuranceObligation {
     }
 
     /**
-     * Конструктор копіювання з InsuranceObligation.
+     * Конструктор копіювання з InsuranceObligation. Якщо other — теж
+     * страхування життя, копіюються й поля підтипу, інакше вони отримують типові
+     * значення. Дата оновлення зберігається з other.
      *
      * @param other інший об'єкт InsuranceObligation
      */
     public LifeInsurance(InsuranceObligation other) {
         super(other);
         setType("LIFE");
-        this.beneficiary = null;
-        this.includesCriticalIllness = false;
-        this.includesAccidentalDeath = false;
+        setUpdatedAt(other.getUpdatedAt());
+        if (other instanceof LifeInsurance life) {
+            this.beneficiary = life.beneficiary;
+            this.includesCriticalIllness = life.includesCriticalIllness;
+            this.includesAccidentalDeath = life.includesAccidentalDeath;
+        } else {
+            this.beneficiary = null;
+            this.includesCriticalIllness = false;
+            this.includesAccidentalDeath = false;
+        }
     }
 
     /**
@@ -87,7 +96,8 @@ public class LifeInsurance extends InsuranceObligation {
      * @param beneficiary вигодонабувач
      */
     public void setBeneficiary(String beneficiary) {
-        this.beneficiary = Objects.requireNonNull(beneficiary);
+        markDirty("beneficiary", this.beneficiary, Objects.requireNonNull(beneficiary));
+        this.beneficiary = beneficiary;
     }
 
     /**
@@ -114,6 +124,7 @@ public class LifeInsurance extends InsuranceObligation {
      * @param includesCriticalIllness чи включає критичні захворювання
      */
     public void setIncludesCriticalIllness(boolean includesCriticalIllness) {
+        markDirty("includesCriticalIllness", this.includesCriticalIllness, includesCriticalIllness);
         this.includesCriticalIllness = includesCriticalIllness;
     }
 
@@ -123,6 +134,7 @@ public class LifeInsurance extends InsuranceObligation {
      * @param includesAccidentalDeath чи включає нещасний випадок
      */
     public void setIncludesAccidentalDeath(boolean includesAccidentalDeath) {
+        markDirty("includesAccidentalDeath", this.includesAccidentalDeath, includesAccidentalDeath);
         this.includesAccidentalDeath = includesAccidentalDeath;
     }
 }
\ No newline at end of file
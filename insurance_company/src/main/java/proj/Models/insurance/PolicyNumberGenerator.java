@@ -0,0 +1,20 @@
+package proj.Models.insurance;
+
+/**
+ * Генератор номерів полісів для нових страхових зобов'язань.
+ * Реалізації повинні бути потокобезпечними і повертати номери, унікальні в
+ * межах усіх екземплярів застосунку, що працюють з однією базою даних
+ * (стовпець policy_number має обмеження UNIQUE і довжину до 40 символів).
+ *
+ * @see InsuranceObligation#setPolicyNumberGenerator(PolicyNumberGenerator)
+ */
+@FunctionalInterface
+public interface PolicyNumberGenerator {
+    /**
+     * Повертає наступний номер поліса.
+     *
+     * @return унікальний номер поліса
+     * @throws IllegalStateException якщо номер неможливо отримати
+     */
+    String nextPolicyNumber();
+}
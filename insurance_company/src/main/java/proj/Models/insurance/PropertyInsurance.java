@@ -71,18 +71,29 @@ public class PropertyInsurance extends InsuranceObligation {
     }
 
     /**
-     * Конструктор копіювання з InsuranceObligation.
+     * Конструктор копіювання з InsuranceObligation. Якщо other — теж
+     * страхування майна, копіюються й поля підтипу, інакше вони отримують типові
+     * значення. Дата оновлення зберігається з other.
      *
      * @param other інший об'єкт InsuranceObligation
      */
     public PropertyInsurance(InsuranceObligation other) {
         super(other);
         setType("PROPERTY");
-        this.propertyLocation = null;
-        this.propertyValue = 0.0;
-        this.isHighRiskArea = false;
-        this.propertyType = null;
-        this.includesNaturalDisasters = false;
+        setUpdatedAt(other.getUpdatedAt());
+        if (other instanceof PropertyInsurance property) {
+            this.propertyLocation = property.propertyLocation;
+            this.propertyValue = property.propertyValue;
+            this.isHighRiskArea = property.isHighRiskArea;
+            this.propertyType = property.propertyType;
+            this.includesNaturalDisasters = property.includesNaturalDisasters;
+        } else {
+            this.propertyLocation = null;
+            this.propertyValue = 0.0;
+            this.isHighRiskArea = false;
+            this.propertyType = null;
+            this.includesNaturalDisasters = false;
+        }
     }
 
     /**
@@ -164,7 +175,8 @@ public class PropertyInsurance extends InsuranceObligation {
      * @param propertyLocation місцезнаходження майна
      */
     public void setPropertyLocation(String propertyLocation) {
-        this.propertyLocation = Objects.requireNonNull(propertyLocation);
+        markDirty("propertyLocation", this.propertyLocation, Objects.requireNonNull(propertyLocation));
+        this.propertyLocation = propertyLocation;
     }
 
     /**
@@ -173,7 +185,8 @@ public class PropertyInsurance extends InsuranceObligation {
      * @param propertyValue вартість майна
      */
     public void setPropertyValue(double propertyValue) {
-        this.propertyValue = validatePropertyValue(propertyValue);
+        markDirty("propertyValue", this.propertyValue, validatePropertyValue(propertyValue));
+        this.propertyValue = propertyValue;
     }
 
     /**
@@ -182,6 +195,7 @@ public class PropertyInsurance extends InsuranceObligation {
      * @param isHighRiskArea true, якщо у зоні підвищеного ризику
      */
     public void setHighRiskArea(boolean isHighRiskArea) {
+        markDirty("highRiskArea", this.isHighRiskArea, isHighRiskArea);
         this.isHighRiskArea = isHighRiskArea;
     }
 
@@ -191,7 +205,8 @@ public class PropertyInsurance extends InsuranceObligation {
      * @param propertyType тип майна
      */
     public void setPropertyType(String propertyType) {
-        this.propertyType = validatePropertyType(propertyType);
+        markDirty("propertyType", this.propertyType, validatePropertyType(propertyType));
+        this.propertyType = propertyType;
     }
 
     /**
@@ -200,6 +215,7 @@ public class PropertyInsurance extends InsuranceObligation {
      * @param includesNaturalDisasters чи включає стихійні лиха
      */
     public void setIncludesNaturalDisasters(boolean includesNaturalDisasters) {
+        markDirty("includesNaturalDisasters", this.includesNaturalDisasters, includesNaturalDisasters);
         this.includesNaturalDisasters = includesNaturalDisasters;
     }
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+package proj.Models.insurance;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Генератор номерів полісів за схемою Snowflake: 64-бітне число з
+ * мілісекунд від {@link #EPOCH_MILLIS} (41 біт), номера вузла (10 бітів) та
+ * лічильника в межах мілісекунди (12 бітів). Номери впорядковані за часом
+ * створення, а різні вузли ніколи не видають однакових номерів, тож кожен
+ * екземпляр застосунку повинен мати власний номер вузла.
+ * <p>
+ * Останні час і лічильник зберігаються в одному {@link AtomicLong} і
+ * змінюються через compareAndSet, без блокувань. Якщо лічильник мілісекунди
+ * вичерпано (4096 номерів) або годинник повернувся назад, генератор
+ * продовжує з наступної «логічної» мілісекунди замість очікування, тож номери
+ * лишаються зростаючими, а час у них лише тимчасово випереджає годинник.
+ * </p>
+ */
+public class SnowflakePolicyNumberGenerator implements PolicyNumberGenerator {
+    /** Початок відліку часу в номерах: 2024-01-01T00:00:00Z. */
+    public static final long EPOCH_MILLIS = 1_704_067_200_000L;
+
+    /** Найбільший допустимий номер вузла. */
+    public static final int MAX_NODE_ID = (1 << 10) - 1;
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int NUMBER_DIGITS = 19;
+
+    private final long nodeId;
+    private final LongSupplier clock;
+    /** Час останнього номера (від епохи) та його лічильник: {@code time << SEQUENCE_BITS | sequence}. */
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * Створює генератор для вузла.
+     *
+     * @param nodeId номер вузла від 0 до {@link #MAX_NODE_ID}, унікальний для кожного екземпляра застосунку
+     * @throws IllegalArgumentException якщо номер вузла поза межами
+     */
+    public SnowflakePolicyNumberGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    SnowflakePolicyNumberGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Номер вузла повинен бути від 0 до " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    /**
+     * Повертає наступний ідентифікатор вузла.
+     *
+     * @return додатне число, більше за всі попередні ідентифікатори цього генератора
+     */
+    public long nextId() {
+        while (true) {
+            long last = state.get();
+            long lastTime = last >>> SEQUENCE_BITS;
+            long now = clock.getAsLong() - EPOCH_MILLIS;
+            long next;
+            if (now > lastTime) {
+                next = now << SEQUENCE_BITS;
+            } else if ((last & SEQUENCE_MASK) < SEQUENCE_MASK) {
+                next = last + 1;
+            } else {
+                next = (lastTime + 1) << SEQUENCE_BITS;
+            }
+            if (state.compareAndSet(last, next)) {
+                return (next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)
+                        | nodeId << SEQUENCE_BITS
+                        | next & SEQUENCE_MASK;
+            }
+        }
+    }
+
+    /**
+     * Повертає номер поліса у форматі {@code POL-} і 19 цифр ідентифікатора з
+     * провідними нулями, тож номери впорядковуються за часом і як рядки.
+     *
+     * @return номер поліса
+     */
+    @Override
+    public String nextPolicyNumber() {
+        String digits = Long.toString(nextId());
+        StringBuilder number = new StringBuilder(4 + NUMBER_DIGITS).append("POL-");
+        for (int i = digits.length(); i < NUMBER_DIGITS; i++) {
+            number.append('0');
+        }
+        return number.append(digits).toString();
+    }
+
+    /**
+     * @return номер вузла
+     */
+    public int getNodeId() {
+        return (int) nodeId;
+    }
+}
@@ -0,0 +1,245 @@
+package proj.Repositories;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Обмежений кеш з LRU-порядком, допуском за частотою (TinyLFU) та TTL.
+ * <p>
+ * Розмір кешу обмежено сумарною вагою записів: з ваговою функцією, що
+ * повертає 1, це кількість записів, з оцінкою розміру — кількість байтів.
+ * Частота звернень до ключів наближено рахується скетчем Count-Min з
+ * 4-бітними лічильниками, які періодично зменшуються вдвічі, тож старі
+ * звернення поступово забуваються. Коли новому запису бракує місця, кандидати
+ * на витіснення беруться з кінця LRU-черги, і запис допускається лише тоді,
+ * коли до його ключа зверталися частіше, ніж до кожного з них; інакше кеш
+ * лишається без змін. Завдяки цьому разовий перегляд багатьох записів не
+ * витісняє часто потрібні.
+ * </p>
+ * <p>
+ * Записи старші за TTL вважаються відсутніми і вилучаються під час звернення.
+ * Усі методи синхронізовані.
+ * </p>
+ *
+ * @param <K> тип ключа
+ * @param <V> тип значення
+ */
+public class BoundedCache<K, V> {
+    private final long maximumWeight;
+    private final ToLongFunction<? super V> weigher;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+    private long weight;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long rejectionCount;
+    private long expirationCount;
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long weight;
+        private final long writtenAt;
+
+        private Entry(V value, long weight, long writtenAt) {
+            this.value = value;
+            this.weight = weight;
+            this.writtenAt = writtenAt;
+        }
+    }
+
+    /**
+     * Створює кеш.
+     *
+     * @param maximumWeight максимальна сумарна вага записів
+     * @param weigher       вага одного значення (1 для обмеження кількістю записів)
+     * @param ttl           час життя запису після запису в кеш; нуль вимикає TTL
+     * @throws IllegalArgumentException якщо максимальна вага не додатна або TTL від'ємний
+     */
+    public BoundedCache(long maximumWeight, ToLongFunction<? super V> weigher, Duration ttl) {
+        this(maximumWeight, weigher, ttl, System::nanoTime);
+    }
+
+    BoundedCache(long maximumWeight, ToLongFunction<? super V> weigher, Duration ttl, LongSupplier ticker) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("Максимальна вага кешу повинна бути більше 0");
+        }
+        if (ttl.isNegative()) {
+            throw new IllegalArgumentException("TTL не може бути від'ємним");
+        }
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.ttlNanos = ttl.toNanos();
+        this.ticker = ticker;
+        this.sketch = new FrequencySketch((int) Math.min(maximumWeight, 1 << 16));
+    }
+
+    /**
+     * Повертає значення за ключем і враховує звернення в частоті ключа.
+     *
+     * @param key ключ
+     * @return значення або null, якщо його немає або термін дії минув
+     */
+    public synchronized V get(K key) {
+        sketch.increment(key);
+        Entry<V> entry = entries.get(key);
+        if (entry != null && isExpired(entry)) {
+            remove(key);
+            expirationCount++;
+            entry = null;
+        }
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.value;
+    }
+
+    /**
+     * Додає або замінює значення. Нове значення, якому бракує місця,
+     * допускається лише якщо до його ключа зверталися частіше, ніж до записів,
+     * які довелося б витіснити.
+     *
+     * @param key   ключ
+     * @param value значення
+     * @return true, якщо значення потрапило до кешу
+     */
+    public synchronized boolean put(K key, V value) {
+        long valueWeight = weigher.applyAsLong(value);
+        boolean replacing = remove(key) != null;
+        if (valueWeight > maximumWeight) {
+            rejectionCount++;
+            return false;
+        }
+
+        // Записи кандидатів беруться з ітератора: get на LinkedHashMap з
+        // порядком доступу переніс би їх у кінець LRU-черги
+        List<Map.Entry<K, Entry<V>>> victims = new ArrayList<>();
+        long freed = 0;
+        Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+        while (weight - freed + valueWeight > maximumWeight && eldest.hasNext()) {
+            Map.Entry<K, Entry<V>> victim = eldest.next();
+            victims.add(victim);
+            freed += victim.getValue().weight;
+        }
+        if (!replacing && !victims.isEmpty()) {
+            int candidateFrequency = sketch.frequency(key);
+            for (Map.Entry<K, Entry<V>> victim : victims) {
+                if (!isExpired(victim.getValue()) && sketch.frequency(victim.getKey()) >= candidateFrequency) {
+                    rejectionCount++;
+                    return false;
+                }
+            }
+        }
+        for (Map.Entry<K, Entry<V>> victim : victims) {
+            if (isExpired(remove(victim.getKey()))) {
+                expirationCount++;
+            } else {
+                evictionCount++;
+            }
+        }
+
+        entries.put(key, new Entry<>(value, valueWeight, ticker.getAsLong()));
+        weight += valueWeight;
+        return true;
+    }
+
+    /**
+     * Вилучає значення за ключем.
+     *
+     * @param key ключ
+     */
+    public synchronized void invalidate(K key) {
+        remove(key);
+    }
+
+    /**
+     * Вилучає всі значення. Лічильники та частоти ключів зберігаються.
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+        weight = 0;
+    }
+
+    /**
+     * @return знімок лічильників кешу
+     */
+    public synchronized CacheStats stats() {
+        return new CacheStats(hitCount, missCount, evictionCount, rejectionCount, expirationCount,
+                entries.size(), weight);
+    }
+
+    private Entry<V> remove(K key) {
+        Entry<V> entry = entries.remove(key);
+        if (entry != null) {
+            weight -= entry.weight;
+        }
+        return entry;
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+        return ttlNanos > 0 && ticker.getAsLong() - entry.writtenAt >= ttlNanos;
+    }
+
+    /**
+     * Скетч Count-Min з чотирма рядами 4-бітних лічильників (зберігаються в
+     * int, насичуються на 15). Після кількості збільшень, що в десять разів
+     * перевищує ширину, усі лічильники зменшуються вдвічі.
+     */
+    private static final class FrequencySketch {
+        private static final int DEPTH = 4;
+        private static final int MAX_COUNT = 15;
+        private static final int[] SEEDS = { 0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F };
+
+        private final int[] table;
+        private final int width;
+        private final int sampleSize;
+        private int additions;
+
+        private FrequencySketch(int expectedEntries) {
+            this.width = Integer.highestOneBit(Math.max(16, expectedEntries) * 2 - 1);
+            this.table = new int[DEPTH * width];
+            this.sampleSize = 10 * width;
+        }
+
+        private int index(Object key, int row) {
+            int hash = key.hashCode() * SEEDS[row];
+            hash ^= hash >>> 15;
+            hash *= 0x2C1B3C6D;
+            hash ^= hash >>> 12;
+            return row * width + (hash & (width - 1));
+        }
+
+        private int frequency(Object key) {
+            int frequency = MAX_COUNT;
+            for (int row = 0; row < DEPTH; row++) {
+                frequency = Math.min(frequency, table[index(key, row)]);
+            }
+            return frequency;
+        }
+
+        private void increment(Object key) {
+            for (int row = 0; row < DEPTH; row++) {
+                int i = index(key, row);
+                if (table[i] < MAX_COUNT) {
+                    table[i]++;
+                }
+            }
+            if (++additions >= sampleSize) {
+                for (int i = 0; i < table.length; i++) {
+                    table[i] >>>= 1;
+                }
+                additions /= 2;
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package proj.Repositories;
+
+/**
+ * Знімок лічильників {@link BoundedCache}: влучання, промахи, витіснення,
+ * відмови у допуску та прострочені записи, а також поточний розмір кешу.
+ */
+public class CacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long rejectionCount;
+    private final long expirationCount;
+    private final int size;
+    private final long weight;
+
+    /**
+     * Створює знімок лічильників кешу.
+     *
+     * @param hitCount        кількість влучань
+     * @param missCount       кількість промахів
+     * @param evictionCount   кількість записів, витіснених для звільнення місця
+     * @param rejectionCount  кількість нових записів, яким відмовлено у допуску
+     * @param expirationCount кількість записів, вилучених після закінчення TTL
+     * @param size            поточна кількість записів
+     * @param weight          поточна сумарна вага записів
+     */
+    public CacheStats(long hitCount, long missCount, long evictionCount, long rejectionCount,
+            long expirationCount, int size, long weight) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.rejectionCount = rejectionCount;
+        this.expirationCount = expirationCount;
+        this.size = size;
+        this.weight = weight;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getRejectionCount() {
+        return rejectionCount;
+    }
+
+    public long getExpirationCount() {
+        return expirationCount;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getWeight() {
+        return weight;
+    }
+
+    /**
+     * @return частка влучань серед усіх звернень (0, якщо звернень не було)
+     */
+    public double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 0 : (double) hitCount / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CacheStats{hits=%d, misses=%d, hitRate=%.2f, evictions=%d, rejections=%d, " +
+                "expirations=%d, size=%d, weight=%d}", hitCount, missCount, getHitRate(), evictionCount,
+                rejectionCount, expirationCount, size, weight);
+    }
+}
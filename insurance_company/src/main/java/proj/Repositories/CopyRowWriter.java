@@ -0,0 +1,133 @@
+package proj.Repositories;
+
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Потоково передає рядки в таблицю через PostgreSQL COPY у форматі CSV.
+ * Рядки накопичуються в невеликому буфері й відправляються на сервер
+ * порціями, тому весь набір даних ніколи не тримається в пам'яті.
+ * Якщо запис не завершено через {@link #finish()}, {@link #close()} скасовує
+ * операцію COPY.
+ */
+class CopyRowWriter implements AutoCloseable {
+    /** Розмір буфера, після заповнення якого дані відправляються на сервер. */
+    private static final int FLUSH_THRESHOLD = 64 * 1024;
+
+    private final CopyIn copyIn;
+    private final StringBuilder buffer = new StringBuilder(FLUSH_THRESHOLD + 1024);
+    private long rows;
+
+    /**
+     * Починає операцію COPY для таблиці.
+     *
+     * @param copyManager менеджер COPY з'єднання
+     * @param table       назва таблиці
+     * @param columns     колонки у порядку значень рядків
+     * @throws SQLException у разі помилки БД
+     */
+    CopyRowWriter(CopyManager copyManager, String table, String... columns) throws SQLException {
+        String sql = "COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN WITH (FORMAT csv)";
+        this.copyIn = copyManager.copyIn(sql);
+    }
+
+    /**
+     * Додає рядок до потоку COPY.
+     *
+     * @param values значення колонок
+     * @throws SQLException у разі помилки БД
+     */
+    void row(Object... values) throws SQLException {
+        appendRow(buffer, values);
+        rows++;
+        if (buffer.length() >= FLUSH_THRESHOLD) {
+            flush();
+        }
+    }
+
+    /**
+     * Відправляє залишок буфера та завершує операцію COPY.
+     *
+     * @return кількість рядків, прийнятих сервером
+     * @throws SQLException у разі помилки БД
+     */
+    long finish() throws SQLException {
+        flush();
+        long copied = copyIn.endCopy();
+        if (copied != rows) {
+            throw new SQLException("COPY accepted " + copied + " of " + rows + " rows");
+        }
+        return copied;
+    }
+
+    /**
+     * Скасовує операцію COPY, якщо її не завершено через {@link #finish()}.
+     *
+     * @throws SQLException у разі помилки БД
+     */
+    @Override
+    public void close() throws SQLException {
+        if (copyIn.isActive()) {
+            copyIn.cancelCopy();
+        }
+    }
+
+    private void flush() throws SQLException {
+        if (buffer.length() == 0) {
+            return;
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    /**
+     * Додає до буфера рядок у форматі CSV, який очікує COPY.
+     * null записується як порожнє значення без лапок (NULL), рядки беруться
+     * в лапки з подвоєнням внутрішніх лапок, числа — без експоненти.
+     *
+     * @param buffer буфер
+     * @param values значення колонок
+     */
+    static void appendRow(StringBuilder buffer, Object... values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                buffer.append(',');
+            }
+            appendValue(buffer, values[i]);
+        }
+        buffer.append('\n');
+    }
+
+    private static void appendValue(StringBuilder buffer, Object value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Double || value instanceof Float) {
+            buffer.append(BigDecimal.valueOf(((Number) value).doubleValue()).toPlainString());
+        } else if (value instanceof Number) {
+            buffer.append(value);
+        } else if (value instanceof Boolean) {
+            buffer.append((Boolean) value ? 't' : 'f');
+        } else if (value instanceof LocalDateTime) {
+            buffer.append(Timestamp.valueOf((LocalDateTime) value));
+        } else {
+            String text = value.toString();
+            buffer.append('"');
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '"') {
+                    buffer.append('"');
+                }
+                buffer.append(c);
+            }
+            buffer.append('"');
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package proj.Repositories;
+
+/**
+ * Критерії вибірки деривативів: пошук за назвою, діапазон загальної вартості
+ * та сортування. Порожні (null) критерії не обмежують вибірку.
+ */
+public class DerivativeCriteria {
+    private String nameSearch;
+    private Double minValue;
+    private Double maxValue;
+    private DerivativeSort sort = DerivativeSort.NAME_ASC;
+
+    /**
+     * Створює критерії без обмежень із сортуванням за назвою.
+     */
+    public DerivativeCriteria() {
+    }
+
+    /**
+     * @return текст для пошуку в назві або null
+     */
+    public String getNameSearch() {
+        return nameSearch;
+    }
+
+    /**
+     * Встановлює текст для пошуку в назві (без урахування регістру).
+     *
+     * @param nameSearch текст пошуку; порожній рядок не обмежує вибірку
+     */
+    public void setNameSearch(String nameSearch) {
+        this.nameSearch = nameSearch == null || nameSearch.isEmpty() ? null : nameSearch;
+    }
+
+    /**
+     * @return мінімальна загальна вартість або null
+     */
+    public Double getMinValue() {
+        return minValue;
+    }
+
+    /**
+     * Встановлює мінімальну загальну вартість.
+     *
+     * @param minValue мінімальна вартість або null
+     */
+    public void setMinValue(Double minValue) {
+        this.minValue = minValue;
+    }
+
+    /**
+     * @return максимальна загальна вартість або null
+     */
+    public Double getMaxValue() {
+        return maxValue;
+    }
+
+    /**
+     * Встановлює максимальну загальну вартість.
+     *
+     * @param maxValue максимальна вартість або null
+     */
+    public void setMaxValue(Double maxValue) {
+        this.maxValue = maxValue;
+    }
+
+    /**
+     * @return варіант сортування
+     */
+    public DerivativeSort getSort() {
+        return sort;
+    }
+
+    /**
+     * Встановлює варіант сортування.
+     *
+     * @param sort варіант сортування; null означає сортування за назвою
+     */
+    public void setSort(DerivativeSort sort) {
+        this.sort = sort == null ? DerivativeSort.NAME_ASC : sort;
+    }
+}
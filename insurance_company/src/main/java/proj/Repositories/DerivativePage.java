@@ -0,0 +1,78 @@
+package proj.Repositories;
+
+import proj.Models.Derivative;
+import proj.Models.DerivativeStats;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Сторінка деривативів, отримана keyset-пагінацією.
+ * Містить деривативи сторінки, їхню зведену статистику та ключ, з якого
+ * починається наступна сторінка.
+ */
+public class DerivativePage {
+    private final List<Derivative> derivatives;
+    private final Map<Integer, DerivativeStats> stats;
+    private final Key nextKey;
+
+    /**
+     * Ключ позиції у впорядкованій вибірці: значення колонки сортування
+     * останнього рядка сторінки та його ідентифікатор (для однозначності).
+     */
+    public static class Key {
+        private final Object sortValue;
+        private final int id;
+
+        Key(Object sortValue, int id) {
+            this.sortValue = sortValue;
+            this.id = id;
+        }
+
+        Object getSortValue() {
+            return sortValue;
+        }
+
+        int getId() {
+            return id;
+        }
+    }
+
+    DerivativePage(List<Derivative> derivatives, Map<Integer, DerivativeStats> stats, Key nextKey) {
+        this.derivatives = derivatives;
+        this.stats = stats;
+        this.nextKey = nextKey;
+    }
+
+    /**
+     * @return деривативи сторінки (тільки для читання)
+     */
+    public List<Derivative> getDerivatives() {
+        return Collections.unmodifiableList(derivatives);
+    }
+
+    /**
+     * Повертає зведену статистику деривативу сторінки.
+     *
+     * @param derivative дериватив сторінки
+     * @return статистика деривативу або null, якщо дериватив не з цієї сторінки
+     */
+    public DerivativeStats getStats(Derivative derivative) {
+        return stats.get(derivative.getId());
+    }
+
+    /**
+     * @return ключ для запиту наступної сторінки або null, якщо сторінка остання
+     */
+    public Key getNextKey() {
+        return nextKey;
+    }
+
+    /**
+     * @return true, якщо після цієї сторінки є ще деривативи
+     */
+    public boolean hasNext() {
+        return nextKey != null;
+    }
+}
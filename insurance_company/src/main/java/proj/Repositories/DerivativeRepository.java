@@ -1,34 +1,63 @@
 package proj.Repositories;
 
 import proj.Models.Derivative;
+import proj.Models.DerivativeStats;
+import proj.Models.Risk;
+import proj.Models.insurance.HealthInsurance;
 import proj.Models.insurance.InsuranceObligation;
+import proj.Models.insurance.LifeInsurance;
+import proj.Models.insurance.PropertyInsurance;
 import proj.Database.DatabaseManager;
 
+import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Репозиторій для роботи з деривативами у базі даних.
  * Забезпечує CRUD-операції, пошук, збереження та видалення деривативів,
  * а також завантаження та оновлення пов'язаних страхових зобов'язань.
+ * Методи з суфіксом {@code Async} повертають {@link CompletableFuture}, тож
+ * незалежні запити (наприклад, лічильники зведення) можуть виконуватися одночасно.
  */
 public class DerivativeRepository {
     private final DatabaseManager dbManager;
+    private final RepositorySession session;
     private InsuranceObligationRepository obligationRepository;
 
     /**
-     * Створює новий репозиторій деривативів.
+     * Створює новий репозиторій деривативів без спільної сесії.
      */
     public DerivativeRepository() {
+        this(null);
+    }
+
+    /**
+     * Створює репозиторій деривативів, що завантажує зобов'язання через карту
+     * ідентичності вказаної сесії: зобов'язання, спільні для деривативів,
+     * завантажених у різних викликах, матеріалізуються один раз.
+     *
+     * @param session сесія репозиторіїв або null, щоб кожен виклик мав власну
+     */
+    public DerivativeRepository(RepositorySession session) {
         this.dbManager = DatabaseManager.getInstance();
+        this.session = session;
     }
 
     private InsuranceObligationRepository getObligationRepository() {
         if (obligationRepository == null) {
-            obligationRepository = new InsuranceObligationRepository();
+            obligationRepository = new InsuranceObligationRepository(session);
         }
         return obligationRepository;
     }
@@ -42,19 +71,38 @@ public class DerivativeRepository {
      * @throws SQLException у разі помилки БД
      */
     public Derivative save(Derivative derivative) throws SQLException {
-        if (derivative.getId() == 0) {
-            return insert(derivative);
-        } else {
-            return update(derivative);
+        return dbManager.inTransaction(conn -> save(conn, derivative));
+    }
+
+    /**
+     * Зберігає дериватив разом зі зв'язками на зобов'язання в межах
+     * транзакції, яку веде викликач. Нові зобов'язання зберігаються через
+     * те саме з'єднання.
+     *
+     * @param conn       транзакційне з'єднання
+     * @param derivative дериватив
+     * @return збережений дериватив
+     * @throws SQLException у разі помилки БД
+     */
+    Derivative save(Connection conn, Derivative derivative) throws SQLException {
+        boolean isNew = derivative.getId() == 0;
+        try {
+            return isNew ? insert(conn, derivative) : update(conn, derivative);
+        } catch (SQLException | RuntimeException e) {
+            // Транзакція відкочується, тож знімок збережених зв'язків більше не достовірний
+            derivative.setPersistedObligationIds(null);
+            if (isNew) {
+                derivative.setId(0);
+            }
+            throw e;
         }
     }
 
-    private Derivative insert(Derivative derivative) throws SQLException {
+    private Derivative insert(Connection conn, Derivative derivative) throws SQLException {
         String sql = "INSERT INTO derivatives (name, total_value, created_at, updated_at) " +
                 "VALUES (?, ?, ?, ?) RETURNING id";
 
-        try (Connection conn = dbManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, derivative.getName());
             stmt.setDouble(2, derivative.getTotalValue());
@@ -64,7 +112,7 @@ public class DerivativeRepository {
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
                     derivative.setId(rs.getInt("id"));
-                    saveObligations(derivative);
+                    saveObligations(conn, derivative);
                     return derivative;
                 }
             }
@@ -72,27 +120,101 @@ public class DerivativeRepository {
         throw new SQLException("Failed to insert derivative");
     }
 
-    private Derivative update(Derivative derivative) throws SQLException {
-        String sql = "UPDATE derivatives SET name = ?, total_value = ?, updated_at = ? " +
-                "WHERE id = ?";
+    /**
+     * Оновлює назву деривативу та синхронізує зв'язки. Загальна вартість не
+     * перезаписується абсолютним значенням: її змінює лише різниця доданих і
+     * видалених зобов'язань, а зміну вартості чи видалення самих зобов'язань
+     * враховують тригери бази (V12), тож паралельні зміни не губляться.
+     */
+    private Derivative update(Connection conn, Derivative derivative) throws SQLException {
+        String sql = "UPDATE derivatives SET name = ?, updated_at = ? " +
+                "WHERE id = ? RETURNING total_value";
 
-        try (Connection conn = dbManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, derivative.getName());
-            stmt.setDouble(2, derivative.getTotalValue());
-            stmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
-            stmt.setInt(4, derivative.getId());
+            stmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+            stmt.setInt(3, derivative.getId());
 
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows > 0) {
-                updateObligations(derivative);
-                return derivative;
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    derivative.setTotalValue(rs.getDouble("total_value"));
+                    updateObligations(conn, derivative);
+                    return derivative;
+                }
             }
         }
         throw new SQLException("Failed to update derivative");
     }
 
+    /**
+     * Прив'язує зобов'язання до деривативу однією транзакцією: зв'язок
+     * додається, а загальна вартість збільшується атомарно в SQL
+     * (total_value = total_value + вартість). Нова вартість з бази
+     * передається моделі. Нове зобов'язання попередньо зберігається.
+     * Список зобов'язань у пам'яті змінюється, лише якщо його вже завантажено,
+     * тож ліниве завантаження не ініціюється.
+     *
+     * @param derivative дериватив
+     * @param obligation зобов'язання
+     * @return нова загальна вартість деривативу
+     * @throws SQLException у разі помилки БД
+     */
+    public double attachObligation(Derivative derivative, InsuranceObligation obligation) throws SQLException {
+        return dbManager.inTransaction(conn -> attachObligation(conn, derivative, obligation));
+    }
+
+    /**
+     * Прив'язує зобов'язання до деривативу в межах транзакції, яку веде
+     * викликач. Новий дериватив зберігається разом із зобов'язанням.
+     *
+     * @param conn       транзакційне з'єднання
+     * @param derivative дериватив
+     * @param obligation зобов'язання
+     * @return нова загальна вартість деривативу
+     * @throws SQLException у разі помилки БД
+     */
+    double attachObligation(Connection conn, Derivative derivative, InsuranceObligation obligation)
+            throws SQLException {
+        if (derivative.getId() == 0) {
+            derivative.addObligation(obligation);
+            return save(conn, derivative).getTotalValue();
+        }
+        if (obligation.getId() == 0) {
+            getObligationRepository().save(conn, obligation);
+        }
+        double totalValue = applyLinkChanges(conn, derivative.getId(), List.of(obligation.getId()), List.of());
+        if (derivative.isObligationsLoaded()) {
+            derivative.addObligation(obligation);
+        }
+        derivative.setTotalValue(totalValue);
+        derivative.setObligationPersisted(obligation.getId(), true);
+        return totalValue;
+    }
+
+    /**
+     * Відв'язує зобов'язання від деривативу однією транзакцією: зв'язок
+     * видаляється, а загальна вартість зменшується атомарно в SQL
+     * (total_value = total_value - вартість). Нова вартість з бази
+     * передається моделі. Список зобов'язань у пам'яті змінюється, лише якщо
+     * його вже завантажено.
+     *
+     * @param derivative збережений дериватив
+     * @param obligation зобов'язання
+     * @return нова загальна вартість деривативу
+     * @throws SQLException у разі помилки БД
+     */
+    public double detachObligation(Derivative derivative, InsuranceObligation obligation) throws SQLException {
+        double totalValue = dbManager.inTransaction(
+                conn -> applyLinkChanges(conn, derivative.getId(), List.of(), List.of(obligation.getId())));
+        if (derivative.isObligationsLoaded()) {
+            derivative.removeObligation(obligation);
+        }
+        derivative.setTotalValue(totalValue);
+        derivative.setObligationPersisted(obligation.getId(), false);
+        return totalValue;
+    }
+
     /**
      * Повертає дериватив за ідентифікатором.
      *
@@ -103,7 +225,7 @@ public class DerivativeRepository {
     public Optional<Derivative> findById(int id) throws SQLException {
         String sql = "SELECT * FROM derivatives WHERE id = ?";
 
-        try (Connection conn = dbManager.getConnection();
+        try (Connection conn = dbManager.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, id);
@@ -111,7 +233,7 @@ public class DerivativeRepository {
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
                     Derivative derivative = mapDerivativeFromResultSet(rs);
-                    loadObligations(derivative);
+                    loadObligations(List.of(derivative));
                     return Optional.of(derivative);
                 }
             }
@@ -129,16 +251,15 @@ public class DerivativeRepository {
         String sql = "SELECT * FROM derivatives";
         List<Derivative> derivatives = new ArrayList<>();
 
-        try (Connection conn = dbManager.getConnection();
+        try (Connection conn = dbManager.getReadConnection();
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
             while (rs.next()) {
-                Derivative derivative = mapDerivativeFromResultSet(rs);
-                loadObligations(derivative);
-                derivatives.add(derivative);
+                derivatives.add(mapDerivativeFromResultSet(rs));
             }
         }
+        loadObligations(derivatives);
         return derivatives;
     }
 
@@ -151,18 +272,18 @@ public class DerivativeRepository {
      */
     public boolean delete(int id) throws SQLException {
         String deleteRelationsSql = "DELETE FROM derivative_obligations WHERE derivative_id = ?";
-        try (Connection conn = dbManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(deleteRelationsSql)) {
-            stmt.setInt(1, id);
-            stmt.executeUpdate();
-        }
-
         String sql = "DELETE FROM derivatives WHERE id = ?";
-        try (Connection conn = dbManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
-        }
+
+        return dbManager.inTransaction(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(deleteRelationsSql)) {
+                stmt.setInt(1, id);
+                stmt.executeUpdate();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, id);
+                return stmt.executeUpdate() > 0;
+            }
+        });
     }
 
     private Derivative mapDerivativeFromResultSet(ResultSet rs) throws SQLException {
@@ -174,57 +295,213 @@ public class DerivativeRepository {
         return derivative;
     }
 
-    private void saveObligations(Derivative derivative) throws SQLException {
-        String sql = "INSERT INTO derivative_obligations (derivative_id, obligation_id) VALUES (?, ?)";
+    private void saveObligations(Connection conn, Derivative derivative) throws SQLException {
+        Set<Integer> obligationIds = saveNewObligations(conn, derivative);
+        insertLinks(conn, derivative.getId(), obligationIds);
+        derivative.setPersistedObligationIds(obligationIds);
+    }
 
-        try (Connection conn = dbManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+    /**
+     * Синхронізує зв'язки деривативу із зобов'язаннями, записуючи лише різницю
+     * між поточним списком і знімком збережених зв'язків. Якщо знімок невідомий,
+     * поточні зв'язки зчитуються з бази в тій самій транзакції. Різниця
+     * застосовується одним запитом з масивами ідентифікаторів, тож вартість
+     * запису залежить від розміру зміни, а не від розміру деривативу.
+     */
+    private void updateObligations(Connection conn, Derivative derivative) throws SQLException {
+        if (!derivative.isObligationsLoaded()) {
+            // Незавантажені зобов'язання не могли змінитися
+            return;
+        }
+        Set<Integer> obligationIds = saveNewObligations(conn, derivative);
+        Set<Integer> persistedIds = derivative.getPersistedObligationIds();
+        if (persistedIds == null) {
+            persistedIds = loadLinkIds(conn, derivative.getId());
+        }
+
+        Set<Integer> removed = new LinkedHashSet<>(persistedIds);
+        removed.removeAll(obligationIds);
+        Set<Integer> added = new LinkedHashSet<>(obligationIds);
+        added.removeAll(persistedIds);
+
+        if (!removed.isEmpty() || !added.isEmpty()) {
+            derivative.setTotalValue(applyLinkChanges(conn, derivative.getId(), added, removed));
+        }
+        derivative.setPersistedObligationIds(obligationIds);
+    }
+
+    private Set<Integer> saveNewObligations(Connection conn, Derivative derivative) throws SQLException {
+        Set<Integer> obligationIds = new LinkedHashSet<>();
+        for (InsuranceObligation obligation : derivative.getObligations()) {
+            if (obligation.getId() == 0) {
+                getObligationRepository().save(conn, obligation);
+            }
+            obligationIds.add(obligation.getId());
+        }
+        return obligationIds;
+    }
+
+    private Set<Integer> loadLinkIds(Connection conn, int derivativeId) throws SQLException {
+        String sql = "SELECT obligation_id FROM derivative_obligations WHERE derivative_id = ?";
+        Set<Integer> ids = new HashSet<>();
 
-            for (InsuranceObligation obligation : derivative.getObligations()) {
-                if (obligation.getId() == 0) {
-                    getObligationRepository().save(obligation);
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, derivativeId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt("obligation_id"));
                 }
-                stmt.setInt(1, derivative.getId());
-                stmt.setInt(2, obligation.getId());
-                stmt.addBatch();
             }
-            stmt.executeBatch();
         }
+        return ids;
     }
 
-    private void updateObligations(Derivative derivative) throws SQLException {
-        String deleteSql = "DELETE FROM derivative_obligations WHERE derivative_id = ?";
-        try (Connection conn = dbManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(deleteSql)) {
-            stmt.setInt(1, derivative.getId());
+    private void insertLinks(Connection conn, int derivativeId, Collection<Integer> obligationIds)
+            throws SQLException {
+        if (obligationIds.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO derivative_obligations (derivative_id, obligation_id) " +
+                "SELECT ?, unnest(?) ON CONFLICT DO NOTHING";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, derivativeId);
+            stmt.setArray(2, conn.createArrayOf("integer", obligationIds.toArray()));
             stmt.executeUpdate();
         }
-        saveObligations(derivative);
     }
 
-    private void loadObligations(Derivative derivative) throws SQLException {
-        String sql = "SELECT o.* FROM insurance_obligations o " +
-                "JOIN derivative_obligations deo ON o.id = deo.obligation_id " +
-                "WHERE deo.derivative_id = ?";
+    /**
+     * Видаляє та додає зв'язки й коригує загальну вартість деривативу одним
+     * запитом. До вартості додається сума calculated_value лише тих зв'язків,
+     * що справді вставлені, і віднімається сума лише справді видалених, тому
+     * повторна або паралельна зміна не рахується двічі.
+     *
+     * @return нова загальна вартість деривативу
+     */
+    private double applyLinkChanges(Connection conn, int derivativeId, Collection<Integer> added,
+            Collection<Integer> removed) throws SQLException {
+        String sql = "WITH removed AS (" +
+                "DELETE FROM derivative_obligations WHERE derivative_id = ? AND obligation_id = ANY(?) " +
+                "RETURNING obligation_id), " +
+                "added AS (" +
+                "INSERT INTO derivative_obligations (derivative_id, obligation_id) SELECT ?, unnest(?) " +
+                "ON CONFLICT DO NOTHING RETURNING obligation_id) " +
+                "UPDATE derivatives SET total_value = total_value " +
+                "+ COALESCE((SELECT SUM(o.calculated_value) FROM added a " +
+                "JOIN all_insurance_obligations o ON o.id = a.obligation_id), 0) " +
+                "- COALESCE((SELECT SUM(o.calculated_value) FROM removed r " +
+                "JOIN all_insurance_obligations o ON o.id = r.obligation_id), 0), " +
+                "updated_at = ? " +
+                "WHERE id = ? RETURNING total_value";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, derivativeId);
+            stmt.setArray(2, conn.createArrayOf("integer", removed.toArray()));
+            stmt.setInt(3, derivativeId);
+            stmt.setArray(4, conn.createArrayOf("integer", added.toArray()));
+            stmt.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
+            stmt.setInt(6, derivativeId);
 
-        List<InsuranceObligation> obligations = new ArrayList<>();
-        try (Connection conn = dbManager.getConnection();
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getDouble("total_value");
+                }
+            }
+        }
+        throw new SQLException("Derivative not found: " + derivativeId);
+    }
+
+    /**
+     * Завантажує зобов'язання для набору деривативів: усі зв'язки
+     * derivative_obligations вибираються одним запитом, а різні зобов'язання
+     * гідруються один раз. Зобов'язання, спільні для кількох деривативів,
+     * стають одним спільним екземпляром.
+     *
+     * @param derivatives деривативи, для яких завантажуються зобов'язання
+     * @throws SQLException у разі помилки БД
+     */
+    private void loadObligations(List<Derivative> derivatives) throws SQLException {
+        Map<Integer, List<InsuranceObligation>> obligations = fetchObligations(derivatives);
+        for (Derivative derivative : derivatives) {
+            derivative.setObligations(obligations.get(derivative.getId()));
+        }
+    }
+
+    /**
+     * Прив'язує до деривативів ліниве завантаження зобов'язань: вони будуть
+     * прочитані з бази лише під час першого звернення до них.
+     */
+    private void bindObligationLoader(List<Derivative> derivatives) {
+        for (Derivative derivative : derivatives) {
+            derivative.setObligationLoader(this::loadObligationsOnDemand);
+        }
+    }
+
+    private List<InsuranceObligation> loadObligationsOnDemand(Derivative derivative) {
+        if (dbManager.isClosed()) {
+            throw new IllegalStateException("Неможливо завантажити зобов'язання деривативу '" +
+                    derivative.getName() + "': з'єднання з базою даних закрито");
+        }
+        try {
+            return fetchObligations(List.of(derivative)).get(derivative.getId());
+        } catch (SQLException e) {
+            throw new IllegalStateException("Не вдалося завантажити зобов'язання деривативу '" +
+                    derivative.getName() + "': " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Читає зобов'язання деривативів двома запитами (зв'язки та пакетне
+     * завантаження зобов'язань) і запам'ятовує у деривативах знімок збережених
+     * зв'язків.
+     *
+     * @return мапа ідентифікатор деривативу → його зобов'язання
+     */
+    private Map<Integer, List<InsuranceObligation>> fetchObligations(List<Derivative> derivatives)
+            throws SQLException {
+        Map<Integer, List<InsuranceObligation>> result = new HashMap<>();
+        if (derivatives.isEmpty()) {
+            return result;
+        }
+        String sql = "SELECT derivative_id, obligation_id FROM derivative_obligations " +
+                "WHERE derivative_id = ANY(?)";
+
+        Map<Integer, List<Integer>> links = new HashMap<>();
+        Set<Integer> obligationIds = new LinkedHashSet<>();
+        try (Connection conn = dbManager.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setInt(1, derivative.getId());
+            Integer[] derivativeIds = derivatives.stream().map(Derivative::getId).toArray(Integer[]::new);
+            stmt.setArray(1, conn.createArrayOf("integer", derivativeIds));
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Optional<InsuranceObligation> obligation = getObligationRepository().findById(rs.getInt("id"));
-                    obligation.ifPresent(obligations::add);
+                    int obligationId = rs.getInt("obligation_id");
+                    links.computeIfAbsent(rs.getInt("derivative_id"), k -> new ArrayList<>()).add(obligationId);
+                    obligationIds.add(obligationId);
                 }
             }
         }
-        derivative.setObligations(obligations);
+
+        Map<Integer, InsuranceObligation> obligations = getObligationRepository().findAllByIds(obligationIds, true);
+        for (Derivative derivative : derivatives) {
+            List<InsuranceObligation> derivativeObligations = new ArrayList<>();
+            for (int obligationId : links.getOrDefault(derivative.getId(), List.of())) {
+                InsuranceObligation obligation = obligations.get(obligationId);
+                if (obligation != null) {
+                    derivativeObligations.add(obligation);
+                }
+            }
+            result.put(derivative.getId(), derivativeObligations);
+            derivative.setPersistedObligationIds(links.getOrDefault(derivative.getId(), List.of()));
+        }
+        return result;
     }
 
     /**
-     * Повертає список деривативів за частковою назвою.
+     * Повертає список деривативів за частковою назвою. Зобов'язання
+     * завантажуються ліниво, під час першого звернення.
      *
      * @param name частина назви
      * @return список деривативів
@@ -234,24 +511,57 @@ public class DerivativeRepository {
         String sql = "SELECT * FROM derivatives WHERE name LIKE ?";
         List<Derivative> derivatives = new ArrayList<>();
 
-        try (Connection conn = dbManager.getConnection();
+        try (Connection conn = dbManager.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, "%" + name + "%");
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Derivative derivative = mapDerivativeFromResultSet(rs);
-                    loadObligations(derivative);
-                    derivatives.add(derivative);
+                    derivatives.add(mapDerivativeFromResultSet(rs));
+                }
+            }
+        }
+        bindObligationLoader(derivatives);
+        return derivatives;
+    }
+
+    /**
+     * Шукає деривативи за частиною назви без урахування регістру та впорядковує
+     * їх за релевантністю (триграмна схожість назви із запитом). Пошук
+     * підрядка використовує триграмний GIN-індекс за назвою. Зобов'язання
+     * завантажуються ліниво.
+     *
+     * @param text  текст для пошуку
+     * @param limit максимальна кількість результатів
+     * @return деривативи, найрелевантніші першими
+     * @throws SQLException у разі помилки БД
+     */
+    public List<Derivative> searchByName(String text, int limit) throws SQLException {
+        String sql = "SELECT * FROM derivatives WHERE name ILIKE ? ESCAPE '\\' " +
+                "ORDER BY similarity(name, ?) DESC, name, id LIMIT ?";
+        List<Derivative> derivatives = new ArrayList<>();
+
+        try (Connection conn = dbManager.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, LikePatterns.contains(text));
+            stmt.setString(2, text);
+            stmt.setInt(3, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    derivatives.add(mapDerivativeFromResultSet(rs));
                 }
             }
         }
+        bindObligationLoader(derivatives);
         return derivatives;
     }
 
     /**
      * Повертає список деривативів у заданому діапазоні загальної вартості.
+     * Зобов'язання завантажуються ліниво.
      *
      * @param minValue мінімальна вартість
      * @param maxValue максимальна вартість
@@ -262,7 +572,7 @@ public class DerivativeRepository {
         String sql = "SELECT * FROM derivatives WHERE total_value BETWEEN ? AND ?";
         List<Derivative> derivatives = new ArrayList<>();
 
-        try (Connection conn = dbManager.getConnection();
+        try (Connection conn = dbManager.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setDouble(1, minValue);
@@ -270,12 +580,377 @@ public class DerivativeRepository {
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
+                    derivatives.add(mapDerivativeFromResultSet(rs));
+                }
+            }
+        }
+        bindObligationLoader(derivatives);
+        return derivatives;
+    }
+
+    /**
+     * Повертає одну сторінку деривативів, відфільтрованих та відсортованих на
+     * боці бази даних. Використовує keyset-пагінацію: наступна сторінка
+     * починається після ключа останнього рядка попередньої, тож вартість
+     * запиту не залежить від номера сторінки. Зведена статистика деривативів
+     * читається тим самим запитом з таблиці derivative_stats, а зобов'язання
+     * завантажуються ліниво, лише якщо до них звернуться.
+     *
+     * @param criteria критерії фільтрації та сортування
+     * @param after    ключ, після якого починається сторінка, або null для першої
+     * @param limit    кількість деривативів на сторінці
+     * @return сторінка деривативів
+     * @throws SQLException у разі помилки БД
+     */
+    public DerivativePage findPage(DerivativeCriteria criteria, DerivativePage.Key after, int limit)
+            throws SQLException {
+        DerivativeSort sort = criteria.getSort();
+        String column = sort.getColumn();
+        String direction = sort.isAscending() ? "ASC" : "DESC";
+
+        StringBuilder sql = new StringBuilder("SELECT * FROM derivatives " +
+                "JOIN derivative_stats ON derivative_stats.derivative_id = derivatives.id");
+        List<Object> params = new ArrayList<>();
+        List<String> conditions = buildConditions(criteria, params);
+        if (after != null) {
+            conditions.add("(" + column + ", id) " + (sort.isAscending() ? ">" : "<") + " (?, ?)");
+            params.add(after.getSortValue());
+            params.add(after.getId());
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY ").append(column).append(' ').append(direction)
+                .append(", id ").append(direction)
+                .append(" LIMIT ?");
+        params.add(limit + 1);
+
+        List<Derivative> derivatives = new ArrayList<>();
+        Map<Integer, DerivativeStats> stats = new HashMap<>();
+        DerivativePage.Key lastKey = null;
+        boolean hasNext = false;
+        try (Connection conn = dbManager.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            bindParameters(stmt, params);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (derivatives.size() == limit) {
+                        hasNext = true;
+                        break;
+                    }
                     Derivative derivative = mapDerivativeFromResultSet(rs);
-                    loadObligations(derivative);
                     derivatives.add(derivative);
+                    stats.put(derivative.getId(), mapStatsFromResultSet(rs));
+                    lastKey = new DerivativePage.Key(rs.getObject(column), rs.getInt("id"));
                 }
             }
         }
-        return derivatives;
+        bindObligationLoader(derivatives);
+        return new DerivativePage(derivatives, stats, hasNext ? lastKey : null);
+    }
+
+    /**
+     * Повертає кількість деривативів, що відповідають критеріям.
+     *
+     * @param criteria критерії фільтрації (сортування ігнорується)
+     * @return кількість деривативів
+     * @throws SQLException у разі помилки БД
+     */
+    public int countByCriteria(DerivativeCriteria criteria) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM derivatives");
+        List<Object> params = new ArrayList<>();
+        List<String> conditions = buildConditions(criteria, params);
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+
+        try (Connection conn = dbManager.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            bindParameters(stmt, params);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * Повертає зведену статистику деривативу з таблиці derivative_stats,
+     * яку тригери бази даних підтримують в актуальному стані.
+     *
+     * @param derivativeId ідентифікатор деривативу
+     * @return статистика або порожній Optional, якщо деривативу немає
+     * @throws SQLException у разі помилки БД
+     */
+    public Optional<DerivativeStats> findStats(int derivativeId) throws SQLException {
+        String sql = "SELECT * FROM derivative_stats WHERE derivative_id = ?";
+
+        try (Connection conn = dbManager.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, derivativeId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? Optional.of(mapStatsFromResultSet(rs)) : Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * Повертає зведену статистику кількох деривативів одним запитом.
+     *
+     * @param derivativeIds ідентифікатори деривативів
+     * @return мапа ідентифікатор деривативу → статистика
+     * @throws SQLException у разі помилки БД
+     */
+    public Map<Integer, DerivativeStats> findStats(Collection<Integer> derivativeIds) throws SQLException {
+        Map<Integer, DerivativeStats> stats = new HashMap<>();
+        if (derivativeIds.isEmpty()) {
+            return stats;
+        }
+        String sql = "SELECT * FROM derivative_stats WHERE derivative_id = ANY(?)";
+
+        try (Connection conn = dbManager.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setArray(1, conn.createArrayOf("integer", derivativeIds.toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    DerivativeStats derivativeStats = mapStatsFromResultSet(rs);
+                    stats.put(derivativeStats.getDerivativeId(), derivativeStats);
+                }
+            }
+        }
+        return stats;
+    }
+
+    private DerivativeStats mapStatsFromResultSet(ResultSet rs) throws SQLException {
+        Map<Risk.RiskCategory, Integer> riskCounts = new EnumMap<>(Risk.RiskCategory.class);
+        for (Risk.RiskCategory category : Risk.RiskCategory.values()) {
+            riskCounts.put(category, rs.getInt(category.name().toLowerCase() + "_risk_count"));
+        }
+        return new DerivativeStats(
+                rs.getInt("derivative_id"),
+                rs.getInt("obligation_count"),
+                rs.getDouble("amount_sum"),
+                rs.getDouble("calculated_value_sum"),
+                rs.getDouble("risk_level_sum"),
+                riskCounts);
+    }
+
+    /**
+     * Повертає кількість зобов'язань деривативу, не завантажуючи їх.
+     *
+     * @param derivativeId ідентифікатор деривативу
+     * @return кількість зобов'язань
+     * @throws SQLException у разі помилки БД
+     */
+    public int countObligations(int derivativeId) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM derivative_obligations WHERE derivative_id = ?";
+
+        try (Connection conn = dbManager.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, derivativeId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * Повертає кількість ризиків за категоріями серед усіх зобов'язань
+     * деривативу. Агрегація виконується в базі даних (GROUP BY), тож
+     * зобов'язання не завантажуються.
+     *
+     * @param derivativeId ідентифікатор деривативу
+     * @return мапа категорія ризику → кількість
+     * @throws SQLException у разі помилки БД
+     * @see proj.Service.DerivativeService#countRisksByCategory(Derivative)
+     */
+    public Map<Risk.RiskCategory, Long> countRisksByCategory(int derivativeId) throws SQLException {
+        String sql = "SELECT r.category, COUNT(*) AS risk_count FROM derivative_obligations d " +
+                "JOIN all_obligation_risks obr ON obr.obligation_id = d.obligation_id " +
+                "JOIN risks r ON r.code = obr.risk_code " +
+                "WHERE d.derivative_id = ? GROUP BY r.category";
+        Map<Risk.RiskCategory, Long> counts = new EnumMap<>(Risk.RiskCategory.class);
+
+        try (Connection conn = dbManager.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, derivativeId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    counts.put(Risk.RiskCategory.valueOf(rs.getString("category")), rs.getLong("risk_count"));
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Обчислює середній рівень ризику серед усіх зобов'язань деривативу
+     * засобами бази даних.
+     *
+     * @param derivativeId ідентифікатор деривативу
+     * @return середній рівень ризику або 0.0, якщо зобов'язань немає
+     * @throws SQLException у разі помилки БД
+     * @see proj.Service.DerivativeService#calculateAverageRisk(Derivative)
+     */
+    public double calculateAverageRisk(int derivativeId) throws SQLException {
+        String sql = "SELECT COALESCE(AVG(o.risk_level), 0) FROM derivative_obligations d " +
+                "JOIN all_insurance_obligations o ON o.id = d.obligation_id WHERE d.derivative_id = ?";
+
+        try (Connection conn = dbManager.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, derivativeId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getDouble(1);
+            }
+        }
+    }
+
+    /**
+     * Повертає кількість зобов'язань деривативу за типом. Ключі збігаються з
+     * назвами класів моделі (LifeInsurance, HealthInsurance, PropertyInsurance),
+     * як і в сервісному методі, що рахує в пам'яті.
+     *
+     * @param derivativeId ідентифікатор деривативу
+     * @return мапа тип зобов'язання → кількість
+     * @throws SQLException у разі помилки БД
+     * @see proj.Service.DerivativeService#countObligationsByType(Derivative)
+     */
+    public Map<String, Long> countObligationsByType(int derivativeId) throws SQLException {
+        String sql = "SELECT o.type, COUNT(*) AS obligation_count FROM derivative_obligations d " +
+                "JOIN all_insurance_obligations o ON o.id = d.obligation_id " +
+                "WHERE d.derivative_id = ? GROUP BY o.type";
+        Map<String, Long> counts = new HashMap<>();
+
+        try (Connection conn = dbManager.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, derivativeId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    counts.put(modelTypeName(rs.getString("type")), rs.getLong("obligation_count"));
+                }
+            }
+        }
+        return counts;
+    }
+
+    private static String modelTypeName(String type) {
+        switch (type) {
+            case "LIFE":
+                return LifeInsurance.class.getSimpleName();
+            case "HEALTH":
+                return HealthInsurance.class.getSimpleName();
+            case "PROPERTY":
+                return PropertyInsurance.class.getSimpleName();
+            default:
+                return type;
+        }
+    }
+
+    /**
+     * Асинхронний варіант {@link #save(Derivative)}.
+     *
+     * @param derivative дериватив для збереження
+     * @return майбутній результат
+     */
+    public CompletableFuture<Derivative> saveAsync(Derivative derivative) {
+        return dbManager.getAsyncExecutor().submit(() -> save(derivative));
+    }
+
+    /**
+     * Асинхронний варіант {@link #findById(int)}.
+     *
+     * @param id ідентифікатор деривативу
+     * @return майбутній результат
+     */
+    public CompletableFuture<Optional<Derivative>> findByIdAsync(int id) {
+        return dbManager.getAsyncExecutor().submit(() -> findById(id));
+    }
+
+    /**
+     * Асинхронний варіант {@link #findPage(DerivativeCriteria, DerivativePage.Key, int)}.
+     *
+     * @param criteria критерії пошуку та сортування
+     * @param after    ключ останнього деривативу попередньої сторінки або null
+     * @param limit    розмір сторінки
+     * @return майбутній результат
+     */
+    public CompletableFuture<DerivativePage> findPageAsync(DerivativeCriteria criteria, DerivativePage.Key after,
+            int limit) {
+        return dbManager.getAsyncExecutor().submit(() -> findPage(criteria, after, limit));
+    }
+
+    /**
+     * Асинхронний варіант {@link #countByCriteria(DerivativeCriteria)}.
+     *
+     * @param criteria критерії пошуку
+     * @return майбутній результат
+     */
+    public CompletableFuture<Integer> countByCriteriaAsync(DerivativeCriteria criteria) {
+        return dbManager.getAsyncExecutor().submit(() -> countByCriteria(criteria));
+    }
+
+    /**
+     * Асинхронний варіант {@link #countObligations(int)}.
+     *
+     * @param derivativeId ідентифікатор деривативу
+     * @return майбутній результат
+     */
+    public CompletableFuture<Integer> countObligationsAsync(int derivativeId) {
+        return dbManager.getAsyncExecutor().submit(() -> countObligations(derivativeId));
+    }
+
+    /**
+     * Асинхронний варіант {@link #calculateAverageRisk(int)}.
+     *
+     * @param derivativeId ідентифікатор деривативу
+     * @return майбутній результат
+     */
+    public CompletableFuture<Double> calculateAverageRiskAsync(int derivativeId) {
+        return dbManager.getAsyncExecutor().submit(() -> calculateAverageRisk(derivativeId));
+    }
+
+    /**
+     * Асинхронний варіант {@link #delete(int)}.
+     *
+     * @param id ідентифікатор деривативу
+     * @return майбутній результат
+     */
+    public CompletableFuture<Boolean> deleteAsync(int id) {
+        return dbManager.getAsyncExecutor().submit(() -> delete(id));
+    }
+
+    private List<String> buildConditions(DerivativeCriteria criteria, List<Object> params) {
+        List<String> conditions = new ArrayList<>();
+        if (criteria.getNameSearch() != null) {
+            conditions.add("name ILIKE ? ESCAPE '\\'");
+            params.add(LikePatterns.contains(criteria.getNameSearch()));
+        }
+        if (criteria.getMinValue() != null) {
+            conditions.add("total_value >= ?");
+            params.add(BigDecimal.valueOf(criteria.getMinValue()));
+        }
+        if (criteria.getMaxValue() != null) {
+            conditions.add("total_value <= ?");
+            params.add(BigDecimal.valueOf(criteria.getMaxValue()));
+        }
+        return conditions;
+    }
+
+    private void bindParameters(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            stmt.setObject(i + 1, params.get(i));
+        }
     }
 }
\ No newline at end of file
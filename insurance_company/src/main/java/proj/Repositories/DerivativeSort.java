@@ -0,0 +1,66 @@
+package proj.Repositories;
+
+/**
+ * Варіанти сортування деривативів, що виконуються на боці бази даних.
+ * Кожен варіант відповідає пункту списку сортування у вкладці деривативів
+ * та колонці таблиці derivatives (або зведеної статистики derivative_stats),
+ * за якою будується ключ пагінації.
+ */
+public enum DerivativeSort {
+    NAME_ASC("Назвою (А-Я)", "name", true),
+    NAME_DESC("Назвою (Я-А)", "name", false),
+    VALUE_ASC("Вартістю (зростання)", "total_value", true),
+    VALUE_DESC("Вартістю (спадання)", "total_value", false),
+    DATE_DESC("Датою (новіші)", "created_at", false),
+    DATE_ASC("Датою (старіші)", "created_at", true),
+    COUNT_DESC("Кількістю зобов'язань (більше)", "obligation_count", false),
+    COUNT_ASC("Кількістю зобов'язань (менше)", "obligation_count", true),
+    RISK_DESC("Середнім ризиком (вищий)", "average_risk_level", false),
+    RISK_ASC("Середнім ризиком (нижчий)", "average_risk_level", true);
+
+    private final String label;
+    private final String column;
+    private final boolean ascending;
+
+    DerivativeSort(String label, String column, boolean ascending) {
+        this.label = label;
+        this.column = column;
+        this.ascending = ascending;
+    }
+
+    /**
+     * @return підпис варіанту сортування в інтерфейсі
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return колонка derivatives або derivative_stats, за якою виконується сортування
+     */
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * @return true, якщо сортування за зростанням
+     */
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    /**
+     * Повертає варіант сортування за підписом з інтерфейсу.
+     *
+     * @param label підпис варіанту сортування
+     * @return варіант сортування або null, якщо підпис невідомий
+     */
+    public static DerivativeSort fromLabel(String label) {
+        for (DerivativeSort sort : values()) {
+            if (sort.label.equals(label)) {
+                return sort;
+            }
+        }
+        return null;
+    }
+}
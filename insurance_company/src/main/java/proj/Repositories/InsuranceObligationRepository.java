@@ -8,44 +8,282 @@ import proj.Models.insurance.PropertyInsurance;
 import proj.Models.Risk;
 import proj.Database.DatabaseManager;
 import proj.Models.Derivative;
+import proj.Models.ObligationRow;
 
 import proj.Service.InsuranceService;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.sql.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.HashSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 /**
  * Репозиторій для роботи зі страховими зобов'язаннями у базі даних.
  * Забезпечує CRUD-операції, пошук, збереження, видалення, а також роботу з
  * ризиками та специфічними типами зобов'язань.
+ * <p>
+ * Основні операції мають асинхронні варіанти з суфіксом {@code Async}, які
+ * виконуються через {@link DatabaseManager#getAsyncExecutor()} і не блокують
+ * потік, що їх викликав (наприклад, потік подій Swing).
+ * </p>
  */
 public class InsuranceObligationRepository {
     private static final Logger logger = LogManager.getLogger(InsuranceObligationRepository.class);
 
+    /** Кількість ідентифікаторів, що виділяються з послідовності одним запитом. */
+    static final int ID_BLOCK_SIZE = 10_000;
+
+    /**
+     * Запит, що за один прохід повертає базовий рядок зобов'язання, рядок
+     * відповідної таблиці підтипу (через LEFT JOIN) та масив кодів ризиків;
+     * самі ризики беруться з кешованого каталогу {@link RiskRepository}.
+     * До нього дописуються лише умови WHERE/ORDER BY.
+     */
+    private static final String HYDRATED_SELECT = hydratedSelect("");
+
+    /**
+     * Те саме, що {@link #HYDRATED_SELECT}, але над представленнями all_*,
+     * що об'єднують активні та архівні зобов'язання.
+     */
+    private static final String HYDRATED_SELECT_WITH_ARCHIVE = hydratedSelect("all_");
+
+    /**
+     * Запит для рядків таблиці зобов'язань: лише колонки, що показуються у
+     * списку, без даних підтипів, ризиків і приміток.
+     */
+    private static final String ROW_SELECT = "SELECT o.id, o.policy_number, o.type, o.risk_level, o.amount, " +
+            "o.calculated_value, o.status FROM insurance_obligations o ";
+
+    /**
+     * Те саме, що {@link #ROW_SELECT}, але разом з архівними зобов'язаннями.
+     */
+    private static final String ROW_SELECT_WITH_ARCHIVE = ROW_SELECT.replace("FROM ", "FROM all_");
+
+    private static String hydratedSelect(String prefix) {
+        return "SELECT o.*, " +
+                "li.obligation_id AS life_id, li.beneficiary, li.includes_critical_illness, " +
+                "li.includes_accidental_death, " +
+                "hi.obligation_id AS health_id, hi.age, hi.has_preexisting_conditions, hi.coverage_limit, " +
+                "hi.includes_hospitalization, hi.includes_dental_care, " +
+                "pi.obligation_id AS property_id, pi.property_location, pi.property_value, pi.is_high_risk_area, " +
+                "pi.property_type, pi.includes_natural_disasters, rk.risk_codes " +
+                "FROM " + prefix + "insurance_obligations o " +
+                "LEFT JOIN " + prefix + "life_insurance li ON li.obligation_id = o.id " +
+                "LEFT JOIN " + prefix + "health_insurance hi ON hi.obligation_id = o.id " +
+                "LEFT JOIN " + prefix + "property_insurance pi ON pi.obligation_id = o.id " +
+                "LEFT JOIN LATERAL (SELECT array_agg(obr.risk_code) AS risk_codes " +
+                "FROM " + prefix + "obligation_risks obr WHERE obr.obligation_id = o.id) rk ON TRUE ";
+    }
+
+    private static String hydratedSelect(boolean includeArchived) {
+        return includeArchived ? HYDRATED_SELECT_WITH_ARCHIVE : HYDRATED_SELECT;
+    }
+
+    /**
+     * Стовпці insurance_obligations та таблиць підтипів за назвами полів, які
+     * повертає {@link InsuranceObligation#getDirtyFields()}.
+     */
+    private static final Map<String, String> BASE_COLUMNS = columns(
+            "policyNumber", "policy_number",
+            "type", "type",
+            "riskLevel", "risk_level",
+            "amount", "amount",
+            "durationMonths", "duration_months",
+            "calculatedValue", "calculated_value",
+            "startDate", "start_date",
+            "endDate", "end_date",
+            "status", "status",
+            "notes", "notes");
+
+    private static final Map<String, String> LIFE_COLUMNS = columns(
+            "beneficiary", "beneficiary",
+            "includesCriticalIllness", "includes_critical_illness",
+            "includesAccidentalDeath", "includes_accidental_death");
+
+    private static final Map<String, String> HEALTH_COLUMNS = columns(
+            "age", "age",
+            "hasPreexistingConditions", "has_preexisting_conditions",
+            "coverageLimit", "coverage_limit",
+            "includesHospitalization", "includes_hospitalization",
+            "includesDentalCare", "includes_dental_care");
+
+    private static final Map<String, String> PROPERTY_COLUMNS = columns(
+            "propertyLocation", "property_location",
+            "propertyValue", "property_value",
+            "highRiskArea", "is_high_risk_area",
+            "propertyType", "property_type",
+            "includesNaturalDisasters", "includes_natural_disasters");
+
+    private static Map<String, String> columns(String... fieldsAndColumns) {
+        Map<String, String> columns = new LinkedHashMap<>();
+        for (int i = 0; i < fieldsAndColumns.length; i += 2) {
+            columns.put(fieldsAndColumns[i], fieldsAndColumns[i + 1]);
+        }
+        return Collections.unmodifiableMap(columns);
+    }
+
+    /** Наближений розмір зобов'язання без рядків, у байтах. */
+    private static final long OBLIGATION_BASE_BYTES = 256;
+
+    /**
+     * Запис кешу другого рівня: власна копія зобов'язання, яка ніколи не
+     * передається викликачам, та ознака, чи прочитано її з активних таблиць.
+     * Копія, прочитана через представлення all_*, може бути архівною, тож
+     * обслуговує лише пошук разом з архівними; архівування вилучає записи
+     * перенесених зобов'язань, тож активні записи лишаються активними.
+     */
+    static final class CachedObligation {
+        private final InsuranceObligation snapshot;
+        private final boolean active;
+
+        private CachedObligation(InsuranceObligation snapshot, boolean active) {
+            this.snapshot = snapshot;
+            this.active = active;
+        }
+    }
+
+    /**
+     * Спільний для всіх екземплярів кеш другого рівня перед
+     * {@link #findById(int, boolean)} та {@link #findAllByIds(Collection, boolean)}.
+     * Створюється під час першого звернення з параметрів db.properties або
+     * лишається вимкненим (null). Кеш зберігає копії, а викликачі отримують
+     * нові копії, тож зміни об'єкта до збереження не видно іншим сесіям.
+     */
+    private static BoundedCache<Integer, CachedObligation> cache;
+    private static boolean cacheConfigured;
+
+    /**
+     * Повертає кеш другого рівня, за потреби створюючи його з параметрів
+     * db.cache.obligations.max.bytes (обмеження оцінкою розміру),
+     * db.cache.obligations.max.entries (обмеження кількістю записів) та
+     * db.cache.obligations.ttl.seconds. Якщо обидва обмеження нульові (типово),
+     * кеш вимкнено.
+     */
+    private static synchronized BoundedCache<Integer, CachedObligation> obligationCache(
+            DatabaseManager dbManager) {
+        if (!cacheConfigured) {
+            long maxBytes = Long.parseLong(dbManager.getConfigProperty("db.cache.obligations.max.bytes", "0"));
+            long maxEntries = Long.parseLong(dbManager.getConfigProperty("db.cache.obligations.max.entries", "0"));
+            Duration ttl = Duration.ofSeconds(
+                    Long.parseLong(dbManager.getConfigProperty("db.cache.obligations.ttl.seconds", "300")));
+            if (maxBytes > 0) {
+                cache = new BoundedCache<>(maxBytes, entry -> estimateSize(entry.snapshot), ttl);
+            } else if (maxEntries > 0) {
+                cache = new BoundedCache<>(maxEntries, entry -> 1, ttl);
+            }
+            cacheConfigured = true;
+            if (cache != null) {
+                logger.info("Кеш зобов'язань увімкнено: {}", maxBytes > 0
+                        ? maxBytes + " байтів" : maxEntries + " записів");
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Встановлює кеш другого рівня замість налаштованого в db.properties.
+     *
+     * @param obligationCache кеш або null, щоб вимкнути кешування
+     */
+    static synchronized void setCache(BoundedCache<Integer, CachedObligation> obligationCache) {
+        cache = obligationCache;
+        cacheConfigured = true;
+    }
+
+    /**
+     * Повертає лічильники кешу другого рівня для підбору його розміру.
+     *
+     * @return знімок лічильників або null, якщо кеш вимкнено
+     */
+    public static CacheStats getCacheStats() {
+        BoundedCache<Integer, CachedObligation> current;
+        synchronized (InsuranceObligationRepository.class) {
+            current = cache;
+        }
+        return current != null ? current.stats() : null;
+    }
+
+    /**
+     * Оцінює розмір зобов'язання в пам'яті: сталу частину об'єкта, рядки та
+     * посилання на ризики (самі ризики спільні через каталог).
+     */
+    static long estimateSize(InsuranceObligation obligation) {
+        long size = OBLIGATION_BASE_BYTES + 16L * obligation.getCoveredRisks().size();
+        size += stringBytes(obligation.getPolicyNumber()) + stringBytes(obligation.getType())
+                + stringBytes(obligation.getNotes());
+        if (obligation instanceof LifeInsurance life) {
+            size += stringBytes(life.getBeneficiary());
+        } else if (obligation instanceof PropertyInsurance property) {
+            size += stringBytes(property.getPropertyLocation()) + stringBytes(property.getPropertyType());
+        }
+        return size;
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 40 + 2L * value.length();
+    }
+
     private final DatabaseManager dbManager;
     private final InsuranceService insuranceService = InsuranceService.getInstance();
+    private final RepositorySession session;
+    private final RiskRepository riskRepository;
     private DerivativeRepository derivativeRepository;
 
+    /**
+     * Створює репозиторій без спільної сесії: кожен виклик має власну карту
+     * ідентичності.
+     */
     public InsuranceObligationRepository() {
+        this(null);
+    }
+
+    /**
+     * Створює репозиторій, що матеріалізує зобов'язання та ризики через
+     * карту ідентичності вказаної сесії.
+     *
+     * @param session сесія репозиторіїв або null, щоб кожен виклик мав власну
+     */
+    public InsuranceObligationRepository(RepositorySession session) {
         this.dbManager = DatabaseManager.getInstance();
+        this.session = session;
+        this.riskRepository = new RiskRepository(session);
         logger.info("InsuranceObligationRepository ініціалізовано");
     }
 
     private DerivativeRepository getDerivativeRepository() {
         if (derivativeRepository == null) {
-            derivativeRepository = new DerivativeRepository();
+            derivativeRepository = new DerivativeRepository(session);
             logger.debug("DerivativeRepository ініціалізовано");
         }
         return derivativeRepository;
     }
 
+    /**
+     * Повертає карту ідентичності для одного виклику: спільну сесію, якщо
+     * її задано, або нову, що живе лише до кінця виклику.
+     */
+    private RepositorySession callSession() {
+        return session != null ? session : new RepositorySession();
+    }
+
     /**
      * Зберігає зобов'язання у базі даних.
      * Якщо зобов'язання нове — створює, інакше оновлює.
@@ -55,20 +293,110 @@ public class InsuranceObligationRepository {
      * @throws SQLException у разі помилки БД
      */
     public InsuranceObligation save(InsuranceObligation obligation) throws SQLException {
+        try {
+            InsuranceObligation saved = dbManager.inTransaction(conn -> save(conn, obligation));
+            saved.markClean();
+            return saved;
+        } finally {
+            // Читач міг повернути до кешу стару версію до фіксації транзакції
+            invalidateCached(obligation.getId());
+        }
+    }
+
+    private void invalidateCached(int id) {
+        BoundedCache<Integer, CachedObligation> obligationCache = obligationCache(dbManager);
+        if (obligationCache != null && id != 0) {
+            obligationCache.invalidate(id);
+        }
+    }
+
+    /**
+     * Повертає копію зобов'язання з кешу другого рівня, якщо запис придатний
+     * для пошуку з такою ознакою архівних.
+     */
+    private static InsuranceObligation getCached(BoundedCache<Integer, CachedObligation> obligationCache, int id,
+            boolean includeArchived, RepositorySession identityMap) {
+        if (obligationCache == null) {
+            return null;
+        }
+        CachedObligation entry = obligationCache.get(id);
+        if (entry == null || !(entry.active || includeArchived)) {
+            return null;
+        }
+        return copyOf(entry.snapshot, identityMap);
+    }
+
+    private static void putCached(BoundedCache<Integer, CachedObligation> obligationCache,
+            InsuranceObligation obligation, boolean includeArchived) {
+        if (obligationCache != null) {
+            obligationCache.put(obligation.getId(), new CachedObligation(copyOf(obligation, null), !includeArchived));
+        }
+    }
+
+    /**
+     * Створює незалежну копію синхронізованого з базою зобов'язання: базові
+     * поля, поля підтипу та ризики. Ризики беруться з карти ідентичності,
+     * якщо її задано.
+     */
+    private static InsuranceObligation copyOf(InsuranceObligation source, RepositorySession identityMap) {
+        InsuranceObligation copy;
+        if (source instanceof LifeInsurance) {
+            copy = new LifeInsurance(source);
+        } else if (source instanceof HealthInsurance) {
+            copy = new HealthInsurance(source);
+        } else if (source instanceof PropertyInsurance) {
+            copy = new PropertyInsurance(source);
+        } else {
+            throw new IllegalArgumentException("Unknown insurance type: " + source.getType());
+        }
+        for (Risk risk : source.getCoveredRisks()) {
+            Risk shared = identityMap != null ? identityMap.getRisk(risk.getCode()) : null;
+            if (shared == null) {
+                shared = identityMap != null ? identityMap.registerRisk(risk) : risk;
+            }
+            copy.getCoveredRisks().add(shared);
+        }
+        copy.markClean();
+        return copy;
+    }
+
+    /**
+     * Зберігає зобов'язання в межах транзакції, яку веде викликач: базовий
+     * рядок, ризики та дані підтипу записуються через одне з'єднання.
+     * Якщо вставка нового зобов'язання не вдалася, його ідентифікатор
+     * скидається, щоб об'єкт лишився новим.
+     *
+     * @param conn       транзакційне з'єднання
+     * @param obligation зобов'язання
+     * @return збережене зобов'язання
+     * @throws SQLException у разі помилки БД
+     */
+    InsuranceObligation save(Connection conn, InsuranceObligation obligation) throws SQLException {
         logger.info("Збереження зобов'язання: {}", obligation.getPolicyNumber());
         // Оновлюємо розраховану вартість через InsuranceService перед збереженням
-        double calculatedValue = insuranceService.calculateObligationValue(obligation);
-        obligation.setCalculatedValue(calculatedValue);
+        obligation.setCalculatedValue(calculateValue(obligation));
 
-        if (obligation.getId() == 0) {
-            return insert(obligation);
-        } else {
-            return update(obligation);
+        if (obligation.getId() != 0) {
+            invalidateCached(obligation.getId());
+            return register(update(conn, obligation));
+        }
+        try {
+            return register(insert(conn, obligation));
+        } catch (SQLException | RuntimeException e) {
+            obligation.setId(0);
+            throw e;
+        }
+    }
+
+    private InsuranceObligation register(InsuranceObligation obligation) {
+        if (session != null) {
+            session.registerObligation(obligation);
         }
+        return obligation;
     }
 
     /**
-     * Зберігає зобов'язання та додає його до деривативу.
+     * Зберігає зобов'язання та прив'язує його до деривативу однією транзакцією.
      *
      * @param obligation зобов'язання
      * @param derivative дериватив
@@ -77,31 +405,179 @@ public class InsuranceObligationRepository {
      */
     public InsuranceObligation save(InsuranceObligation obligation, Derivative derivative) throws SQLException {
         logger.info("Збереження зобов'язання {} для деривативи {}", obligation.getPolicyNumber(), derivative.getName());
-        InsuranceObligation savedObligation = save(obligation);
-        if (derivative != null) {
-            // Додаємо через сервіс, якщо логіка додавання винесена
-            derivative.addObligation(savedObligation);
-            getDerivativeRepository().save(derivative);
+        InsuranceObligation saved = dbManager.inTransaction(conn -> {
+            InsuranceObligation savedObligation = save(conn, obligation);
+            // Зв'язок і вартість деривативу змінюються атомарно, без перезапису всього деривативу
+            getDerivativeRepository().attachObligation(conn, derivative, savedObligation);
+            return savedObligation;
+        });
+        saved.markClean();
+        return saved;
+    }
+
+    /**
+     * Масово зберігає нові зобов'язання. Вартість усього пакета обчислюється
+     * через InsuranceService, ідентифікатори виділяються з послідовності
+     * блоками по {@value #ID_BLOCK_SIZE} одним запитом на блок, а базові рядки,
+     * дані підтипів і ризики передаються потоком через PostgreSQL COPY —
+     * по одній операції COPY на таблицю. Усе виконується однією транзакцією;
+     * у разі помилки ідентифікатори зобов'язань скидаються.
+     *
+     * @param obligations нові зобов'язання (з ідентифікатором 0)
+     * @return кількість збережених зобов'язань
+     * @throws SQLException у разі помилки БД
+     * @throws IllegalArgumentException якщо серед зобов'язань є вже збережені
+     */
+    public int saveAll(Collection<? extends InsuranceObligation> obligations) throws SQLException {
+        List<InsuranceObligation> batch = new ArrayList<>(obligations);
+        for (InsuranceObligation obligation : batch) {
+            if (obligation.getId() != 0) {
+                throw new IllegalArgumentException("Obligation is already saved: " + obligation.getId());
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        logger.info("Масове збереження {} зобов'язань", batch.size());
+        for (InsuranceObligation obligation : batch) {
+            obligation.setCalculatedValue(calculateValue(obligation));
         }
-        return savedObligation;
+
+        try {
+            dbManager.inTransaction(conn -> {
+                for (int from = 0; from < batch.size(); from += ID_BLOCK_SIZE) {
+                    assignIds(conn, batch.subList(from, Math.min(from + ID_BLOCK_SIZE, batch.size())));
+                }
+                CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+                copyObligations(copyManager, batch);
+                copySpecificTypeData(copyManager, batch);
+                copyRisks(copyManager, batch);
+                return null;
+            });
+        } catch (SQLException | RuntimeException e) {
+            batch.forEach(obligation -> obligation.setId(0));
+            throw e;
+        }
+        batch.forEach(obligation -> {
+            obligation.markClean();
+            register(obligation);
+        });
+        logger.info("Масово збережено {} зобов'язань", batch.size());
+        return batch.size();
     }
 
-    private InsuranceObligation insert(InsuranceObligation obligation) throws SQLException {
+    private void assignIds(Connection conn, List<InsuranceObligation> block) throws SQLException {
+        String sql = "SELECT nextval(pg_get_serial_sequence('insurance_obligations', 'id')) " +
+                "FROM generate_series(1, ?)";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, block.size());
+            try (ResultSet rs = stmt.executeQuery()) {
+                for (InsuranceObligation obligation : block) {
+                    if (!rs.next()) {
+                        throw new SQLException("Failed to allocate obligation ids");
+                    }
+                    obligation.setId(rs.getInt(1));
+                }
+            }
+        }
+    }
+
+    private void copyObligations(CopyManager copyManager, List<InsuranceObligation> batch) throws SQLException {
+        try (CopyRowWriter writer = new CopyRowWriter(copyManager, "insurance_obligations",
+                "id", "policy_number", "type", "risk_level", "amount", "duration_months", "calculated_value",
+                "start_date", "end_date", "status", "notes", "created_at", "updated_at")) {
+            for (InsuranceObligation obligation : batch) {
+                writer.row(obligation.getId(), obligation.getPolicyNumber(), obligation.getType().toUpperCase(),
+                        obligation.getRiskLevel(), obligation.getAmount(), obligation.getDurationMonths(),
+                        obligation.getCalculatedValue(), obligation.getStartDate(), obligation.getEndDate(),
+                        obligation.getStatus().toString(), obligation.getNotes(), obligation.getCreatedAt(),
+                        obligation.getUpdatedAt());
+            }
+            writer.finish();
+        }
+    }
+
+    private void copySpecificTypeData(CopyManager copyManager, List<InsuranceObligation> batch)
+            throws SQLException {
+        List<LifeInsurance> life = new ArrayList<>();
+        List<HealthInsurance> health = new ArrayList<>();
+        List<PropertyInsurance> property = new ArrayList<>();
+        for (InsuranceObligation obligation : batch) {
+            if (obligation instanceof LifeInsurance) {
+                life.add((LifeInsurance) obligation);
+            } else if (obligation instanceof HealthInsurance) {
+                health.add((HealthInsurance) obligation);
+            } else if (obligation instanceof PropertyInsurance) {
+                property.add((PropertyInsurance) obligation);
+            }
+        }
+
+        if (!life.isEmpty()) {
+            try (CopyRowWriter writer = new CopyRowWriter(copyManager, "life_insurance", "obligation_id",
+                    "beneficiary", "includes_critical_illness", "includes_accidental_death")) {
+                for (LifeInsurance insurance : life) {
+                    writer.row(insurance.getId(), insurance.getBeneficiary(),
+                            insurance.includesCriticalIllness(), insurance.includesAccidentalDeath());
+                }
+                writer.finish();
+            }
+        }
+        if (!health.isEmpty()) {
+            try (CopyRowWriter writer = new CopyRowWriter(copyManager, "health_insurance", "obligation_id",
+                    "age", "has_preexisting_conditions", "coverage_limit", "includes_hospitalization",
+                    "includes_dental_care")) {
+                for (HealthInsurance insurance : health) {
+                    writer.row(insurance.getId(), insurance.getAge(), insurance.hasPreexistingConditions(),
+                            insurance.getCoverageLimit(), insurance.includesHospitalization(),
+                            insurance.includesDentalCare());
+                }
+                writer.finish();
+            }
+        }
+        if (!property.isEmpty()) {
+            try (CopyRowWriter writer = new CopyRowWriter(copyManager, "property_insurance", "obligation_id",
+                    "property_location", "property_value", "is_high_risk_area", "property_type",
+                    "includes_natural_disasters")) {
+                for (PropertyInsurance insurance : property) {
+                    writer.row(insurance.getId(), insurance.getPropertyLocation(), insurance.getPropertyValue(),
+                            insurance.isHighRiskArea(), insurance.getPropertyType(),
+                            insurance.includesNaturalDisasters());
+                }
+                writer.finish();
+            }
+        }
+    }
+
+    private void copyRisks(CopyManager copyManager, List<InsuranceObligation> batch) throws SQLException {
+        try (CopyRowWriter writer = new CopyRowWriter(copyManager, "obligation_risks",
+                "obligation_id", "risk_code")) {
+            for (InsuranceObligation obligation : batch) {
+                for (Risk risk : obligation.getCoveredRisks()) {
+                    writer.row(obligation.getId(), risk.getCode());
+                }
+            }
+            writer.finish();
+        }
+    }
+
+    private InsuranceObligation insert(Connection conn, InsuranceObligation obligation) throws SQLException {
         logger.debug("Вставка нового зобов'язання: {}", obligation.getPolicyNumber());
         String sql = "INSERT INTO insurance_obligations (policy_number, type, risk_level, amount, " +
                 "duration_months, calculated_value, start_date, end_date, status, notes, created_at, updated_at) " +
                 "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) RETURNING id";
 
-        try (Connection conn = dbManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             setObligationParameters(stmt, obligation);
+            stmt.setTimestamp(11, Timestamp.valueOf(obligation.getCreatedAt()));
+            stmt.setTimestamp(12, Timestamp.valueOf(obligation.getUpdatedAt()));
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
                     obligation.setId(rs.getInt("id"));
-                    saveRisks(obligation);
-                    saveSpecificTypeData(obligation);
+                    saveRisks(conn, obligation);
+                    saveSpecificTypeData(conn, obligation);
                     logger.info("Зобов'язання успішно вставлено з ID: {}", obligation.getId());
                     return obligation;
                 }
@@ -111,22 +587,61 @@ public class InsuranceObligationRepository {
         throw new SQLException("Failed to insert insurance obligation");
     }
 
-    private InsuranceObligation update(InsuranceObligation obligation) throws SQLException {
+    /**
+     * Оновлює збережене зобов'язання. Якщо відомо, які поля змінилися з часу
+     * завантаження, записуються лише вони: базовий рядок оновлюється тільки
+     * зміненими стовпцями (і updated_at), ризики перезаписуються лише після
+     * зміни їх набору, а рядок підтипу — лише після зміни його полів. Без
+     * змін запис не виконується зовсім. Зобов'язання з невідомим станом бази
+     * перезаписуються повністю.
+     */
+    private InsuranceObligation update(Connection conn, InsuranceObligation obligation) throws SQLException {
+        Set<String> dirtyFields = obligation.getDirtyFields();
+        if (dirtyFields == null) {
+            return updateAll(conn, obligation);
+        }
+        if (dirtyFields.isEmpty()) {
+            logger.debug("Зобов'язання з ID {} не змінювалося, оновлення пропущено", obligation.getId());
+            return obligation;
+        }
+        logger.debug("Оновлення полів {} зобов'язання з ID: {}", dirtyFields, obligation.getId());
+
+        Map<String, Object> values = changedValues(obligation, BASE_COLUMNS, dirtyFields);
+        values.put("updated_at", Timestamp.valueOf(obligation.getUpdatedAt()));
+        if (updateColumns(conn, "insurance_obligations", "id", obligation.getId(), values) == 0) {
+            logger.error("Не вдалося оновити зобов'язання з ID: {}", obligation.getId());
+            throw new SQLException("Failed to update insurance obligation");
+        }
+        if (dirtyFields.contains(InsuranceObligation.COVERED_RISKS)) {
+            updateRisks(conn, obligation);
+        }
+        Map<String, String> subtypeColumns = subtypeColumns(obligation);
+        if (subtypeColumns != null) {
+            Map<String, Object> subtypeValues = changedValues(obligation, subtypeColumns, dirtyFields);
+            if (!subtypeValues.isEmpty()) {
+                updateColumns(conn, subtypeTable(obligation), "obligation_id", obligation.getId(), subtypeValues);
+            }
+        }
+        logger.info("Зобов'язання з ID {} успішно оновлено", obligation.getId());
+        return obligation;
+    }
+
+    private InsuranceObligation updateAll(Connection conn, InsuranceObligation obligation) throws SQLException {
         logger.debug("Оновлення зобов'язання з ID: {}", obligation.getId());
         String sql = "UPDATE insurance_obligations SET policy_number = ?, type = ?, risk_level = ?, " +
                 "amount = ?, duration_months = ?, calculated_value = ?, start_date = ?, " +
                 "end_date = ?, status = ?, notes = ?, updated_at = ? WHERE id = ?";
 
-        try (Connection conn = dbManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             setObligationParameters(stmt, obligation);
+            stmt.setTimestamp(11, Timestamp.valueOf(obligation.getUpdatedAt()));
             stmt.setInt(12, obligation.getId());
 
             int affectedRows = stmt.executeUpdate();
             if (affectedRows > 0) {
-                updateRisks(obligation);
-                updateSpecificTypeData(obligation);
+                updateRisks(conn, obligation);
+                updateSpecificTypeData(conn, obligation);
                 logger.info("Зобов'язання з ID {} успішно оновлено", obligation.getId());
                 return obligation;
             }
@@ -135,6 +650,17 @@ public class InsuranceObligationRepository {
         throw new SQLException("Failed to update insurance obligation");
     }
 
+    /**
+     * Розраховує вартість зобов'язання з точністю стовпця calculated_value
+     * (DECIMAL(20,2)), щоб вона збігалася з прочитаною з бази і незмінна
+     * вартість не позначала зобов'язання зміненим.
+     */
+    private double calculateValue(InsuranceObligation obligation) {
+        return BigDecimal.valueOf(insuranceService.calculateObligationValue(obligation))
+                .setScale(2, RoundingMode.HALF_UP)
+                .doubleValue();
+    }
+
     private void setObligationParameters(PreparedStatement stmt, InsuranceObligation obligation)
             throws SQLException {
         stmt.setString(1, obligation.getPolicyNumber());
@@ -144,7 +670,7 @@ public class InsuranceObligationRepository {
         stmt.setInt(5, obligation.getDurationMonths());
 
         // Оновлюємо розраховану вартість через InsuranceService
-        double calculatedValue = insuranceService.calculateTotalObligationsValue(List.of(obligation));
+        double calculatedValue = calculateValue(obligation);
         obligation.setCalculatedValue(calculatedValue);
         stmt.setDouble(6, calculatedValue);
 
@@ -152,19 +678,140 @@ public class InsuranceObligationRepository {
         stmt.setTimestamp(8, Timestamp.valueOf(obligation.getEndDate()));
         stmt.setString(9, obligation.getStatus().toString());
         stmt.setString(10, obligation.getNotes());
-        stmt.setTimestamp(11, Timestamp.valueOf(obligation.getCreatedAt()));
-        stmt.setTimestamp(12, Timestamp.valueOf(obligation.getUpdatedAt()));
+    }
+
+    /**
+     * Виконує UPDATE лише з переданими стовпцями.
+     *
+     * @return кількість оновлених рядків
+     */
+    private int updateColumns(Connection conn, String table, String keyColumn, int id, Map<String, Object> values)
+            throws SQLException {
+        StringBuilder sql = new StringBuilder("UPDATE ").append(table).append(" SET ");
+        sql.append(String.join(" = ?, ", values.keySet())).append(" = ? WHERE ").append(keyColumn).append(" = ?");
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            List<Object> params = new ArrayList<>(values.values());
+            params.add(id);
+            bindParameters(stmt, params);
+            return stmt.executeUpdate();
+        }
+    }
+
+    private Map<String, Object> changedValues(InsuranceObligation obligation, Map<String, String> columns,
+            Set<String> dirtyFields) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (Map.Entry<String, String> column : columns.entrySet()) {
+            if (dirtyFields.contains(column.getKey())) {
+                values.put(column.getValue(), fieldValue(obligation, column.getKey()));
+            }
+        }
+        return values;
+    }
+
+    private static Map<String, String> subtypeColumns(InsuranceObligation obligation) {
+        if (obligation instanceof LifeInsurance) {
+            return LIFE_COLUMNS;
+        } else if (obligation instanceof HealthInsurance) {
+            return HEALTH_COLUMNS;
+        } else if (obligation instanceof PropertyInsurance) {
+            return PROPERTY_COLUMNS;
+        }
+        return null;
+    }
+
+    private static String subtypeTable(InsuranceObligation obligation) {
+        if (obligation instanceof LifeInsurance) {
+            return "life_insurance";
+        } else if (obligation instanceof HealthInsurance) {
+            return "health_insurance";
+        }
+        return "property_insurance";
+    }
+
+    /**
+     * Повертає значення поля моделі у вигляді параметра для відповідного стовпця.
+     */
+    private static Object fieldValue(InsuranceObligation obligation, String field) {
+        switch (field) {
+            case "policyNumber":
+                return obligation.getPolicyNumber();
+            case "type":
+                return obligation.getType().toUpperCase();
+            case "riskLevel":
+                return obligation.getRiskLevel();
+            case "amount":
+                return obligation.getAmount();
+            case "durationMonths":
+                return obligation.getDurationMonths();
+            case "calculatedValue":
+                return obligation.getCalculatedValue();
+            case "startDate":
+                return Timestamp.valueOf(obligation.getStartDate());
+            case "endDate":
+                return Timestamp.valueOf(obligation.getEndDate());
+            case "status":
+                return obligation.getStatus().toString();
+            case "notes":
+                return obligation.getNotes();
+            default:
+                break;
+        }
+        if (obligation instanceof LifeInsurance life) {
+            switch (field) {
+                case "beneficiary":
+                    return life.getBeneficiary();
+                case "includesCriticalIllness":
+                    return life.includesCriticalIllness();
+                case "includesAccidentalDeath":
+                    return life.includesAccidentalDeath();
+                default:
+                    break;
+            }
+        } else if (obligation instanceof HealthInsurance health) {
+            switch (field) {
+                case "age":
+                    return health.getAge();
+                case "hasPreexistingConditions":
+                    return health.hasPreexistingConditions();
+                case "coverageLimit":
+                    return health.getCoverageLimit();
+                case "includesHospitalization":
+                    return health.includesHospitalization();
+                case "includesDentalCare":
+                    return health.includesDentalCare();
+                default:
+                    break;
+            }
+        } else if (obligation instanceof PropertyInsurance property) {
+            switch (field) {
+                case "propertyLocation":
+                    return property.getPropertyLocation();
+                case "propertyValue":
+                    return property.getPropertyValue();
+                case "highRiskArea":
+                    return property.isHighRiskArea();
+                case "propertyType":
+                    return property.getPropertyType();
+                case "includesNaturalDisasters":
+                    return property.includesNaturalDisasters();
+                default:
+                    break;
+            }
+        }
+        throw new IllegalArgumentException("Unknown obligation field: " + field);
     }
 
     private InsuranceObligation mapObligationFromResultSet(ResultSet rs) throws SQLException {
+        // Номер поліса вже збережено, тож генератор номерів не викликається
         InsuranceObligation obligation = new InsuranceObligation(
+                rs.getString("policy_number"),
                 rs.getDouble("risk_level"),
                 rs.getDouble("amount"),
                 rs.getInt("duration_months")) {
         };
 
         obligation.setId(rs.getInt("id"));
-        obligation.setPolicyNumber(rs.getString("policy_number"));
         obligation.setType(rs.getString("type"));
         obligation.setCalculatedValue(rs.getDouble("calculated_value"));
         obligation.setStartDate(rs.getTimestamp("start_date").toLocalDateTime());
@@ -187,32 +834,123 @@ public class InsuranceObligationRepository {
             default:
                 throw new SQLException("Unknown insurance type: " + obligation.getType());
         }
-        loadSpecificTypeData(obligation);
 
         return obligation;
     }
 
     /**
-     * Повертає зобов'язання за ідентифікатором.
+     * Відображає рядок {@link #HYDRATED_SELECT} у повністю заповнене зобов'язання:
+     * базові поля, дані підтипу та ризики. Якщо зобов'язання вже є в карті
+     * ідентичності, повертається наявний екземпляр без повторного заповнення.
+     *
+     * @param rs          результат запиту, встановлений на поточний рядок
+     * @param identityMap карта ідентичності або null
+     * @return зобов'язання відповідного підтипу
+     * @throws SQLException у разі помилки БД
+     */
+    private InsuranceObligation mapHydratedObligation(ResultSet rs, RepositorySession identityMap)
+            throws SQLException {
+        if (identityMap != null) {
+            InsuranceObligation existing = identityMap.getObligation(rs.getInt("id"));
+            if (existing != null) {
+                return existing;
+            }
+        }
+        InsuranceObligation obligation = mapObligationFromResultSet(rs);
+        applySpecificTypeData(obligation, rs);
+        applyRisks(obligation, rs, identityMap);
+        obligation.markClean();
+        return identityMap != null ? identityMap.registerObligation(obligation) : obligation;
+    }
+
+    private void applySpecificTypeData(InsuranceObligation obligation, ResultSet rs) throws SQLException {
+        if (obligation instanceof LifeInsurance && rs.getObject("life_id") != null) {
+            LifeInsurance lifeInsurance = (LifeInsurance) obligation;
+            lifeInsurance.setBeneficiary(rs.getString("beneficiary"));
+            lifeInsurance.setIncludesCriticalIllness(rs.getBoolean("includes_critical_illness"));
+            lifeInsurance.setIncludesAccidentalDeath(rs.getBoolean("includes_accidental_death"));
+        } else if (obligation instanceof HealthInsurance && rs.getObject("health_id") != null) {
+            HealthInsurance healthInsurance = (HealthInsurance) obligation;
+            healthInsurance.setAge(rs.getInt("age"));
+            healthInsurance.setHasPreexistingConditions(rs.getBoolean("has_preexisting_conditions"));
+            healthInsurance.setCoverageLimit(rs.getInt("coverage_limit"));
+            healthInsurance.setIncludesHospitalization(rs.getBoolean("includes_hospitalization"));
+            healthInsurance.setIncludesDentalCare(rs.getBoolean("includes_dental_care"));
+        } else if (obligation instanceof PropertyInsurance && rs.getObject("property_id") != null) {
+            PropertyInsurance propertyInsurance = (PropertyInsurance) obligation;
+            propertyInsurance.setPropertyLocation(rs.getString("property_location"));
+            propertyInsurance.setPropertyValue(rs.getDouble("property_value"));
+            propertyInsurance.setHighRiskArea(rs.getBoolean("is_high_risk_area"));
+            propertyInsurance.setPropertyType(rs.getString("property_type"));
+            propertyInsurance.setIncludesNaturalDisasters(rs.getBoolean("includes_natural_disasters"));
+        }
+    }
+
+    private void applyRisks(InsuranceObligation obligation, ResultSet rs, RepositorySession identityMap)
+            throws SQLException {
+        obligation.getCoveredRisks().clear();
+        Array codesArray = rs.getArray("risk_codes");
+        if (codesArray == null) {
+            return;
+        }
+        Connection conn = rs.getStatement().getConnection();
+        for (String code : (String[]) codesArray.getArray()) {
+            Risk risk = identityMap != null ? identityMap.getRisk(code) : null;
+            if (risk == null) {
+                risk = riskRepository.resolve(code, conn);
+                if (identityMap != null) {
+                    risk = identityMap.registerRisk(risk);
+                }
+            }
+            obligation.getCoveredRisks().add(risk);
+        }
+    }
+
+    /**
+     * Повертає активне (не архівне) зобов'язання за ідентифікатором.
      *
      * @param id ідентифікатор зобов'язання
      * @return Optional з об'єктом зобов'язання, якщо знайдено
      * @throws SQLException у разі помилки БД
      */
     public Optional<InsuranceObligation> findById(int id) throws SQLException {
+        return findById(id, false);
+    }
+
+    /**
+     * Повертає зобов'язання за ідентифікатором. Якщо зобов'язання вже
+     * матеріалізоване у спільній сесії, воно повертається без запиту до бази.
+     * Далі пошук звертається до кешу другого рівня (якщо його увімкнено);
+     * знайдені зобов'язання потрапляють до кешу. Викликач завжди отримує
+     * власну копію, а не об'єкт з кешу.
+     *
+     * @param id              ідентифікатор зобов'язання
+     * @param includeArchived чи шукати також серед архівних зобов'язань
+     * @return Optional з об'єктом зобов'язання, якщо знайдено
+     * @throws SQLException у разі помилки БД
+     */
+    public Optional<InsuranceObligation> findById(int id, boolean includeArchived) throws SQLException {
         logger.debug("Пошук зобов'язання за ID: {}", id);
-        String sql = "SELECT * FROM insurance_obligations WHERE id = ?";
+        InsuranceObligation known = session != null ? session.getObligation(id) : null;
+        if (known != null) {
+            return Optional.of(known);
+        }
+        BoundedCache<Integer, CachedObligation> obligationCache = obligationCache(dbManager);
+        InsuranceObligation cached = getCached(obligationCache, id, includeArchived, session);
+        if (cached != null) {
+            return Optional.of(register(cached));
+        }
+        String sql = hydratedSelect(includeArchived) + "WHERE o.id = ?";
 
-        try (Connection conn = dbManager.getConnection();
+        try (Connection conn = dbManager.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, id);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    InsuranceObligation obligation = mapObligationFromResultSet(rs);
-                    loadRisks(obligation);
-                    loadSpecificTypeData(obligation);
+                    InsuranceObligation obligation = mapHydratedObligation(rs, session);
+                    putCached(obligationCache, obligation, includeArchived);
                     logger.info("Зобов'язання з ID {} знайдено", id);
                     return Optional.of(obligation);
                 }
@@ -223,31 +961,164 @@ public class InsuranceObligationRepository {
     }
 
     /**
-     * Повертає всі зобов'язання з бази даних.
+     * Повертає всі активні (не архівні) зобов'язання з бази даних.
+     * Дані підтипів та ризики завантажуються тим самим запитом.
      *
      * @return список зобов'язань
      * @throws SQLException у разі помилки БД
      */
     public List<InsuranceObligation> findAll() throws SQLException {
-        String sql = "SELECT * FROM insurance_obligations";
+        return findAll(false);
+    }
+
+    /**
+     * Повертає всі зобов'язання з бази даних.
+     *
+     * @param includeArchived чи включати архівні зобов'язання
+     * @return список зобов'язань
+     * @throws SQLException у разі помилки БД
+     */
+    public List<InsuranceObligation> findAll(boolean includeArchived) throws SQLException {
+        String sql = hydratedSelect(includeArchived);
+        RepositorySession identityMap = callSession();
         List<InsuranceObligation> obligations = new ArrayList<>();
 
-        try (Connection conn = dbManager.getConnection();
+        try (Connection conn = dbManager.getReadConnection();
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
             while (rs.next()) {
-                InsuranceObligation obligation = mapObligationFromResultSet(rs);
-                loadRisks(obligation);
-                loadSpecificTypeData(obligation);
-                obligations.add(obligation);
+                obligations.add(mapHydratedObligation(rs, identityMap));
             }
         }
         return obligations;
     }
 
     /**
-     * Видаляє зобов'язання за ідентифікатором.
+     * Повертає зобов'язання за набором ідентифікаторів одним запитом.
+     * Кожне зобов'язання матеріалізується один раз, навіть якщо на нього
+     * посилаються кілька деривативів.
+     *
+     * @param ids ідентифікатори зобов'язань
+     * @return мапа ідентифікатор → зобов'язання (лише для знайдених активних)
+     * @throws SQLException у разі помилки БД
+     */
+    public Map<Integer, InsuranceObligation> findAllByIds(Collection<Integer> ids) throws SQLException {
+        return findAllByIds(ids, false);
+    }
+
+    /**
+     * Повертає зобов'язання за набором ідентифікаторів одним запитом. Запит
+     * читає лише ті зобов'язання, яких ще немає у спільній сесії та в кеші
+     * другого рівня.
+     *
+     * @param ids             ідентифікатори зобов'язань
+     * @param includeArchived чи включати архівні зобов'язання
+     * @return мапа ідентифікатор → зобов'язання (лише для знайдених)
+     * @throws SQLException у разі помилки БД
+     */
+    public Map<Integer, InsuranceObligation> findAllByIds(Collection<Integer> ids, boolean includeArchived)
+            throws SQLException {
+        Map<Integer, InsuranceObligation> obligations = new HashMap<>();
+        RepositorySession identityMap = callSession();
+        BoundedCache<Integer, CachedObligation> obligationCache = obligationCache(dbManager);
+        List<Integer> missing = new ArrayList<>();
+        for (int id : ids) {
+            InsuranceObligation known = identityMap.getObligation(id);
+            if (known == null) {
+                known = getCached(obligationCache, id, includeArchived, identityMap);
+                if (known != null) {
+                    known = identityMap.registerObligation(known);
+                }
+            }
+            if (known != null) {
+                obligations.put(id, known);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return obligations;
+        }
+        logger.debug("Пакетне завантаження {} зобов'язань", missing.size());
+        String sql = hydratedSelect(includeArchived) + "WHERE o.id = ANY(?)";
+
+        try (Connection conn = dbManager.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setArray(1, conn.createArrayOf("integer", missing.toArray()));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    InsuranceObligation obligation = mapHydratedObligation(rs, identityMap);
+                    obligations.put(obligation.getId(), obligation);
+                    putCached(obligationCache, obligation, includeArchived);
+                }
+            }
+        }
+        return obligations;
+    }
+
+    /**
+     * Переносить до архіву одну порцію зобов'язань зі статусом EXPIRED або
+     * CANCELLED, що завершилися раніше заданої дати, разом з їхніми даними
+     * підтипів і ризиками. Порція переноситься в одній транзакції; рядки,
+     * заблоковані іншими транзакціями, пропускаються. Ключі та зв'язки з
+     * деривативами залишаються, тож вартість деривативів не змінюється.
+     *
+     * @param endedBefore дата, раніше якої мають завершитися зобов'язання
+     * @param batchSize   максимальна кількість зобов'язань у порції
+     * @return кількість перенесених зобов'язань
+     * @throws SQLException у разі помилки БД
+     */
+    public int archiveBatch(LocalDateTime endedBefore, int batchSize) throws SQLException {
+        String columns = "id, policy_number, type, risk_level, amount, duration_months, calculated_value, " +
+                "start_date, end_date, status, notes, created_at, updated_at";
+        String sql = "WITH moved AS (DELETE FROM insurance_obligations WHERE (id, start_date) IN (" +
+                "SELECT id, start_date FROM insurance_obligations " +
+                "WHERE status IN ('EXPIRED', 'CANCELLED') AND end_date < ? " +
+                "ORDER BY end_date LIMIT ? FOR UPDATE SKIP LOCKED) RETURNING " + columns + ") " +
+                "INSERT INTO insurance_obligations_archive (" + columns + ") " +
+                "SELECT " + columns + " FROM moved RETURNING id";
+
+        return dbManager.inTransaction(conn -> {
+            // Тригери ключів і статистики не повинні сприймати перенесення як видалення
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT set_config('insurance.archiving', 'on', true)")) {
+                stmt.execute();
+            }
+
+            List<Integer> ids = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setTimestamp(1, Timestamp.valueOf(endedBefore));
+                stmt.setInt(2, batchSize);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        ids.add(rs.getInt(1));
+                    }
+                }
+            }
+            if (ids.isEmpty()) {
+                return 0;
+            }
+
+            Array idArray = conn.createArrayOf("integer", ids.toArray());
+            for (String table : List.of("obligation_risks", "property_insurance", "health_insurance",
+                    "life_insurance")) {
+                try (PreparedStatement stmt = conn.prepareStatement("WITH moved AS (DELETE FROM " + table +
+                        " WHERE obligation_id = ANY(?) RETURNING *) INSERT INTO " + table + "_archive " +
+                        "SELECT * FROM moved")) {
+                    stmt.setArray(1, idArray);
+                    stmt.executeUpdate();
+                }
+            }
+            logger.info("До архіву перенесено {} зобов'язань", ids.size());
+            return ids.size();
+        });
+    }
+
+    /**
+     * Видаляє зобов'язання за ідентифікатором, зокрема архівне.
      *
      * @param id ідентифікатор зобов'язання
      * @return true, якщо видалено
@@ -256,12 +1127,23 @@ public class InsuranceObligationRepository {
     public boolean delete(int id) throws SQLException {
         logger.debug("Видалення зобов'язання з ID: {}", id);
         String sql = "DELETE FROM insurance_obligations WHERE id = ?";
+        String archiveSql = "DELETE FROM insurance_obligations_archive WHERE id = ?";
 
         try (Connection conn = dbManager.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, id);
+            if (session != null) {
+                session.evictObligation(id);
+            }
+            invalidateCached(id);
             boolean deleted = stmt.executeUpdate() > 0;
+            if (!deleted) {
+                try (PreparedStatement archiveStmt = conn.prepareStatement(archiveSql)) {
+                    archiveStmt.setInt(1, id);
+                    deleted = archiveStmt.executeUpdate() > 0;
+                }
+            }
             if (deleted) {
                 logger.info("Зобов'язання з ID {} успішно видалено", id);
             } else {
@@ -272,133 +1154,433 @@ public class InsuranceObligationRepository {
     }
 
     /**
-     * Повертає список зобов'язань за статусом.
+     * Повертає список активних (не архівних) зобов'язань за статусом.
+     * Дані підтипів та ризики завантажуються тим самим запитом.
      *
      * @param status статус зобов'язання
      * @return список зобов'язань
      * @throws SQLException у разі помилки БД
      */
     public List<InsuranceObligation> findByStatus(ObligationStatus status) throws SQLException {
-        String sql = "SELECT * FROM insurance_obligations WHERE status = ?";
+        return findByStatus(status, false);
+    }
+
+    /**
+     * Повертає список зобов'язань за статусом.
+     *
+     * @param status          статус зобов'язання
+     * @param includeArchived чи включати архівні зобов'язання
+     * @return список зобов'язань
+     * @throws SQLException у разі помилки БД
+     */
+    public List<InsuranceObligation> findByStatus(ObligationStatus status, boolean includeArchived)
+            throws SQLException {
+        String sql = hydratedSelect(includeArchived) + "WHERE o.status = ?";
+        RepositorySession identityMap = callSession();
         List<InsuranceObligation> obligations = new ArrayList<>();
 
-        try (Connection conn = dbManager.getConnection();
+        try (Connection conn = dbManager.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, status.toString());
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    InsuranceObligation obligation = mapObligationFromResultSet(rs);
-                    loadRisks(obligation);
-                    loadSpecificTypeData(obligation);
-                    obligations.add(obligation);
+                    obligations.add(mapHydratedObligation(rs, identityMap));
                 }
             }
         }
         return obligations;
     }
 
-    private void saveRisks(InsuranceObligation obligation) throws SQLException {
-        logger.debug("Збереження ризиків для зобов'язання з ID: {}", obligation.getId());
-        String sql = "INSERT INTO obligation_risks (obligation_id, risk_code) VALUES (?, ?)";
+    /**
+     * Повертає зобов'язання з датою початку в діапазоні [from, to). Запит
+     * звертається лише до секцій таблиці, що перетинають діапазон.
+     *
+     * @param from найраніша дата початку (включно)
+     * @param to   дата, до якої (не включно) мають початися зобов'язання
+     * @return список зобов'язань, упорядкований за датою початку
+     * @throws SQLException у разі помилки БД
+     */
+    public List<InsuranceObligation> findByStartDateRange(LocalDateTime from, LocalDateTime to)
+            throws SQLException {
+        String sql = HYDRATED_SELECT + "WHERE o.start_date >= ? AND o.start_date < ? ORDER BY o.start_date, o.id";
+        RepositorySession identityMap = callSession();
+        List<InsuranceObligation> obligations = new ArrayList<>();
 
-        try (Connection conn = dbManager.getConnection();
+        try (Connection conn = dbManager.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            for (Risk risk : obligation.getCoveredRisks()) {
-                stmt.setInt(1, obligation.getId());
-                stmt.setString(2, risk.getCode());
-                stmt.addBatch();
+            stmt.setTimestamp(1, Timestamp.valueOf(from));
+            stmt.setTimestamp(2, Timestamp.valueOf(to));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    obligations.add(mapHydratedObligation(rs, identityMap));
+                }
             }
-            stmt.executeBatch();
-            logger.info("Ризики для зобов'язання з ID {} успішно збережено", obligation.getId());
         }
+        return obligations;
     }
 
-    private void updateRisks(InsuranceObligation obligation) throws SQLException {
-        String deleteSql = "DELETE FROM obligation_risks WHERE obligation_id = ?";
-        try (Connection conn = dbManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(deleteSql)) {
-            stmt.setInt(1, obligation.getId());
-            stmt.executeUpdate();
+    /**
+     * Повертає зобов'язання, що відповідають критеріям. Фільтрація, сортування
+     * та обмеження кількості виконуються в базі даних (з використанням індексів
+     * за статусом, типом та розрахунковою вартістю), тож у пам'ять потрапляють
+     * лише потрібні рядки.
+     *
+     * @param criteria критерії вибірки
+     * @return список зобов'язань у порядку сортування критеріїв
+     * @throws SQLException у разі помилки БД
+     */
+    public List<InsuranceObligation> findByCriteria(ObligationCriteria criteria) throws SQLException {
+        StringBuilder sql = new StringBuilder(hydratedSelect(criteria.isIncludeArchived()));
+        List<Object> params = new ArrayList<>();
+        appendCriteria(sql, params, criteria);
+        appendOrderAndLimit(sql, params, criteria);
+        RepositorySession identityMap = callSession();
+        List<InsuranceObligation> obligations = new ArrayList<>();
+
+        try (Connection conn = dbManager.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            bindParameters(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    obligations.add(mapHydratedObligation(rs, identityMap));
+                }
+            }
         }
-        saveRisks(obligation);
+        logger.debug("За критеріями знайдено {} зобов'язань", obligations.size());
+        return obligations;
     }
 
-    private void loadRisks(InsuranceObligation obligation) throws SQLException {
-        logger.debug("Завантаження ризиків для зобов'язання з ID: {}", obligation.getId());
-        String sql = "SELECT r.* FROM risks r " +
-                "JOIN obligation_risks obr ON r.code = obr.risk_code " +
-                "WHERE obr.obligation_id = ?";
+    /**
+     * Повертає рядки таблиці зобов'язань, що відповідають критеріям. Фільтрація
+     * та сортування ті самі, що й у {@link #findByCriteria(ObligationCriteria)},
+     * але запит читає лише показувані колонки: дані підтипів, ризики та
+     * примітки не завантажуються.
+     *
+     * @param criteria критерії вибірки
+     * @return рядки у порядку сортування критеріїв
+     * @throws SQLException у разі помилки БД
+     */
+    public List<ObligationRow> findRowsByCriteria(ObligationCriteria criteria) throws SQLException {
+        StringBuilder sql = new StringBuilder(criteria.isIncludeArchived() ? ROW_SELECT_WITH_ARCHIVE : ROW_SELECT);
+        List<Object> params = new ArrayList<>();
+        appendCriteria(sql, params, criteria);
+        appendOrderAndLimit(sql, params, criteria);
+        List<ObligationRow> rows = new ArrayList<>();
 
-        Set<Risk> risks = new HashSet<>();
-        try (Connection conn = dbManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = dbManager.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
 
-            stmt.setInt(1, obligation.getId());
+            bindParameters(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(mapObligationRow(rs));
+                }
+            }
+        }
+        logger.debug("За критеріями знайдено {} рядків зобов'язань", rows.size());
+        return rows;
+    }
 
+    private ObligationRow mapObligationRow(ResultSet rs) throws SQLException {
+        return new ObligationRow(
+                rs.getInt("id"),
+                rs.getString("policy_number"),
+                rs.getString("type"),
+                rs.getDouble("risk_level"),
+                rs.getDouble("amount"),
+                rs.getDouble("calculated_value"),
+                ObligationStatus.valueOf(rs.getString("status")));
+    }
+
+    /**
+     * Шукає зобов'язання за словами у примітках (повнотекстовий пошук) та
+     * впорядковує їх за релевантністю ts_rank. Запит використовує
+     * GIN-індекс tsvector за примітками; усі слова запиту мають бути присутні.
+     *
+     * @param query слова для пошуку
+     * @param limit максимальна кількість результатів
+     * @return зобов'язання, найрелевантніші першими
+     * @throws SQLException у разі помилки БД
+     */
+    public List<InsuranceObligation> searchNotes(String query, int limit) throws SQLException {
+        String document = "to_tsvector('simple', COALESCE(o.notes, ''))";
+        String sql = HYDRATED_SELECT + "WHERE " + document + " @@ plainto_tsquery('simple', ?) " +
+                "ORDER BY ts_rank(" + document + ", plainto_tsquery('simple', ?)) DESC, o.id LIMIT ?";
+        RepositorySession identityMap = callSession();
+        List<InsuranceObligation> obligations = new ArrayList<>();
+
+        try (Connection conn = dbManager.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, query);
+            stmt.setString(2, query);
+            stmt.setInt(3, limit);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    risks.add(new Risk(
-                            rs.getString("code"),
-                            rs.getString("name"),
-                            rs.getString("description"),
-                            rs.getDouble("base_risk_factor"),
-                            Risk.RiskCategory.valueOf(rs.getString("category"))));
+                    obligations.add(mapHydratedObligation(rs, identityMap));
                 }
             }
         }
-        obligation.getCoveredRisks().clear();
-        obligation.getCoveredRisks().addAll(risks);
-        logger.info("Ризики для зобов'язання з ID {} успішно завантажено", obligation.getId());
+        return obligations;
     }
 
-    private void saveSpecificTypeData(InsuranceObligation obligation) throws SQLException {
-        if (obligation instanceof LifeInsurance) {
-            saveLifeInsuranceData((LifeInsurance) obligation);
-        } else if (obligation instanceof HealthInsurance) {
-            saveHealthInsuranceData((HealthInsurance) obligation);
-        } else if (obligation instanceof PropertyInsurance) {
-            savePropertyInsuranceData((PropertyInsurance) obligation);
+    /**
+     * Послідовно передає зобов'язання, що відповідають критеріям, споживачу,
+     * не накопичуючи їх у пам'яті.
+     *
+     * @param criteria критерії вибірки
+     * @param consumer обробник кожного зобов'язання
+     * @return кількість оброблених зобов'язань
+     * @throws SQLException у разі помилки БД
+     * @see #stream(ObligationCriteria, Consumer, BooleanSupplier)
+     */
+    public long stream(ObligationCriteria criteria, Consumer<InsuranceObligation> consumer) throws SQLException {
+        return stream(criteria, consumer, () -> false);
+    }
+
+    /**
+     * Послідовно передає зобов'язання, що відповідають критеріям, споживачу.
+     * Використовує серверний курсор (autocommit вимкнено, розмір порції з
+     * {@link ObligationCriteria#getFetchSize()}), тож у пам'яті одночасно
+     * перебуває лише одна порція рядків незалежно від розміру таблиці. Кожна
+     * порція приходить уже з даними підтипів та ризиками. Карта ідентичності
+     * використовується лише для явно заданої сесії, щоб обхід не накопичував
+     * зобов'язання.
+     *
+     * @param criteria  критерії вибірки
+     * @param consumer  обробник кожного зобов'язання
+     * @param cancelled перевіряється перед кожним рядком; true зупиняє обхід
+     * @return кількість оброблених зобов'язань
+     * @throws SQLException у разі помилки БД
+     */
+    public long stream(ObligationCriteria criteria, Consumer<InsuranceObligation> consumer,
+            BooleanSupplier cancelled) throws SQLException {
+        StringBuilder sql = new StringBuilder(hydratedSelect(criteria.isIncludeArchived()));
+        List<Object> params = new ArrayList<>();
+        appendCriteria(sql, params, criteria);
+        appendOrderAndLimit(sql, params, criteria);
+
+        long processed = 0;
+        try (Connection conn = dbManager.getReadConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            // Без вимкнення autocommit драйвер PostgreSQL ігнорує fetchSize
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(criteria.getFetchSize());
+                bindParameters(stmt, params);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        if (cancelled.getAsBoolean()) {
+                            logger.info("Потокову обробку зобов'язань скасовано після {} записів", processed);
+                            break;
+                        }
+                        consumer.accept(mapHydratedObligation(rs, session));
+                        processed++;
+                    }
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+        logger.info("Потоково оброблено {} зобов'язань", processed);
+        return processed;
+    }
+
+    /**
+     * Асинхронний варіант {@link #save(InsuranceObligation)}.
+     *
+     * @param obligation зобов'язання для збереження
+     * @return майбутній результат
+     */
+    public CompletableFuture<InsuranceObligation> saveAsync(InsuranceObligation obligation) {
+        return dbManager.getAsyncExecutor().submit(() -> save(obligation));
+    }
+
+    /**
+     * Асинхронний варіант {@link #findById(int, boolean)}.
+     *
+     * @param id              ідентифікатор зобов'язання
+     * @param includeArchived чи шукати також серед архівних зобов'язань
+     * @return майбутній результат
+     */
+    public CompletableFuture<Optional<InsuranceObligation>> findByIdAsync(int id, boolean includeArchived) {
+        return dbManager.getAsyncExecutor().submit(() -> findById(id, includeArchived));
+    }
+
+    /**
+     * Асинхронний варіант {@link #findAllByIds(Collection, boolean)}.
+     * Кілька таких викликів для різних наборів ідентифікаторів виконуються
+     * паралельно, кожен на власному з'єднанні.
+     *
+     * @param ids             ідентифікатори зобов'язань
+     * @param includeArchived чи шукати також серед архівних зобов'язань
+     * @return майбутній результат
+     */
+    public CompletableFuture<Map<Integer, InsuranceObligation>> findAllByIdsAsync(Collection<Integer> ids,
+            boolean includeArchived) {
+        return dbManager.getAsyncExecutor().submit(() -> findAllByIds(ids, includeArchived));
+    }
+
+    /**
+     * Асинхронний варіант {@link #findByCriteria(ObligationCriteria)}.
+     *
+     * @param criteria критерії пошуку
+     * @return майбутній результат
+     */
+    public CompletableFuture<List<InsuranceObligation>> findByCriteriaAsync(ObligationCriteria criteria) {
+        return dbManager.getAsyncExecutor().submit(() -> findByCriteria(criteria));
+    }
+
+    /**
+     * Асинхронний варіант {@link #findRowsByCriteria(ObligationCriteria)}.
+     *
+     * @param criteria критерії пошуку
+     * @return майбутній результат
+     */
+    public CompletableFuture<List<ObligationRow>> findRowsByCriteriaAsync(ObligationCriteria criteria) {
+        return dbManager.getAsyncExecutor().submit(() -> findRowsByCriteria(criteria));
+    }
+
+    /**
+     * Асинхронний варіант {@link #delete(int)}.
+     *
+     * @param id ідентифікатор зобов'язання
+     * @return майбутній результат
+     */
+    public CompletableFuture<Boolean> deleteAsync(int id) {
+        return dbManager.getAsyncExecutor().submit(() -> delete(id));
+    }
+
+    private void appendCriteria(StringBuilder sql, List<Object> params, ObligationCriteria criteria) {
+        List<String> conditions = new ArrayList<>();
+        if (criteria.getStatus() != null) {
+            conditions.add("o.status = ?");
+            params.add(criteria.getStatus().toString());
+        }
+        if (criteria.getType() != null) {
+            conditions.add("o.type = ?");
+            params.add(criteria.getType());
+        }
+        if (criteria.getSearchText() != null) {
+            conditions.add("(o.policy_number ILIKE ? ESCAPE '\\' OR o.type ILIKE ? ESCAPE '\\' " +
+                    "OR o.status ILIKE ? ESCAPE '\\' OR CAST(o.risk_level AS TEXT) LIKE ? ESCAPE '\\' " +
+                    "OR CAST(o.amount AS TEXT) LIKE ? ESCAPE '\\' " +
+                    "OR CAST(o.calculated_value AS TEXT) LIKE ? ESCAPE '\\')");
+            String pattern = LikePatterns.contains(criteria.getSearchText());
+            for (int i = 0; i < 6; i++) {
+                params.add(pattern);
+            }
+        }
+        if (criteria.getMinCalculatedValue() != null) {
+            conditions.add("o.calculated_value >= ?");
+            params.add(BigDecimal.valueOf(criteria.getMinCalculatedValue()));
+        }
+        if (criteria.getMaxCalculatedValue() != null) {
+            conditions.add("o.calculated_value <= ?");
+            params.add(BigDecimal.valueOf(criteria.getMaxCalculatedValue()));
+        }
+        if (criteria.getDerivativeId() != null) {
+            conditions.add("o.id IN (SELECT obligation_id FROM derivative_obligations WHERE derivative_id = ?)");
+            params.add(criteria.getDerivativeId());
+        }
+        // Порівняння start_date з параметрами без обгортання функціями дозволяє
+        // базі даних відкинути секції поза діапазоном
+        if (criteria.getStartFrom() != null) {
+            conditions.add("o.start_date >= ?");
+            params.add(Timestamp.valueOf(criteria.getStartFrom()));
+        }
+        if (criteria.getStartTo() != null) {
+            conditions.add("o.start_date < ?");
+            params.add(Timestamp.valueOf(criteria.getStartTo()));
+        }
+        if (!conditions.isEmpty()) {
+            sql.append("WHERE ").append(String.join(" AND ", conditions)).append(' ');
+        }
+    }
+
+    private void appendOrderAndLimit(StringBuilder sql, List<Object> params, ObligationCriteria criteria) {
+        ObligationSort sort = criteria.getSort();
+        if (sort == null) {
+            sql.append("ORDER BY o.id");
+        } else {
+            String direction = sort.isAscending() ? "ASC" : "DESC";
+            sql.append("ORDER BY o.").append(sort.getColumn()).append(' ').append(direction)
+                    .append(", o.id ").append(direction);
+        }
+        if (criteria.getLimit() != null) {
+            sql.append(" LIMIT ?");
+            params.add(criteria.getLimit());
+        }
+    }
+
+    private void bindParameters(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            stmt.setObject(i + 1, params.get(i));
+        }
+    }
+
+    private void saveRisks(Connection conn, InsuranceObligation obligation) throws SQLException {
+        logger.debug("Збереження ризиків для зобов'язання з ID: {}", obligation.getId());
+        String sql = "INSERT INTO obligation_risks (obligation_id, risk_code) VALUES (?, ?)";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            for (Risk risk : obligation.getCoveredRisks()) {
+                stmt.setInt(1, obligation.getId());
+                stmt.setString(2, risk.getCode());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            logger.info("Ризики для зобов'язання з ID {} успішно збережено", obligation.getId());
+        }
+    }
+
+    private void updateRisks(Connection conn, InsuranceObligation obligation) throws SQLException {
+        String deleteSql = "DELETE FROM obligation_risks WHERE obligation_id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(deleteSql)) {
+            stmt.setInt(1, obligation.getId());
+            stmt.executeUpdate();
         }
+        saveRisks(conn, obligation);
     }
 
-    private void updateSpecificTypeData(InsuranceObligation obligation) throws SQLException {
+    private void saveSpecificTypeData(Connection conn, InsuranceObligation obligation) throws SQLException {
         if (obligation instanceof LifeInsurance) {
-            updateLifeInsuranceData((LifeInsurance) obligation);
+            saveLifeInsuranceData(conn, (LifeInsurance) obligation);
         } else if (obligation instanceof HealthInsurance) {
-            updateHealthInsuranceData((HealthInsurance) obligation);
+            saveHealthInsuranceData(conn, (HealthInsurance) obligation);
         } else if (obligation instanceof PropertyInsurance) {
-            updatePropertyInsuranceData((PropertyInsurance) obligation);
+            savePropertyInsuranceData(conn, (PropertyInsurance) obligation);
         }
     }
 
-    private void loadSpecificTypeData(InsuranceObligation obligation) throws SQLException {
-        if (obligation == null)
-            return;
-
-        String type = obligation.getType();
-        switch (type) {
-            case "LIFE":
-                loadLifeInsuranceData(obligation);
-                break;
-            case "HEALTH":
-                loadHealthInsuranceData(obligation);
-                break;
-            case "PROPERTY":
-                loadPropertyInsuranceData(obligation);
-                break;
+    private void updateSpecificTypeData(Connection conn, InsuranceObligation obligation) throws SQLException {
+        if (obligation instanceof LifeInsurance) {
+            updateLifeInsuranceData(conn, (LifeInsurance) obligation);
+        } else if (obligation instanceof HealthInsurance) {
+            updateHealthInsuranceData(conn, (HealthInsurance) obligation);
+        } else if (obligation instanceof PropertyInsurance) {
+            updatePropertyInsuranceData(conn, (PropertyInsurance) obligation);
         }
     }
 
-    private void saveLifeInsuranceData(LifeInsurance lifeInsurance) throws SQLException {
+    private void saveLifeInsuranceData(Connection conn, LifeInsurance lifeInsurance) throws SQLException {
         String sql = "INSERT INTO life_insurance (obligation_id, beneficiary, " +
                 "includes_critical_illness, includes_accidental_death) " +
                 "VALUES (?, ?, ?, ?)";
 
-        try (Connection conn = dbManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, lifeInsurance.getId());
             stmt.setString(2, lifeInsurance.getBeneficiary());
@@ -409,13 +1591,12 @@ public class InsuranceObligationRepository {
         }
     }
 
-    private void updateLifeInsuranceData(LifeInsurance lifeInsurance) throws SQLException {
+    private void updateLifeInsuranceData(Connection conn, LifeInsurance lifeInsurance) throws SQLException {
         String sql = "UPDATE life_insurance SET beneficiary = ?, " +
                 "includes_critical_illness = ?, includes_accidental_death = ? " +
                 "WHERE obligation_id = ?";
 
-        try (Connection conn = dbManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, lifeInsurance.getBeneficiary());
             stmt.setBoolean(2, lifeInsurance.includesCriticalIllness());
@@ -426,32 +1607,12 @@ public class InsuranceObligationRepository {
         }
     }
 
-    private void loadLifeInsuranceData(InsuranceObligation obligation) throws SQLException {
-        String sql = "SELECT * FROM life_insurance WHERE obligation_id = ?";
-
-        try (Connection conn = dbManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, obligation.getId());
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next() && obligation instanceof LifeInsurance) {
-                    LifeInsurance lifeInsurance = (LifeInsurance) obligation;
-                    lifeInsurance.setBeneficiary(rs.getString("beneficiary"));
-                    lifeInsurance.setIncludesCriticalIllness(rs.getBoolean("includes_critical_illness"));
-                    lifeInsurance.setIncludesAccidentalDeath(rs.getBoolean("includes_accidental_death"));
-                }
-            }
-        }
-    }
-
-    private void saveHealthInsuranceData(HealthInsurance healthInsurance) throws SQLException {
+    private void saveHealthInsuranceData(Connection conn, HealthInsurance healthInsurance) throws SQLException {
         String sql = "INSERT INTO health_insurance (obligation_id, age, has_preexisting_conditions, " +
                 "coverage_limit, includes_hospitalization, includes_dental_care) " +
                 "VALUES (?, ?, ?, ?, ?, ?)";
 
-        try (Connection conn = dbManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, healthInsurance.getId());
             stmt.setInt(2, healthInsurance.getAge());
@@ -464,13 +1625,12 @@ public class InsuranceObligationRepository {
         }
     }
 
-    private void updateHealthInsuranceData(HealthInsurance healthInsurance) throws SQLException {
+    private void updateHealthInsuranceData(Connection conn, HealthInsurance healthInsurance) throws SQLException {
         String sql = "UPDATE health_insurance SET age = ?, has_preexisting_conditions = ?, " +
                 "coverage_limit = ?, includes_hospitalization = ?, includes_dental_care = ? " +
                 "WHERE obligation_id = ?";
 
-        try (Connection conn = dbManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, healthInsurance.getAge());
             stmt.setBoolean(2, healthInsurance.hasPreexistingConditions());
@@ -483,34 +1643,12 @@ public class InsuranceObligationRepository {
         }
     }
 
-    private void loadHealthInsuranceData(InsuranceObligation obligation) throws SQLException {
-        String sql = "SELECT * FROM health_insurance WHERE obligation_id = ?";
-
-        try (Connection conn = dbManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, obligation.getId());
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next() && obligation instanceof HealthInsurance) {
-                    HealthInsurance healthInsurance = (HealthInsurance) obligation;
-                    healthInsurance.setAge(rs.getInt("age"));
-                    healthInsurance.setHasPreexistingConditions(rs.getBoolean("has_preexisting_conditions"));
-                    healthInsurance.setCoverageLimit(rs.getInt("coverage_limit"));
-                    healthInsurance.setIncludesHospitalization(rs.getBoolean("includes_hospitalization"));
-                    healthInsurance.setIncludesDentalCare(rs.getBoolean("includes_dental_care"));
-                }
-            }
-        }
-    }
-
-    private void savePropertyInsuranceData(PropertyInsurance propertyInsurance) throws SQLException {
+    private void savePropertyInsuranceData(Connection conn, PropertyInsurance propertyInsurance) throws SQLException {
         String sql = "INSERT INTO property_insurance (obligation_id, property_location, " +
                 "property_value, is_high_risk_area, property_type, includes_natural_disasters) " +
                 "VALUES (?, ?, ?, ?, ?, ?)";
 
-        try (Connection conn = dbManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, propertyInsurance.getId());
             stmt.setString(2, propertyInsurance.getPropertyLocation());
@@ -523,13 +1661,12 @@ public class InsuranceObligationRepository {
         }
     }
 
-    private void updatePropertyInsuranceData(PropertyInsurance propertyInsurance) throws SQLException {
+    private void updatePropertyInsuranceData(Connection conn, PropertyInsurance propertyInsurance) throws SQLException {
         String sql = "UPDATE property_insurance SET property_location = ?, property_value = ?, " +
                 "is_high_risk_area = ?, property_type = ?, includes_natural_disasters = ? " +
                 "WHERE obligation_id = ?";
 
-        try (Connection conn = dbManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, propertyInsurance.getPropertyLocation());
             stmt.setDouble(2, propertyInsurance.getPropertyValue());
@@ -541,25 +1678,4 @@ public class InsuranceObligationRepository {
             stmt.executeUpdate();
         }
     }
-
-    private void loadPropertyInsuranceData(InsuranceObligation obligation) throws SQLException {
-        String sql = "SELECT * FROM property_insurance WHERE obligation_id = ?";
-
-        try (Connection conn = dbManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, obligation.getId());
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next() && obligation instanceof PropertyInsurance) {
-                    PropertyInsurance propertyInsurance = (PropertyInsurance) obligation;
-                    propertyInsurance.setPropertyLocation(rs.getString("property_location"));
-                    propertyInsurance.setPropertyValue(rs.getDouble("property_value"));
-                    propertyInsurance.setHighRiskArea(rs.getBoolean("is_high_risk_area"));
-                    propertyInsurance.setPropertyType(rs.getString("property_type"));
-                    propertyInsurance.setIncludesNaturalDisasters(rs.getBoolean("includes_natural_disasters"));
-                }
-            }
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package proj.Repositories;
+
+/**
+ * Побудова шаблонів для LIKE/ILIKE з екрануванням символів-шаблонів.
+ * Запити, що використовують ці шаблони, задають ESCAPE '\'.
+ */
+final class LikePatterns {
+    private LikePatterns() {
+    }
+
+    /**
+     * Повертає шаблон пошуку підрядка: текст, у якому символи \, % та _
+     * екрановано, обгорнутий у %.
+     *
+     * @param text текст для пошуку
+     * @return шаблон для LIKE/ILIKE
+     */
+    static String contains(String text) {
+        return "%" + text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+}
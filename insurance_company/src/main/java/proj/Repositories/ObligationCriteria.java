@@ -0,0 +1,239 @@
+package proj.Repositories;
+
+import proj.Models.insurance.InsuranceObligation.ObligationStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Критерії вибірки страхових зобов'язань для репозиторію: статус, тип,
+ * текстовий пошук, діапазон розрахункової вартості, діапазон дати початку,
+ * належність до деривативу, включення архіву, сортування та обмеження
+ * кількості. Порожні (null) критерії не обмежують
+ * вибірку.
+ */
+public class ObligationCriteria {
+    /** Розмір порції, яку курсор отримує з сервера за один раз. */
+    public static final int DEFAULT_FETCH_SIZE = 500;
+
+    private ObligationStatus status;
+    private String type;
+    private String searchText;
+    private Double minCalculatedValue;
+    private Double maxCalculatedValue;
+    private Integer derivativeId;
+    private LocalDateTime startFrom;
+    private LocalDateTime startTo;
+    private boolean includeArchived;
+    private ObligationSort sort;
+    private Integer limit;
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+
+    /**
+     * Створює критерії без обмежень, що охоплюють усі зобов'язання.
+     */
+    public ObligationCriteria() {
+    }
+
+    /**
+     * @return статус зобов'язання або null, якщо не обмежується
+     */
+    public ObligationStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Встановлює статус зобов'язання.
+     *
+     * @param status статус або null
+     */
+    public void setStatus(ObligationStatus status) {
+        this.status = status;
+    }
+
+    /**
+     * @return тип зобов'язання (LIFE, HEALTH, PROPERTY) або null
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Встановлює тип зобов'язання.
+     *
+     * @param type тип або null
+     */
+    public void setType(String type) {
+        this.type = type == null ? null : type.toUpperCase();
+    }
+
+    /**
+     * @return кількість рядків, що отримуються з сервера за один раз
+     */
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Встановлює кількість рядків, що отримуються з сервера за один раз.
+     *
+     * @param fetchSize розмір порції (більше 0)
+     * @throws IllegalArgumentException якщо розмір не додатний
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Fetch size must be positive");
+        }
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * @return текст для пошуку або null
+     */
+    public String getSearchText() {
+        return searchText;
+    }
+
+    /**
+     * Встановлює текст для пошуку (без урахування регістру) у номері полісу,
+     * типі, статусі, рівні ризику, сумі та розрахунковій вартості.
+     *
+     * @param searchText текст пошуку; порожній рядок не обмежує вибірку
+     */
+    public void setSearchText(String searchText) {
+        this.searchText = searchText == null || searchText.isEmpty() ? null : searchText;
+    }
+
+    /**
+     * @return мінімальна розрахункова вартість або null
+     */
+    public Double getMinCalculatedValue() {
+        return minCalculatedValue;
+    }
+
+    /**
+     * Встановлює мінімальну розрахункову вартість.
+     *
+     * @param minCalculatedValue мінімальна вартість або null
+     */
+    public void setMinCalculatedValue(Double minCalculatedValue) {
+        this.minCalculatedValue = minCalculatedValue;
+    }
+
+    /**
+     * @return максимальна розрахункова вартість або null
+     */
+    public Double getMaxCalculatedValue() {
+        return maxCalculatedValue;
+    }
+
+    /**
+     * Встановлює максимальну розрахункову вартість.
+     *
+     * @param maxCalculatedValue максимальна вартість або null
+     */
+    public void setMaxCalculatedValue(Double maxCalculatedValue) {
+        this.maxCalculatedValue = maxCalculatedValue;
+    }
+
+    /**
+     * @return ідентифікатор деривативу, до якого належать зобов'язання, або null
+     */
+    public Integer getDerivativeId() {
+        return derivativeId;
+    }
+
+    /**
+     * Обмежує вибірку зобов'язаннями деривативу.
+     *
+     * @param derivativeId ідентифікатор деривативу або null
+     */
+    public void setDerivativeId(Integer derivativeId) {
+        this.derivativeId = derivativeId;
+    }
+
+    /**
+     * @return найраніша дата початку (включно) або null, якщо не обмежується
+     */
+    public LocalDateTime getStartFrom() {
+        return startFrom;
+    }
+
+    /**
+     * Встановлює нижню межу дати початку. Таблиця зобов'язань секціонована за
+     * датою початку, тож цей критерій обмежує запит лише потрібними секціями.
+     *
+     * @param startFrom найраніша дата початку (включно) або null
+     */
+    public void setStartFrom(LocalDateTime startFrom) {
+        this.startFrom = startFrom;
+    }
+
+    /**
+     * @return дата, до якої (не включно) мають початися зобов'язання, або null
+     */
+    public LocalDateTime getStartTo() {
+        return startTo;
+    }
+
+    /**
+     * Встановлює верхню межу дати початку (не включно).
+     *
+     * @param startTo дата, до якої мають початися зобов'язання, або null
+     */
+    public void setStartTo(LocalDateTime startTo) {
+        this.startTo = startTo;
+    }
+
+    /**
+     * @return true, якщо вибірка включає архівні зобов'язання
+     */
+    public boolean isIncludeArchived() {
+        return includeArchived;
+    }
+
+    /**
+     * Визначає, чи включати архівні зобов'язання. За замовчуванням вибірка
+     * охоплює лише активну таблицю.
+     *
+     * @param includeArchived true, щоб шукати також в архіві
+     */
+    public void setIncludeArchived(boolean includeArchived) {
+        this.includeArchived = includeArchived;
+    }
+
+    /**
+     * @return варіант сортування або null (сортування за ідентифікатором)
+     */
+    public ObligationSort getSort() {
+        return sort;
+    }
+
+    /**
+     * Встановлює варіант сортування.
+     *
+     * @param sort варіант сортування; null означає сортування за ідентифікатором
+     */
+    public void setSort(ObligationSort sort) {
+        this.sort = sort;
+    }
+
+    /**
+     * @return максимальна кількість зобов'язань або null, якщо не обмежується
+     */
+    public Integer getLimit() {
+        return limit;
+    }
+
+    /**
+     * Встановлює максимальну кількість зобов'язань у вибірці.
+     *
+     * @param limit кількість (більше 0) або null
+     * @throws IllegalArgumentException якщо кількість не додатна
+     */
+    public void setLimit(Integer limit) {
+        if (limit != null && limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        this.limit = limit;
+    }
+}
@@ -0,0 +1,65 @@
+package proj.Repositories;
+
+/**
+ * Варіанти сортування страхових зобов'язань, що виконуються на боці бази даних.
+ * Кожен варіант відповідає пункту списку сортування у вкладці деталей
+ * деривативу та колонці таблиці insurance_obligations.
+ */
+public enum ObligationSort {
+    POLICY_NUMBER_ASC("Номер полісу (зростання)", "policy_number", true),
+    POLICY_NUMBER_DESC("Номер полісу (спадання)", "policy_number", false),
+    TYPE("Тип", "type", true),
+    RISK_LEVEL_ASC("Рівень ризику (зростання)", "risk_level", true),
+    RISK_LEVEL_DESC("Рівень ризику (спадання)", "risk_level", false),
+    AMOUNT_ASC("Сума (зростання)", "amount", true),
+    AMOUNT_DESC("Сума (спадання)", "amount", false),
+    CALCULATED_VALUE_ASC("Розрах. вартість (зростання)", "calculated_value", true),
+    CALCULATED_VALUE_DESC("Розрах. вартість (спадання)", "calculated_value", false),
+    STATUS("Статус", "status", true);
+
+    private final String label;
+    private final String column;
+    private final boolean ascending;
+
+    ObligationSort(String label, String column, boolean ascending) {
+        this.label = label;
+        this.column = column;
+        this.ascending = ascending;
+    }
+
+    /**
+     * @return підпис варіанту сортування в інтерфейсі
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return колонка таблиці insurance_obligations, за якою виконується сортування
+     */
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * @return true, якщо сортування за зростанням
+     */
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    /**
+     * Повертає варіант сортування за підписом з інтерфейсу.
+     *
+     * @param label підпис варіанту сортування
+     * @return варіант сортування або null, якщо підпис невідомий
+     */
+    public static ObligationSort fromLabel(String label) {
+        for (ObligationSort sort : values()) {
+            if (sort.label.equals(label)) {
+                return sort;
+            }
+        }
+        return null;
+    }
+}
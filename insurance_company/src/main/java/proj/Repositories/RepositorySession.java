@@ -0,0 +1,114 @@
+package proj.Repositories;
+
+import proj.Models.Risk;
+import proj.Models.insurance.InsuranceObligation;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Сесія репозиторіїв з картою ідентичності: кожне зобов'язання (за
+ * ідентифікатором) і кожен ризик (за кодом) матеріалізується в межах сесії
+ * лише один раз. Повторні читання повертають той самий екземпляр, тож
+ * зобов'язання, спільні для кількох деривативів, не дублюються в пам'яті і
+ * порівнюються через {@code ==}.
+ * <p>
+ * Сесію передають у конструктори репозиторіїв; репозиторії, створені з
+ * однією сесією, спільно використовують її карту ідентичності. Без явної
+ * сесії кожен виклик репозиторію має власну, тож дані між викликами не
+ * застарівають. Сесія розрахована на коротку одиницю роботи (наприклад,
+ * завантаження набору деривативів); зміни, зроблені поза нею, у вже
+ * завантажених об'єктах не відображаються, доки не викликано {@link #clear()}.
+ * </p>
+ */
+public class RepositorySession {
+    private final Map<Integer, InsuranceObligation> obligations = new ConcurrentHashMap<>();
+    private final Map<String, Risk> risks = new ConcurrentHashMap<>();
+
+    /**
+     * Повертає вже матеріалізоване зобов'язання.
+     *
+     * @param id ідентифікатор зобов'язання
+     * @return зобов'язання або null, якщо сесія його ще не містить
+     */
+    public InsuranceObligation getObligation(int id) {
+        return obligations.get(id);
+    }
+
+    /**
+     * Реєструє зобов'язання в сесії. Якщо зобов'язання з тим самим
+     * ідентифікатором уже зареєстроване, повертається наявний екземпляр.
+     *
+     * @param obligation збережене зобов'язання
+     * @return екземпляр, що представляє зобов'язання в сесії
+     */
+    public InsuranceObligation registerObligation(InsuranceObligation obligation) {
+        if (obligation.getId() == 0) {
+            return obligation;
+        }
+        InsuranceObligation existing = obligations.putIfAbsent(obligation.getId(), obligation);
+        return existing != null ? existing : obligation;
+    }
+
+    /**
+     * Вилучає зобов'язання з сесії.
+     *
+     * @param id ідентифікатор зобов'язання
+     */
+    public void evictObligation(int id) {
+        obligations.remove(id);
+    }
+
+    /**
+     * Повертає вже матеріалізований ризик.
+     *
+     * @param code код ризику
+     * @return ризик або null, якщо сесія його ще не містить
+     */
+    public Risk getRisk(String code) {
+        return risks.get(code);
+    }
+
+    /**
+     * Реєструє ризик у сесії. Якщо ризик з тим самим кодом уже
+     * зареєстрований, повертається наявний екземпляр.
+     *
+     * @param risk ризик
+     * @return екземпляр, що представляє ризик у сесії
+     */
+    public Risk registerRisk(Risk risk) {
+        Risk existing = risks.putIfAbsent(risk.getCode(), risk);
+        return existing != null ? existing : risk;
+    }
+
+    /**
+     * Вилучає ризик із сесії.
+     *
+     * @param code код ризику
+     */
+    public void evictRisk(String code) {
+        risks.remove(code);
+    }
+
+    /**
+     * @return кількість зобов'язань у сесії
+     */
+    public int getObligationCount() {
+        return obligations.size();
+    }
+
+    /**
+     * @return кількість ризиків у сесії
+     */
+    public int getRiskCount() {
+        return risks.size();
+    }
+
+    /**
+     * Очищає карту ідентичності; наступні читання знову звертаються до бази даних.
+     */
+    public void clear() {
+        obligations.clear();
+        risks.clear();
+    }
+}
@@ -5,20 +5,143 @@ import proj.Database.DatabaseManager;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Репозиторій для роботи з ризиками у базі даних.
  * Забезпечує CRUD-операції, пошук, збереження, видалення ризиків,
  * а також пошук за категорією, фактором ризику, ідентифікатором зобов'язання
  * тощо.
+ * <p>
+ * Каталог ризиків невеликий і змінюється рідко, тому він кешується в пам'яті
+ * спільно для всіх екземплярів репозиторію: читання за кодом, категорією чи
+ * коефіцієнтом не звертаються до бази, а кожен код представлений одним
+ * екземпляром {@link Risk}. Кеш скидається під час {@link #save(Risk)} та
+ * {@link #delete(String)}, а також через {@link #invalidateCatalog()}, яку
+ * викликають за повідомленням бази даних на каналі {@value #CATALOG_CHANNEL}.
+ * </p>
  */
 public class RiskRepository {
+    /** Канал, яким база даних повідомляє про зміну таблиці risks. */
+    public static final String CATALOG_CHANNEL = "risk_catalog_changed";
+
+    private static final Object CATALOG_LOCK = new Object();
+    private static final AtomicLong catalogVersion = new AtomicLong();
+    private static volatile Map<String, Risk> catalog;
+
     private final DatabaseManager dbManager;
+    private final RepositorySession session;
 
     public RiskRepository() {
+        this(null);
+    }
+
+    /**
+     * Створює репозиторій ризиків, що повертає ризики через карту
+     * ідентичності вказаної сесії: кожен код матеріалізується один раз.
+     *
+     * @param session сесія репозиторіїв або null, щоб кожен виклик мав власні об'єкти
+     */
+    public RiskRepository(RepositorySession session) {
         this.dbManager = DatabaseManager.getInstance();
+        this.session = session;
+    }
+
+    /**
+     * Скидає кеш каталогу ризиків; наступне звернення прочитає каталог з бази.
+     */
+    public static void invalidateCatalog() {
+        synchronized (CATALOG_LOCK) {
+            catalogVersion.incrementAndGet();
+            catalog = null;
+        }
+    }
+
+    /**
+     * Повертає каталог ризиків, за потреби завантажуючи його одним запитом.
+     *
+     * @return мапа код → ризик (тільки для читання), упорядкована за кодом
+     * @throws SQLException у разі помилки БД
+     */
+    public Map<String, Risk> getCatalog() throws SQLException {
+        Map<String, Risk> current = catalog;
+        if (current != null) {
+            return current;
+        }
+        try (Connection conn = dbManager.getReadConnection()) {
+            return loadCatalog(conn);
+        }
+    }
+
+    /**
+     * Повертає ризик каталогу за кодом, читаючи каталог через передане
+     * з'єднання, якщо кеш порожній або не містить коду (наприклад, ризик
+     * щойно додано). Використовується під час завантаження зобов'язань, щоб
+     * не брати друге з'єднання з пулу.
+     *
+     * @param code код ризику
+     * @param conn з'єднання, через яке читається каталог
+     * @return ризик каталогу
+     * @throws SQLException якщо код відсутній у каталозі або у разі помилки БД
+     */
+    Risk resolve(String code, Connection conn) throws SQLException {
+        Map<String, Risk> current = catalog;
+        Risk risk = current != null ? current.get(code) : null;
+        if (risk == null) {
+            risk = loadCatalog(conn).get(code);
+            if (risk == null) {
+                throw new SQLException("Unknown risk code: " + code);
+            }
+        }
+        return canonical(risk);
+    }
+
+    private static Map<String, Risk> loadCatalog(Connection conn) throws SQLException {
+        long version = catalogVersion.get();
+        Map<String, Risk> loaded = new LinkedHashMap<>();
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT * FROM risks ORDER BY code")) {
+            while (rs.next()) {
+                Risk risk = mapRiskFromResultSet(rs);
+                loaded.put(risk.getCode(), risk);
+            }
+        }
+        Map<String, Risk> snapshot = Collections.unmodifiableMap(loaded);
+        synchronized (CATALOG_LOCK) {
+            // Знімок, прочитаний до скидання кешу, може бути застарілим
+            if (catalogVersion.get() == version) {
+                catalog = snapshot;
+            }
+        }
+        return snapshot;
+    }
+
+    private Risk canonical(Risk risk) {
+        return session != null ? session.registerRisk(risk) : risk;
+    }
+
+    private List<Risk> resolveCodes(List<String> codes) throws SQLException {
+        Map<String, Risk> current = getCatalog();
+        List<Risk> risks = new ArrayList<>();
+        for (String code : codes) {
+            Risk risk = current.get(code);
+            if (risk == null) {
+                // Ризик додано після завантаження каталогу
+                invalidateCatalog();
+                current = getCatalog();
+                risk = current.get(code);
+            }
+            if (risk != null) {
+                risks.add(canonical(risk));
+            }
+        }
+        return risks;
     }
 
     /**
@@ -33,11 +156,19 @@ public class RiskRepository {
         if (risk.getCode() == null) {
             throw new IllegalArgumentException("Risk code cannot be null");
         }
-        if (existsByCode(risk.getCode())) {
-            return update(risk);
-        } else {
-            return insert(risk);
+        Risk saved = existsByCode(risk.getCode()) ? update(risk) : insert(risk);
+        invalidateCatalog();
+        if (session != null) {
+            // Екземпляр, уже відомий сесії, отримує збережені значення
+            Risk known = session.registerRisk(saved);
+            if (known != saved) {
+                known.setName(saved.getName());
+                known.setDescription(saved.getDescription());
+                known.setBaseRiskFactor(saved.getBaseRiskFactor());
+                known.setCategory(saved.getCategory());
+            }
         }
+        return saved;
     }
 
     /**
@@ -61,6 +192,7 @@ public class RiskRepository {
         for (Risk risk : standardRisks) {
             if (!existsByCode(risk.getCode())) {
                 insert(risk);
+                invalidateCatalog();
             }
         }
     }
@@ -96,41 +228,32 @@ public class RiskRepository {
     }
 
     /**
-     * Повертає ризик за кодом.
+     * Повертає ризик за кодом з каталогу. Ризик, уже відомий спільній сесії,
+     * повертається з неї.
      *
      * @param code код ризику
      * @return Optional з ризиком, якщо знайдено
      * @throws SQLException у разі помилки БД
      */
     public Optional<Risk> findByCode(String code) throws SQLException {
-        String sql = "SELECT * FROM risks WHERE code = ?";
-        try (Connection conn = dbManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, code);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapRiskFromResultSet(rs));
-                }
-            }
+        Risk known = session != null ? session.getRisk(code) : null;
+        if (known != null) {
+            return Optional.of(known);
         }
-        return Optional.empty();
+        Risk risk = getCatalog().get(code);
+        return risk != null ? Optional.of(canonical(risk)) : Optional.empty();
     }
 
     /**
-     * Повертає всі ризики з бази даних.
+     * Повертає всі ризики каталогу.
      *
      * @return список ризиків
      * @throws SQLException у разі помилки БД
      */
     public List<Risk> findAll() throws SQLException {
-        String sql = "SELECT * FROM risks";
         List<Risk> risks = new ArrayList<>();
-        try (Connection conn = dbManager.getConnection();
-                Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                risks.add(mapRiskFromResultSet(rs));
-            }
+        for (Risk risk : getCatalog().values()) {
+            risks.add(canonical(risk));
         }
         return risks;
     }
@@ -147,27 +270,27 @@ public class RiskRepository {
         try (Connection conn = dbManager.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, code);
-            return stmt.executeUpdate() > 0;
+            if (session != null) {
+                session.evictRisk(code);
+            }
+            boolean deleted = stmt.executeUpdate() > 0;
+            invalidateCatalog();
+            return deleted;
         }
     }
 
     /**
-     * Повертає список ризиків за категорією.
+     * Повертає список ризиків каталогу за категорією.
      *
      * @param category категорія ризику
      * @return список ризиків
      * @throws SQLException у разі помилки БД
      */
     public List<Risk> findByCategory(Risk.RiskCategory category) throws SQLException {
-        String sql = "SELECT * FROM risks WHERE category = ?";
         List<Risk> risks = new ArrayList<>();
-        try (Connection conn = dbManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, category.toString());
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    risks.add(mapRiskFromResultSet(rs));
-                }
+        for (Risk risk : getCatalog().values()) {
+            if (risk.getCategory() == category) {
+                risks.add(canonical(risk));
             }
         }
         return risks;
@@ -199,7 +322,7 @@ public class RiskRepository {
         stmt.setString(5, risk.getCategory().toString());
     }
 
-    private Risk mapRiskFromResultSet(ResultSet rs) throws SQLException {
+    private static Risk mapRiskFromResultSet(ResultSet rs) throws SQLException {
         return new Risk(
                 rs.getString("code"),
                 rs.getString("name"),
@@ -216,22 +339,50 @@ public class RiskRepository {
      * @throws SQLException у разі помилки БД
      */
     public List<Risk> findByNamePattern(String pattern) throws SQLException {
-        String sql = "SELECT * FROM risks WHERE name LIKE ?";
-        List<Risk> risks = new ArrayList<>();
-        try (Connection conn = dbManager.getConnection();
+        String sql = "SELECT code FROM risks WHERE name LIKE ?";
+        List<String> codes = new ArrayList<>();
+        try (Connection conn = dbManager.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, "%" + pattern + "%");
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    risks.add(mapRiskFromResultSet(rs));
+                    codes.add(rs.getString("code"));
                 }
             }
         }
-        return risks;
+        return resolveCodes(codes);
+    }
+
+    /**
+     * Шукає ризики за частиною назви без урахування регістру та впорядковує
+     * їх за релевантністю (триграмна схожість назви із запитом). Пошук
+     * підрядка використовує триграмний GIN-індекс за назвою.
+     *
+     * @param text  текст для пошуку
+     * @param limit максимальна кількість результатів
+     * @return ризики, найрелевантніші першими
+     * @throws SQLException у разі помилки БД
+     */
+    public List<Risk> searchByName(String text, int limit) throws SQLException {
+        String sql = "SELECT code FROM risks WHERE name ILIKE ? ESCAPE '\\' " +
+                "ORDER BY similarity(name, ?) DESC, name LIMIT ?";
+        List<String> codes = new ArrayList<>();
+        try (Connection conn = dbManager.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, LikePatterns.contains(text));
+            stmt.setString(2, text);
+            stmt.setInt(3, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    codes.add(rs.getString("code"));
+                }
+            }
+        }
+        return resolveCodes(codes);
     }
 
     /**
-     * Повертає список ризиків у заданому діапазоні коефіцієнта ризику.
+     * Повертає список ризиків каталогу в заданому діапазоні коефіцієнта ризику.
      *
      * @param minFactor мінімальний коефіцієнт
      * @param maxFactor максимальний коефіцієнт
@@ -239,42 +390,73 @@ public class RiskRepository {
      * @throws SQLException у разі помилки БД
      */
     public List<Risk> findByRiskFactorRange(double minFactor, double maxFactor) throws SQLException {
-        String sql = "SELECT * FROM risks WHERE base_risk_factor BETWEEN ? AND ?";
         List<Risk> risks = new ArrayList<>();
-        try (Connection conn = dbManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setDouble(1, minFactor);
-            stmt.setDouble(2, maxFactor);
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    risks.add(mapRiskFromResultSet(rs));
-                }
+        for (Risk risk : getCatalog().values()) {
+            if (risk.getBaseRiskFactor() >= minFactor && risk.getBaseRiskFactor() <= maxFactor) {
+                risks.add(canonical(risk));
             }
         }
         return risks;
     }
 
     /**
-     * Повертає список ризиків, пов'язаних із зобов'язанням за його ідентифікатором.
+     * Повертає список ризиків, пов'язаних із зобов'язанням за його
+     * ідентифікатором. Запит читає лише коди, які розв'язуються через каталог.
      *
      * @param obligationId ідентифікатор зобов'язання
      * @return список ризиків
      * @throws SQLException у разі помилки БД
      */
     public List<Risk> findByObligationId(int obligationId) throws SQLException {
-        String sql = "SELECT r.* FROM risks r " +
-                "JOIN obligation_risks \"or\" ON r.code = \"or\".risk_code " +
-                "WHERE \"or\".obligation_id = ?";
-        List<Risk> risks = new ArrayList<>();
-        try (Connection conn = dbManager.getConnection();
+        String sql = "SELECT risk_code FROM all_obligation_risks WHERE obligation_id = ?";
+        List<String> codes = new ArrayList<>();
+        try (Connection conn = dbManager.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, obligationId);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    risks.add(mapRiskFromResultSet(rs));
+                    codes.add(rs.getString("risk_code"));
                 }
             }
         }
-        return risks;
+        return resolveCodes(codes);
+    }
+
+    /**
+     * Асинхронний варіант {@link #getCatalog()}.
+     *
+     * @return майбутній результат
+     */
+    public CompletableFuture<Map<String, Risk>> getCatalogAsync() {
+        return dbManager.getAsyncExecutor().submit(this::getCatalog);
+    }
+
+    /**
+     * Асинхронний варіант {@link #findAll()}.
+     *
+     * @return майбутній результат
+     */
+    public CompletableFuture<List<Risk>> findAllAsync() {
+        return dbManager.getAsyncExecutor().submit(this::findAll);
+    }
+
+    /**
+     * Асинхронний варіант {@link #findByObligationId(int)}.
+     *
+     * @param obligationId ідентифікатор зобов'язання
+     * @return майбутній результат
+     */
+    public CompletableFuture<List<Risk>> findByObligationIdAsync(int obligationId) {
+        return dbManager.getAsyncExecutor().submit(() -> findByObligationId(obligationId));
+    }
+
+    /**
+     * Асинхронний варіант {@link #save(Risk)}.
+     *
+     * @param risk ризик для збереження
+     * @return майбутній результат
+     */
+    public CompletableFuture<Risk> saveAsync(Risk risk) {
+        return dbManager.getAsyncExecutor().submit(() -> save(risk));
     }
 }
\ No newline at end of file
@@ -0,0 +1,106 @@
+package proj.Repositories;
+
+import proj.Database.DatabaseManager;
+import proj.Models.insurance.PolicyNumberGenerator;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Генератор номерів полісів на основі послідовності policy_number_seq.
+ * Послідовність зростає кроком {@value #BLOCK_SIZE}, тож один виклик nextval
+ * резервує для екземпляра застосунку цілий блок номерів, і до бази даних
+ * звертається лише кожен {@value #BLOCK_SIZE}-й номер. Номери всередині блоку
+ * видаються без блокувань; блок може лишитися недовикористаним, якщо
+ * застосунок завершиться, тож номери унікальні, але можуть мати пропуски.
+ * <p>
+ * Номери мають формат {@code POL-S} і 12 цифр, тож не перетинаються з
+ * номерами {@link proj.Models.insurance.SnowflakePolicyNumberGenerator}.
+ * </p>
+ */
+public class SequencePolicyNumberGenerator implements PolicyNumberGenerator {
+    private static final Logger logger = LogManager.getLogger(SequencePolicyNumberGenerator.class);
+
+    /** Кількість номерів у блоці; збігається з кроком послідовності policy_number_seq. */
+    static final int BLOCK_SIZE = 1000;
+
+    private static final int NUMBER_DIGITS = 12;
+
+    /** Зарезервований блок номерів [next, end). */
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+
+    private final DatabaseManager dbManager;
+    private volatile Block block = new Block(0, 0);
+
+    /**
+     * Створює генератор, що резервує блоки номерів через з'єднання пулу.
+     *
+     * @param dbManager менеджер бази даних
+     */
+    public SequencePolicyNumberGenerator(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+    }
+
+    /**
+     * Повертає наступний номер поліса з поточного блоку, за потреби
+     * резервуючи новий блок.
+     *
+     * @return номер поліса
+     * @throws IllegalStateException якщо блок не вдалося зарезервувати
+     */
+    @Override
+    public String nextPolicyNumber() {
+        while (true) {
+            Block current = block;
+            long value = current.next.getAndIncrement();
+            if (value < current.end) {
+                return format(value);
+            }
+            allocateBlock(current);
+        }
+    }
+
+    private synchronized void allocateBlock(Block exhausted) {
+        if (block != exhausted) {
+            // Інший потік уже зарезервував новий блок
+            return;
+        }
+        String sql = "SELECT nextval('policy_number_seq')";
+        try (Connection conn = dbManager.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql);
+                ResultSet rs = stmt.executeQuery()) {
+            if (!rs.next()) {
+                throw new SQLException("Sequence policy_number_seq returned no value");
+            }
+            long start = rs.getLong(1);
+            block = new Block(start, start + BLOCK_SIZE);
+            logger.debug("Зарезервовано блок номерів полісів від {}", start);
+        } catch (SQLException e) {
+            logger.error("Помилка резервування блоку номерів полісів: {}", e.getMessage());
+            throw new IllegalStateException("Не вдалося зарезервувати блок номерів полісів", e);
+        }
+    }
+
+    private static String format(long value) {
+        String digits = Long.toString(value);
+        StringBuilder number = new StringBuilder(5 + NUMBER_DIGITS).append("POL-S");
+        for (int i = digits.length(); i < NUMBER_DIGITS; i++) {
+            number.append('0');
+        }
+        return number.append(digits).toString();
+    }
+}
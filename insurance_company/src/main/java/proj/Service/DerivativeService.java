@@ -4,6 +4,8 @@ package proj.Service;
 import proj.Models.Derivative;
 import proj.Models.insurance.InsuranceObligation;
 import proj.Models.Risk;
+import proj.Repositories.DerivativeCriteria;
+import proj.Repositories.DerivativeSort;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -137,6 +139,36 @@ public class DerivativeService {
         return filtered;
     }
 
+    /**
+     * Створює критерії вибірки деривативів для репозиторію з полів фільтрації
+     * та вибраного сортування. Семантика така сама, як у
+     * {@link #filterDerivatives} та {@link #sortDerivatives}: некоректні числа
+     * ігноруються.
+     *
+     * @param nameSearch   текст для пошуку в назві
+     * @param minValueStr  мінімальна вартість (рядок)
+     * @param maxValueStr  максимальна вартість (рядок)
+     * @param selectedSort критерій сортування
+     * @return критерії вибірки деривативів
+     */
+    public DerivativeCriteria buildCriteria(String nameSearch, String minValueStr, String maxValueStr,
+            String selectedSort) {
+        DerivativeCriteria criteria = new DerivativeCriteria();
+        criteria.setNameSearch(nameSearch);
+        criteria.setSort(DerivativeSort.fromLabel(selectedSort));
+
+        try {
+            criteria.setMinValue(minValueStr.isEmpty() ? null : Double.parseDouble(minValueStr));
+            criteria.setMaxValue(maxValueStr.isEmpty() ? null : Double.parseDouble(maxValueStr));
+        } catch (NumberFormatException e) {
+            // Ігноруємо некоректні числа
+            criteria.setMinValue(null);
+            criteria.setMaxValue(null);
+        }
+
+        return criteria;
+    }
+
     /**
      * Сортує список деривативів згідно з вибраним критерієм.
      *
@@ -166,6 +198,18 @@ public class DerivativeService {
             case "Датою (старіші)":
                 derivatives.sort(Comparator.comparing(Derivative::getCreatedAt));
                 break;
+            case "Кількістю зобов'язань (більше)":
+                derivatives.sort(Comparator.comparingInt((Derivative d) -> d.getObligations().size()).reversed());
+                break;
+            case "Кількістю зобов'язань (менше)":
+                derivatives.sort(Comparator.comparingInt((Derivative d) -> d.getObligations().size()));
+                break;
+            case "Середнім ризиком (вищий)":
+                derivatives.sort(Comparator.comparingDouble(this::calculateAverageRisk).reversed());
+                break;
+            case "Середнім ризиком (нижчий)":
+                derivatives.sort(Comparator.comparingDouble(this::calculateAverageRisk));
+                break;
         }
     }
 
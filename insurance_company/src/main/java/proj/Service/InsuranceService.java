@@ -8,6 +8,8 @@ import proj.Models.insurance.InsuranceObligation;
 import proj.Models.insurance.LifeInsurance;
 import proj.Models.insurance.PropertyInsurance;
 import proj.Models.Risk;
+import proj.Repositories.ObligationCriteria;
+import proj.Repositories.ObligationSort;
 
 /**
  * Сервіс для розрахунку, фільтрації та сортування страхових зобов'язань.
@@ -254,6 +256,36 @@ public class InsuranceService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Створює критерії вибірки зобов'язань для репозиторію з полів фільтрації
+     * та вибраного сортування. Семантика така сама, як у
+     * {@link #filterObligations} та {@link #sortObligations}, але фільтрація й
+     * сортування виконуються в базі даних. Некоректні числа ігноруються.
+     *
+     * @param searchText текст для пошуку
+     * @param minCalcStr мінімальна розрахункова вартість (рядок)
+     * @param maxCalcStr максимальна розрахункова вартість (рядок)
+     * @param sortOption критерій сортування
+     * @return критерії вибірки зобов'язань
+     */
+    public ObligationCriteria buildCriteria(String searchText, String minCalcStr, String maxCalcStr,
+            String sortOption) {
+        ObligationCriteria criteria = new ObligationCriteria();
+        criteria.setSearchText(searchText);
+        criteria.setSort(ObligationSort.fromLabel(sortOption));
+
+        try {
+            criteria.setMinCalculatedValue(minCalcStr.isEmpty() ? null : Double.parseDouble(minCalcStr));
+            criteria.setMaxCalculatedValue(maxCalcStr.isEmpty() ? null : Double.parseDouble(maxCalcStr));
+        } catch (NumberFormatException e) {
+            // Ігноруємо некоректні числа
+            criteria.setMinCalculatedValue(null);
+            criteria.setMaxCalculatedValue(null);
+        }
+
+        return criteria;
+    }
+
     /**
      * Сортує список зобов'язань згідно з вибраним критерієм.
      *
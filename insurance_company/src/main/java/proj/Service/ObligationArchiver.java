@@ -0,0 +1,108 @@
+package proj.Service;
+
+import proj.Repositories.InsuranceObligationRepository;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фонове завдання, що переносить до архіву зобов'язання зі статусом EXPIRED
+ * або CANCELLED, які завершилися раніше за вікно зберігання. Перенесення
+ * виконується порціями, кожна у власній транзакції, тож довгі блокування
+ * активної таблиці не виникають.
+ */
+public class ObligationArchiver implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(ObligationArchiver.class);
+
+    private final InsuranceObligationRepository repository;
+    private final Duration retention;
+    private final int batchSize;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Створює завдання архівування.
+     *
+     * @param repository репозиторій зобов'язань
+     * @param retention  скільки часу після завершення зобов'язання залишаються в активній таблиці
+     * @param batchSize  кількість зобов'язань, що переносяться однією транзакцією
+     * @throws IllegalArgumentException якщо вікно зберігання від'ємне або розмір порції не додатний
+     */
+    public ObligationArchiver(InsuranceObligationRepository repository, Duration retention, int batchSize) {
+        if (retention.isNegative()) {
+            throw new IllegalArgumentException("Вікно зберігання не може бути від'ємним");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Розмір порції повинен бути більше 0");
+        }
+        this.repository = repository;
+        this.retention = retention;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Переносить до архіву всі зобов'язання, що вийшли за вікно зберігання,
+     * порція за порцією.
+     *
+     * @return кількість перенесених зобов'язань
+     * @throws SQLException у разі помилки БД
+     */
+    public int archiveExpired() throws SQLException {
+        LocalDateTime endedBefore = LocalDateTime.now().minus(retention);
+        int total = 0;
+        int archived;
+        do {
+            archived = repository.archiveBatch(endedBefore, batchSize);
+            total += archived;
+        } while (archived == batchSize);
+
+        if (total > 0) {
+            logger.info("Архівування завершено: перенесено {} зобов'язань, що завершилися до {}",
+                    total, endedBefore);
+        }
+        return total;
+    }
+
+    /**
+     * Запускає періодичне архівування у фоновому потоці.
+     *
+     * @param interval інтервал між запусками
+     */
+    public synchronized void start(Duration interval) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "obligation-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                archiveExpired();
+            } catch (SQLException | RuntimeException e) {
+                // Наступний запуск продовжить з того ж місця
+                logger.error("Помилка архівування зобов'язань: {}", e.getMessage(), e);
+            }
+        }, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        logger.info("Архівування зобов'язань запущено: вікно зберігання {} днів, порція {}",
+                retention.toDays(), batchSize);
+    }
+
+    /**
+     * Зупиняє періодичне архівування.
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
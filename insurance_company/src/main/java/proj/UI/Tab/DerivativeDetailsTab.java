@@ -1,9 +1,11 @@
 package proj.UI.Tab;
 
 import proj.Models.Derivative;
+import proj.Models.ObligationRow;
 import proj.Models.insurance.InsuranceObligation;
 import proj.Repositories.DerivativeRepository;
 import proj.Repositories.InsuranceObligationRepository;
+import proj.Repositories.ObligationCriteria;
 import proj.Service.InsuranceService;
 import proj.Service.DerivativeService;
 
@@ -20,7 +22,12 @@ import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Вкладка для перегляду та керування деталями деривативи.
@@ -35,6 +42,7 @@ public class DerivativeDetailsTab extends AbstractTab {
     private final DerivativeService derivativeService = DerivativeService.getInstance();
     private final Derivative derivative;
     private DefaultTableModel obligationsModel;
+    private transient List<ObligationRow> displayedRows = new ArrayList<>();
     private JTable obligationsTable;
     private JButton addButton, deleteButton;
     private JComboBox<String> sortOptions;
@@ -192,7 +200,11 @@ public class DerivativeDetailsTab extends AbstractTab {
     }
 
     /**
-     * Створює панель з короткою інформацією про деривативу.
+     * Створює панель з короткою інформацією про деривативу. Для збереженої
+     * деривативи кількість зобов'язань і середній ризик рахує база даних:
+     * обидва запити виконуються одночасно у фоні, а панель спершу показує
+     * заглушки і заповнюється в потоці подій Swing, коли надійдуть обидва
+     * результати.
      *
      * @return панель з інформацією
      */
@@ -203,11 +215,31 @@ public class DerivativeDetailsTab extends AbstractTab {
 
         JLabel totalLabel = new JLabel("Загальна вартість: " + derivative.getTotalValue());
         totalLabel.setName("totalLabel");
-        JLabel countLabel = new JLabel("Кількість зобов'язань: " + derivative.getObligations().size());
+        JLabel countLabel = new JLabel();
         countLabel.setName("countLabel");
-        JLabel avgRiskLabel = new JLabel("Середній ризик: " + derivativeService.calculateAverageRisk(derivative));
+        JLabel avgRiskLabel = new JLabel();
         avgRiskLabel.setName("avgRiskLabel");
 
+        if (derivative.getId() != 0) {
+            countLabel.setText("Кількість зобов'язань: ...");
+            avgRiskLabel.setText("Середній ризик: ...");
+            DerivativeRepository repository = new DerivativeRepository();
+            CompletableFuture<Integer> count = repository.countObligationsAsync(derivative.getId());
+            CompletableFuture<Double> risk = repository.calculateAverageRiskAsync(derivative.getId());
+            count.thenAcceptBoth(risk, (obligationCount, averageRisk) -> SwingUtilities.invokeLater(
+                    () -> showSummary(countLabel, avgRiskLabel, obligationCount, averageRisk)))
+                    .exceptionally(e -> {
+                        logger.warn("Не вдалося отримати зведення з БД, підрахунок у пам'яті: {}",
+                                e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                        SwingUtilities.invokeLater(() -> showSummary(countLabel, avgRiskLabel,
+                                derivative.getObligations().size(), derivativeService.calculateAverageRisk(derivative)));
+                        return null;
+                    });
+        } else {
+            showSummary(countLabel, avgRiskLabel, derivative.getObligations().size(),
+                    derivativeService.calculateAverageRisk(derivative));
+        }
+
         Font labelFont = DEFAULT_FONT.deriveFont(Font.BOLD);
         totalLabel.setFont(labelFont);
         countLabel.setFont(labelFont);
@@ -220,6 +252,15 @@ public class DerivativeDetailsTab extends AbstractTab {
         return summaryPanel;
     }
 
+    /**
+     * Показує кількість зобов'язань і середній ризик у панелі зведення.
+     */
+    private static void showSummary(JLabel countLabel, JLabel avgRiskLabel, int obligationCount,
+            double averageRisk) {
+        countLabel.setText("Кількість зобов'язань: " + obligationCount);
+        avgRiskLabel.setText("Середній ризик: " + averageRisk);
+    }
+
     /**
      * Створює таблицю зобов'язань та додає обробник подій для подвійного кліку.
      */
@@ -240,11 +281,8 @@ public class DerivativeDetailsTab extends AbstractTab {
             @Override
             public void mouseClicked(java.awt.event.MouseEvent e) {
                 if (e.getClickCount() == 2 && obligationsTable.getSelectedRow() != -1) {
-                    int row = obligationsTable.getSelectedRow();
-                    Object policyNumberObj = obligationsModel.getValueAt(row, 0);
-                    InsuranceObligation selectedObligation = derivative.getObligations().stream()
-                            .filter(o -> String.valueOf(o.getPolicyNumber()).equals(String.valueOf(policyNumberObj)))
-                            .findFirst().orElse(null);
+                    ObligationRow row = displayedRows.get(obligationsTable.getSelectedRow());
+                    InsuranceObligation selectedObligation = loadObligation(row).orElse(null);
                     if (selectedObligation != null) {
                         ObligationDetailsDialog dialog = new ObligationDetailsDialog(
                                 (JFrame) SwingUtilities.getWindowAncestor(DerivativeDetailsTab.this),
@@ -263,22 +301,11 @@ public class DerivativeDetailsTab extends AbstractTab {
     }
 
     /**
-     * Оновлює дані в таблиці зобов'язань.
+     * Оновлює дані в таблиці зобов'язань з урахуванням поточних фільтрів.
      */
     private void refreshObligationsTable() {
         logger.debug("Оновлення таблиці зобов'язань для деривативи: {}", derivative.getName());
-        obligationsModel.setRowCount(0);
-        for (InsuranceObligation obligation : derivative.getObligations()) {
-            Object[] rowData = {
-                    obligation.getPolicyNumber(),
-                    obligation.getType(),
-                    obligation.getRiskLevel(),
-                    obligation.getAmount(),
-                    obligation.getCalculatedValue(),
-                    obligation.getStatus()
-            };
-            obligationsModel.addRow(rowData);
-        }
+        filterAndSortObligations();
     }
 
     /**
@@ -291,22 +318,65 @@ public class DerivativeDetailsTab extends AbstractTab {
         String maxCalcStr = maxCalcValueField.getText();
         String sortOption = (String) sortOptions.getSelectedItem();
 
-        List<InsuranceObligation> filtered = insuranceService.filterAndSortObligations(derivative.getObligations(), searchText, minCalcStr, maxCalcStr, sortOption);
+        displayedRows = searchObligationRows(searchText, minCalcStr, maxCalcStr, sortOption);
 
         obligationsModel.setRowCount(0);
-        for (InsuranceObligation obligation : filtered) {
+        for (ObligationRow row : displayedRows) {
             Object[] rowData = {
-                    obligation.getPolicyNumber(),
-                    obligation.getType(),
-                    obligation.getRiskLevel(),
-                    obligation.getAmount(),
-                    obligation.getCalculatedValue(),
-                    obligation.getStatus()
+                    row.getPolicyNumber(),
+                    row.getType(),
+                    row.getRiskLevel(),
+                    row.getAmount(),
+                    row.getCalculatedValue(),
+                    row.getStatus()
             };
             obligationsModel.addRow(rowData);
         }
     }
 
+    /**
+     * Шукає рядки таблиці зобов'язань деривативу. Для збереженої деривативи
+     * фільтрація та сортування виконуються в базі даних, яка повертає лише
+     * показувані колонки; для нової або у разі помилки БД — у пам'яті над
+     * зобов'язаннями деривативу.
+     */
+    private List<ObligationRow> searchObligationRows(String searchText, String minCalcStr, String maxCalcStr,
+            String sortOption) {
+        if (derivative.getId() != 0) {
+            ObligationCriteria criteria = insuranceService.buildCriteria(searchText, minCalcStr, maxCalcStr,
+                    sortOption);
+            criteria.setDerivativeId(derivative.getId());
+            try {
+                return new InsuranceObligationRepository().findRowsByCriteria(criteria);
+            } catch (SQLException e) {
+                logger.warn("Не вдалося виконати пошук у БД, фільтрація в пам'яті: {}", e.getMessage());
+            }
+        }
+        return insuranceService.filterAndSortObligations(derivative.getObligations(), searchText, minCalcStr,
+                maxCalcStr, sortOption).stream().map(ObligationRow::of).toList();
+    }
+
+    /**
+     * Повертає повне зобов'язання для рядка таблиці. Якщо зобов'язання
+     * деривативи вже в пам'яті, використовується той самий екземпляр; інакше
+     * зобов'язання завантажується з бази даних за ідентифікатором.
+     *
+     * @param row рядок таблиці
+     * @return Optional із зобов'язанням, якщо знайдено
+     */
+    private Optional<InsuranceObligation> loadObligation(ObligationRow row) {
+        if (derivative.getId() != 0 && !derivative.isObligationsLoaded()) {
+            try {
+                return new InsuranceObligationRepository().findById(row.getId(), true);
+            } catch (SQLException e) {
+                logger.warn("Не вдалося завантажити зобов'язання з id={}: {}", row.getId(), e.getMessage());
+            }
+        }
+        return derivative.getObligations().stream()
+                .filter(o -> o.getId() == row.getId() && Objects.equals(o.getPolicyNumber(), row.getPolicyNumber()))
+                .findFirst();
+    }
+
     /**
      * Обробник для кнопки "Додати страхування".
      */
@@ -336,10 +406,7 @@ public class DerivativeDetailsTab extends AbstractTab {
         public void actionPerformed(ActionEvent e) {
             int selectedRow = obligationsTable.getSelectedRow();
             if (selectedRow != -1) {
-                Object policyNumberObj = obligationsModel.getValueAt(selectedRow, 0);
-                InsuranceObligation toDelete = derivative.getObligations().stream()
-                        .filter(o -> String.valueOf(o.getPolicyNumber()).equals(String.valueOf(policyNumberObj)))
-                        .findFirst().orElse(null);
+                InsuranceObligation toDelete = loadObligation(displayedRows.get(selectedRow)).orElse(null);
 
                 if (toDelete != null) {
                     int confirm = JOptionPane.showConfirmDialog(
@@ -352,9 +419,8 @@ public class DerivativeDetailsTab extends AbstractTab {
                         try {
                             logger.info("Видалення зобов'язання з id={} з деривативи: {}", toDelete.getId(),
                                     derivative.getName());
+                            new DerivativeRepository().detachObligation(derivative, toDelete);
                             new InsuranceObligationRepository().delete(toDelete.getId());
-                            derivative.removeObligation(toDelete);
-                            new DerivativeRepository().save(derivative);
                         } catch (Exception ex) {
                             logger.error("Не вдалося видалити зобов'язання: {}", ex.getMessage(), ex);
                             JOptionPane.showMessageDialog(DerivativeDetailsTab.this,
@@ -1,7 +1,11 @@
 package proj.UI.Tab;
 
 import proj.Models.Derivative;
+import proj.Models.DerivativeStats;
+import proj.Repositories.DerivativeCriteria;
+import proj.Repositories.DerivativePage;
 import proj.Repositories.DerivativeRepository;
+import proj.Repositories.RepositorySession;
 import proj.Service.DerivativeService;
 import proj.UI.Dialog.*;
 
@@ -20,6 +24,9 @@ import java.awt.event.MouseEvent;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
 
 /**
  * Вкладка для перегляду, додавання, фільтрації та сортування деривативів.
@@ -34,13 +41,17 @@ public class DerivativesTab extends AbstractTab {
     private JButton addButton;
     private final DerivativeRepository derivativeRepository;
     private final DerivativeService derivativeManager =  DerivativeService.getInstance();
-    private List<Derivative> allDerivatives = new ArrayList<>();
+    private List<Derivative> allDerivatives;
+    private transient DerivativeCriteria criteria;
+    private final transient List<DerivativePage.Key> pageKeys = new ArrayList<>();
+    private transient DerivativePage.Key nextPageKey;
     private JComboBox<String> sortComboBox;
     private JTextField minValueField, maxValueField;
     private JTextField searchNameField;
 
     private int currentPage = 1;
     private int totalPages = 1;
+    private int loadRequest;
     private final int CARDS_PER_PAGE = 9;
     private JButton prevPageButton, nextPageButton;
     private JLabel pageLabel;
@@ -60,7 +71,6 @@ public class DerivativesTab extends AbstractTab {
             int idx = mainTabbedPane.getSelectedIndex();
             if (idx != -1 && mainTabbedPane.getComponentAt(idx) == this) {
                 loadDerivatives();
-                updateDerivativesDisplay();
             }
         });
     }
@@ -133,7 +143,11 @@ public class DerivativesTab extends AbstractTab {
                 "Вартістю (зростання)",
                 "Вартістю (спадання)",
                 "Датою (новіші)",
-                "Датою (старіші)"
+                "Датою (старіші)",
+                "Кількістю зобов'язань (більше)",
+                "Кількістю зобов'язань (менше)",
+                "Середнім ризиком (вищий)",
+                "Середнім ризиком (нижчий)"
         });
         sortComboBox.setName("sortComboBox");
         sortComboBox.addActionListener(e -> updateDerivativesDisplay());
@@ -168,14 +182,15 @@ public class DerivativesTab extends AbstractTab {
         pageLabel.setName("pageLabel");
         prevPageButton.addActionListener(e -> {
             if (currentPage > 1) {
-                currentPage--;
-                updateDerivativesDisplay();
+                showPage(currentPage - 1);
             }
         });
         nextPageButton.addActionListener(e -> {
             if (currentPage < totalPages) {
-                currentPage++;
-                updateDerivativesDisplay();
+                if (allDerivatives == null) {
+                    rememberNextPageKey();
+                }
+                showPage(currentPage + 1);
             }
         });
         paginationPanel.add(prevPageButton);
@@ -200,29 +215,123 @@ public class DerivativesTab extends AbstractTab {
     }
 
     /**
-     * Завантажує всі деривативи з репозиторію та оновлює відображення.
+     * Перемикає вкладку на завантаження деривативів з репозиторію та показує
+     * першу сторінку з урахуванням фільтрів і сортування.
      */
     private void loadDerivatives() {
         logger.info("Завантаження деривативів");
-        derivativesPanel.removeAll();
+        allDerivatives = null;
+        updateDerivativesDisplay();
+    }
 
-        try {
-            allDerivatives = derivativeRepository.findAll();
-            updateDerivativesDisplay();
-            logger.info("Деривативи успішно завантажені");
-        } catch (SQLException e) {
-            logger.error("Помилка під час завантаження деривативів", e);
-            showErrorDialog("Не вдалося завантажити список деривативів");
+    /**
+     * Оновлює відображення після зміни фільтрів або сортування: перераховує
+     * кількість сторінок і показує першу сторінку.
+     */
+    private void updateDerivativesDisplay() {
+        if (allDerivatives != null) {
+            showInMemoryPage();
+            return;
         }
+
+        criteria = derivativeManager.buildCriteria(
+            searchNameField.getText(),
+            minValueField.getText(),
+            maxValueField.getText(),
+            (String) sortComboBox.getSelectedItem()
+        );
+        loadPage(criteria, 1, true);
     }
 
     /**
-     * Оновлює відображення карток деривативів з урахуванням фільтрів, сортування та
-     * пагінації.
+     * Показує вказану сторінку після перегортання.
+     *
+     * @param page номер сторінки, починаючи з 1
      */
-    private void updateDerivativesDisplay() {
-        derivativesPanel.removeAll();
+    private void showPage(int page) {
+        if (allDerivatives != null) {
+            currentPage = page;
+            showInMemoryPage();
+            return;
+        }
+
+        loadPage(criteria, page, false);
+    }
 
+    /**
+     * Запам'ятовує ключ, з якого починається наступна сторінка.
+     */
+    private void rememberNextPageKey() {
+        if (pageKeys.size() == currentPage) {
+            pageKeys.add(nextPageKey);
+        } else {
+            pageKeys.set(currentPage, nextPageKey);
+        }
+    }
+
+    /**
+     * Завантажує з репозиторію лише деривативи вказаної сторінки у фоновому
+     * потоці, тож введення у фільтри, сортування та перегортання не чекають
+     * на базу даних. Для першої сторінки нового запиту паралельно
+     * рахується кількість деривативів. Деривативи сторінки належать одній
+     * сесії репозиторіїв, тож спільні зобов'язання під час лінивого
+     * завантаження матеріалізуються один раз. Результат відкидається, якщо
+     * до його отримання змінилися фільтри, почалося інше завантаження або
+     * деривативи встановлено через {@link #setAllDerivatives(List)}.
+     *
+     * @param requested критерії пошуку
+     * @param page      номер сторінки, починаючи з 1
+     * @param recount   чи перераховувати кількість сторінок
+     */
+    private void loadPage(DerivativeCriteria requested, int page, boolean recount) {
+        DerivativePage.Key key = recount ? null : pageKeys.get(page - 1);
+        int request = ++loadRequest;
+
+        new SwingWorker<DerivativePage, Void>() {
+            private int total;
+
+            @Override
+            protected DerivativePage doInBackground() throws SQLException {
+                CompletableFuture<Integer> count = recount
+                        ? derivativeRepository.countByCriteriaAsync(requested)
+                        : null;
+                DerivativePage loaded = new DerivativeRepository(new RepositorySession())
+                        .findPage(requested, key, CARDS_PER_PAGE);
+                if (count != null) {
+                    total = count.join();
+                }
+                return loaded;
+            }
+
+            @Override
+            protected void done() {
+                if (allDerivatives != null || criteria != requested || loadRequest != request) {
+                    return;
+                }
+                try {
+                    DerivativePage loaded = get();
+                    if (recount) {
+                        totalPages = Math.max(1, (int) Math.ceil(total / (double) CARDS_PER_PAGE));
+                        pageKeys.clear();
+                        pageKeys.add(null);
+                    }
+                    currentPage = page;
+                    nextPageKey = loaded.getNextKey();
+                    displayCards(loaded.getDerivatives(), loaded::getStats);
+                    logger.info("Деривативи успішно завантажені");
+                } catch (InterruptedException | ExecutionException e) {
+                    logger.error("Помилка під час завантаження деривативів", e);
+                    showErrorDialog("Не вдалося завантажити список деривативів");
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Показує сторінку деривативів, встановлених через
+     * {@link #setAllDerivatives(List)}, фільтруючи та сортуючи їх у пам'яті.
+     */
+    private void showInMemoryPage() {
         List<Derivative> filteredDerivatives = derivativeManager.filterDerivatives(
             allDerivatives,
             searchNameField.getText(),
@@ -242,6 +351,18 @@ public class DerivativesTab extends AbstractTab {
         int start = (currentPage - 1) * CARDS_PER_PAGE;
         int end = Math.min(start + CARDS_PER_PAGE, total);
 
+        displayCards(filteredDerivatives.subList(start, end), derivative -> null);
+    }
+
+    /**
+     * Відображає картки деривативів поточної сторінки та стан пагінації.
+     *
+     * @param derivatives деривативи поточної сторінки
+     * @param statsLookup зведена статистика деривативу або null, якщо її немає
+     */
+    private void displayCards(List<Derivative> derivatives, Function<Derivative, DerivativeStats> statsLookup) {
+        derivativesPanel.removeAll();
+
         GridBagConstraints gbc = new GridBagConstraints();
         gbc.insets = new Insets(10, 10, 10, 10);
         gbc.fill = GridBagConstraints.BOTH;
@@ -249,8 +370,8 @@ public class DerivativesTab extends AbstractTab {
         gbc.weighty = 0.19;
 
         int col = 0, row = 0;
-        for (int i = start; i < end; i++) {
-            JPanel card = createDerivativeCard(filteredDerivatives.get(i));
+        for (Derivative derivative : derivatives) {
+            JPanel card = createDerivativeCard(derivative, statsLookup.apply(derivative));
             gbc.gridx = col;
             gbc.gridy = row;
             derivativesPanel.add(card, gbc);
@@ -273,9 +394,10 @@ public class DerivativesTab extends AbstractTab {
      * Створює картку для відображення деривативу.
      *
      * @param derivative дериватив
+     * @param stats      зведена статистика деривативу або null
      * @return панель-картка деривативу
      */
-    private JPanel createDerivativeCard(Derivative derivative) {
+    private JPanel createDerivativeCard(Derivative derivative, DerivativeStats stats) {
         JPanel card = new JPanel(new BorderLayout());
         card.setOpaque(true);
         card.setBackground(Color.WHITE);
@@ -309,7 +431,8 @@ public class DerivativesTab extends AbstractTab {
         bottomPanel.setLayout(new BoxLayout(bottomPanel, BoxLayout.Y_AXIS));
         bottomPanel.setOpaque(false);
 
-        JLabel obligationsLabel = new JLabel("Зобов'язань: " + derivative.getObligations().size());
+        int obligationCount = stats != null ? stats.getObligationCount() : derivative.getObligations().size();
+        JLabel obligationsLabel = new JLabel("Зобов'язань: " + obligationCount);
         obligationsLabel.setFont(DEFAULT_FONT.deriveFont(Font.PLAIN, 13));
         obligationsLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
 
@@ -425,6 +548,8 @@ public class DerivativesTab extends AbstractTab {
 
     /**
      * Встановлює список деривативів для вкладки (наприклад, для тестування).
+     * Поки список встановлено, фільтрація, сортування та пагінація виконуються
+     * у пам'яті; {@link #loadDerivatives()} повертає вкладку до репозиторію.
      *
      * @param allDerivatives список деривативів
      */
@@ -0,0 +1,14 @@
+-- Повідомляє застосунки про зміну каталогу ризиків, щоб вони скинули кеш каталогу.
+-- NOTIFY надсилається лише після фіксації транзакції; повідомлення в межах однієї
+-- транзакції об'єднуються.
+CREATE OR REPLACE FUNCTION notify_risk_catalog_changed() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM pg_notify('risk_catalog_changed', TG_OP);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_risks_notify_change ON risks;
+CREATE TRIGGER trg_risks_notify_change
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON risks
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_risk_catalog_changed();
\ No newline at end of file
@@ -0,0 +1,3 @@
+-- Послідовність для SequencePolicyNumberGenerator. Крок 1000 дорівнює розміру блоку:
+-- один nextval резервує для екземпляра застосунку 1000 номерів полісів.
+CREATE SEQUENCE IF NOT EXISTS policy_number_seq START WITH 1 INCREMENT BY 1000;
\ No newline at end of file
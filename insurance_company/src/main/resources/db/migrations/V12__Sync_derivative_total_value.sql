@@ -0,0 +1,72 @@
+-- Загальна вартість деривативу (derivatives.total_value) дорівнює сумі calculated_value
+-- пов'язаних зобов'язань. Зв'язки змінює DerivativeRepository, а зміну вартості чи
+-- видалення самого зобов'язання враховують тригери нижче в тій самій транзакції.
+
+-- Додає p_delta до вартості всіх деривативів, пов'язаних із зобов'язанням
+CREATE OR REPLACE FUNCTION derivative_total_value_apply(p_obligation_id INTEGER, p_delta DECIMAL)
+RETURNS VOID AS $$
+BEGIN
+    UPDATE derivatives d SET total_value = d.total_value + p_delta
+    FROM derivative_obligations dob
+    WHERE dob.obligation_id = p_obligation_id AND d.id = dob.derivative_id;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION derivative_stats_on_obligation_update() RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE derivative_stats s SET
+        amount_sum = s.amount_sum + NEW.amount - OLD.amount,
+        calculated_value_sum = s.calculated_value_sum + NEW.calculated_value - OLD.calculated_value,
+        risk_level_sum = s.risk_level_sum + NEW.risk_level - OLD.risk_level
+    FROM derivative_obligations d
+    WHERE d.obligation_id = NEW.id AND s.derivative_id = d.derivative_id;
+    IF NEW.calculated_value IS DISTINCT FROM OLD.calculated_value THEN
+        PERFORM derivative_total_value_apply(NEW.id, NEW.calculated_value - OLD.calculated_value);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION derivative_stats_on_obligation_delete() RETURNS TRIGGER AS $$
+DECLARE
+    link RECORD;
+BEGIN
+    IF obligation_rows_relocating() THEN
+        RETURN OLD;
+    END IF;
+    FOR link IN SELECT derivative_id FROM derivative_obligations WHERE obligation_id = OLD.id LOOP
+        PERFORM derivative_stats_apply(link.derivative_id, OLD.id, -1);
+    END LOOP;
+    PERFORM derivative_total_value_apply(OLD.id, -OLD.calculated_value);
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Перенесений між секціями рядок проходить через тригер видалення, тож його
+-- вартість повертається деривативам тут, уже з новими значеннями
+CREATE OR REPLACE FUNCTION obligation_keys_on_insert() RETURNS TRIGGER AS $$
+DECLARE
+    link RECORD;
+BEGIN
+    IF obligation_partition_maintenance() THEN
+        RETURN NULL;
+    END IF;
+    IF EXISTS (SELECT 1 FROM insurance_obligation_keys WHERE id = NEW.id) THEN
+        UPDATE insurance_obligation_keys SET policy_number = NEW.policy_number, start_date = NEW.start_date
+        WHERE id = NEW.id;
+        FOR link IN SELECT derivative_id FROM derivative_obligations WHERE obligation_id = NEW.id LOOP
+            PERFORM derivative_stats_refresh(link.derivative_id);
+        END LOOP;
+        PERFORM derivative_total_value_apply(NEW.id, NEW.calculated_value);
+    ELSE
+        INSERT INTO insurance_obligation_keys (id, policy_number, start_date)
+        VALUES (NEW.id, NEW.policy_number, NEW.start_date);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Вартість, що розійшлася зі статистикою до цієї міграції, береться зі статистики
+UPDATE derivatives d SET total_value = s.calculated_value_sum
+FROM derivative_stats s
+WHERE s.derivative_id = d.id AND d.total_value IS DISTINCT FROM s.calculated_value_sum;
\ No newline at end of file
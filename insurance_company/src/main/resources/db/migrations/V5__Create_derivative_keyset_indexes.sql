@@ -0,0 +1,4 @@
+-- Індекси для keyset-пагінації деривативів: колонка сортування + id
+CREATE INDEX IF NOT EXISTS idx_derivatives_name_id ON derivatives(name, id);
+CREATE INDEX IF NOT EXISTS idx_derivatives_value_id ON derivatives(total_value, id);
+CREATE INDEX IF NOT EXISTS idx_derivatives_created_id ON derivatives(created_at, id);
\ No newline at end of file
@@ -0,0 +1,9 @@
+-- Розширення для пошуку підрядків за триграмами
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Триграмні індекси: пошук ILIKE '%x%' та ранжування за similarity без повного перегляду таблиці
+CREATE INDEX IF NOT EXISTS idx_derivatives_name_trgm ON derivatives USING GIN (name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_risks_name_trgm ON risks USING GIN (name gin_trgm_ops);
+
+-- Повнотекстовий індекс для пошуку у примітках зобов'язань
+CREATE INDEX IF NOT EXISTS idx_insurance_notes_fts ON insurance_obligations USING GIN (to_tsvector('simple', COALESCE(notes, '')));
\ No newline at end of file
@@ -0,0 +1,224 @@
+-- Зведена статистика деривативів, що підтримується тригерами інкрементально
+CREATE TABLE IF NOT EXISTS derivative_stats (
+    derivative_id INTEGER PRIMARY KEY REFERENCES derivatives(id) ON DELETE CASCADE,
+    obligation_count INTEGER NOT NULL DEFAULT 0,
+    amount_sum DECIMAL(20,2) NOT NULL DEFAULT 0,
+    calculated_value_sum DECIMAL(20,2) NOT NULL DEFAULT 0,
+    risk_level_sum DECIMAL(20,2) NOT NULL DEFAULT 0,
+    average_risk_level NUMERIC GENERATED ALWAYS AS (
+        CASE WHEN obligation_count = 0 THEN 0 ELSE risk_level_sum / obligation_count END) STORED,
+    property_risk_count INTEGER NOT NULL DEFAULT 0,
+    health_risk_count INTEGER NOT NULL DEFAULT 0,
+    life_risk_count INTEGER NOT NULL DEFAULT 0,
+    liability_risk_count INTEGER NOT NULL DEFAULT 0,
+    financial_risk_count INTEGER NOT NULL DEFAULT 0
+);
+
+CREATE INDEX IF NOT EXISTS idx_derivative_stats_count ON derivative_stats(obligation_count, derivative_id);
+CREATE INDEX IF NOT EXISTS idx_derivative_stats_risk ON derivative_stats(average_risk_level, derivative_id);
+-- Тригери нижче шукають зв'язки за зобов'язанням, а idx_derivative_obligation веде з derivative_id
+CREATE INDEX IF NOT EXISTS idx_derivative_obligations_obligation ON derivative_obligations(obligation_id, derivative_id);
+
+-- Додає (p_sign = 1) або віднімає (p_sign = -1) внесок зобов'язання у статистику деривативу.
+-- Якщо зобов'язання вже видалене (каскадне видалення), нічого не робить:
+-- його внесок віднято тригером перед видаленням зобов'язання.
+CREATE OR REPLACE FUNCTION derivative_stats_apply(p_derivative_id INTEGER, p_obligation_id INTEGER, p_sign INTEGER)
+RETURNS VOID AS $$
+BEGIN
+    UPDATE derivative_stats s SET
+        obligation_count = s.obligation_count + p_sign,
+        amount_sum = s.amount_sum + p_sign * o.amount,
+        calculated_value_sum = s.calculated_value_sum + p_sign * o.calculated_value,
+        risk_level_sum = s.risk_level_sum + p_sign * o.risk_level,
+        property_risk_count = s.property_risk_count + p_sign * rc.property_count,
+        health_risk_count = s.health_risk_count + p_sign * rc.health_count,
+        life_risk_count = s.life_risk_count + p_sign * rc.life_count,
+        liability_risk_count = s.liability_risk_count + p_sign * rc.liability_count,
+        financial_risk_count = s.financial_risk_count + p_sign * rc.financial_count
+    FROM insurance_obligations o,
+        LATERAL (
+            SELECT COUNT(*) FILTER (WHERE r.category = 'PROPERTY') AS property_count,
+                   COUNT(*) FILTER (WHERE r.category = 'HEALTH') AS health_count,
+                   COUNT(*) FILTER (WHERE r.category = 'LIFE') AS life_count,
+                   COUNT(*) FILTER (WHERE r.category = 'LIABILITY') AS liability_count,
+                   COUNT(*) FILTER (WHERE r.category = 'FINANCIAL') AS financial_count
+            FROM obligation_risks obr
+            JOIN risks r ON r.code = obr.risk_code
+            WHERE obr.obligation_id = o.id
+        ) rc
+    WHERE s.derivative_id = p_derivative_id AND o.id = p_obligation_id;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Змінює лічильник категорії ризику для всіх деривативів, що містять зобов'язання
+CREATE OR REPLACE FUNCTION derivative_stats_apply_risk(p_obligation_id INTEGER, p_category VARCHAR, p_sign INTEGER)
+RETURNS VOID AS $$
+BEGIN
+    UPDATE derivative_stats s SET
+        property_risk_count = s.property_risk_count + CASE WHEN p_category = 'PROPERTY' THEN p_sign ELSE 0 END,
+        health_risk_count = s.health_risk_count + CASE WHEN p_category = 'HEALTH' THEN p_sign ELSE 0 END,
+        life_risk_count = s.life_risk_count + CASE WHEN p_category = 'LIFE' THEN p_sign ELSE 0 END,
+        liability_risk_count = s.liability_risk_count + CASE WHEN p_category = 'LIABILITY' THEN p_sign ELSE 0 END,
+        financial_risk_count = s.financial_risk_count + CASE WHEN p_category = 'FINANCIAL' THEN p_sign ELSE 0 END
+    FROM derivative_obligations d
+    WHERE d.obligation_id = p_obligation_id AND s.derivative_id = d.derivative_id;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Новий дериватив отримує порожній рядок статистики
+CREATE OR REPLACE FUNCTION derivative_stats_on_derivative_insert() RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO derivative_stats (derivative_id) VALUES (NEW.id) ON CONFLICT DO NOTHING;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_derivative_stats_derivative_insert ON derivatives;
+CREATE TRIGGER trg_derivative_stats_derivative_insert
+    AFTER INSERT ON derivatives
+    FOR EACH ROW EXECUTE FUNCTION derivative_stats_on_derivative_insert();
+
+-- Зв'язок деривативу із зобов'язанням додає або віднімає внесок зобов'язання
+CREATE OR REPLACE FUNCTION derivative_stats_on_link_change() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM derivative_stats_apply(NEW.derivative_id, NEW.obligation_id, 1);
+    ELSE
+        PERFORM derivative_stats_apply(OLD.derivative_id, OLD.obligation_id, -1);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_derivative_stats_link_change ON derivative_obligations;
+CREATE TRIGGER trg_derivative_stats_link_change
+    AFTER INSERT OR DELETE ON derivative_obligations
+    FOR EACH ROW EXECUTE FUNCTION derivative_stats_on_link_change();
+
+-- Зміна суми, вартості чи рівня ризику зобов'язання застосовується як різниця
+CREATE OR REPLACE FUNCTION derivative_stats_on_obligation_update() RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE derivative_stats s SET
+        amount_sum = s.amount_sum + NEW.amount - OLD.amount,
+        calculated_value_sum = s.calculated_value_sum + NEW.calculated_value - OLD.calculated_value,
+        risk_level_sum = s.risk_level_sum + NEW.risk_level - OLD.risk_level
+    FROM derivative_obligations d
+    WHERE d.obligation_id = NEW.id AND s.derivative_id = d.derivative_id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_derivative_stats_obligation_update ON insurance_obligations;
+CREATE TRIGGER trg_derivative_stats_obligation_update
+    AFTER UPDATE OF amount, calculated_value, risk_level ON insurance_obligations
+    FOR EACH ROW
+    WHEN (OLD.amount IS DISTINCT FROM NEW.amount
+        OR OLD.calculated_value IS DISTINCT FROM NEW.calculated_value
+        OR OLD.risk_level IS DISTINCT FROM NEW.risk_level)
+    EXECUTE FUNCTION derivative_stats_on_obligation_update();
+
+-- Перед видаленням зобов'язання віднімаємо його внесок, поки дані ще доступні
+CREATE OR REPLACE FUNCTION derivative_stats_on_obligation_delete() RETURNS TRIGGER AS $$
+DECLARE
+    link RECORD;
+BEGIN
+    FOR link IN SELECT derivative_id FROM derivative_obligations WHERE obligation_id = OLD.id LOOP
+        PERFORM derivative_stats_apply(link.derivative_id, OLD.id, -1);
+    END LOOP;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_derivative_stats_obligation_delete ON insurance_obligations;
+CREATE TRIGGER trg_derivative_stats_obligation_delete
+    BEFORE DELETE ON insurance_obligations
+    FOR EACH ROW EXECUTE FUNCTION derivative_stats_on_obligation_delete();
+
+-- Додавання або видалення ризику зобов'язання змінює лічильник категорії.
+-- Каскадні видалення (зобов'язання чи ризику вже немає) враховано тригерами перед видаленням.
+CREATE OR REPLACE FUNCTION derivative_stats_on_obligation_risk_change() RETURNS TRIGGER AS $$
+DECLARE
+    risk_category VARCHAR(40);
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        SELECT category INTO risk_category FROM risks WHERE code = NEW.risk_code;
+        PERFORM derivative_stats_apply_risk(NEW.obligation_id, risk_category, 1);
+    ELSIF EXISTS (SELECT 1 FROM insurance_obligations WHERE id = OLD.obligation_id) THEN
+        SELECT category INTO risk_category FROM risks WHERE code = OLD.risk_code;
+        IF FOUND THEN
+            PERFORM derivative_stats_apply_risk(OLD.obligation_id, risk_category, -1);
+        END IF;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_derivative_stats_obligation_risk_change ON obligation_risks;
+CREATE TRIGGER trg_derivative_stats_obligation_risk_change
+    AFTER INSERT OR DELETE ON obligation_risks
+    FOR EACH ROW EXECUTE FUNCTION derivative_stats_on_obligation_risk_change();
+
+-- Видалення ризику або зміна його категорії переносять лічильники всіх пов'язаних деривативів
+CREATE OR REPLACE FUNCTION derivative_stats_on_risk_change() RETURNS TRIGGER AS $$
+DECLARE
+    link RECORD;
+BEGIN
+    FOR link IN SELECT obligation_id FROM obligation_risks WHERE risk_code = OLD.code LOOP
+        PERFORM derivative_stats_apply_risk(link.obligation_id, OLD.category, -1);
+        IF TG_OP = 'UPDATE' THEN
+            PERFORM derivative_stats_apply_risk(link.obligation_id, NEW.category, 1);
+        END IF;
+    END LOOP;
+    IF TG_OP = 'DELETE' THEN
+        RETURN OLD;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_derivative_stats_risk_delete ON risks;
+CREATE TRIGGER trg_derivative_stats_risk_delete
+    BEFORE DELETE ON risks
+    FOR EACH ROW EXECUTE FUNCTION derivative_stats_on_risk_change();
+
+DROP TRIGGER IF EXISTS trg_derivative_stats_risk_update ON risks;
+CREATE TRIGGER trg_derivative_stats_risk_update
+    BEFORE UPDATE OF category ON risks
+    FOR EACH ROW
+    WHEN (OLD.category IS DISTINCT FROM NEW.category)
+    EXECUTE FUNCTION derivative_stats_on_risk_change();
+
+-- Початкове заповнення для наявних деривативів
+INSERT INTO derivative_stats (derivative_id, obligation_count, amount_sum, calculated_value_sum, risk_level_sum,
+    property_risk_count, health_risk_count, life_risk_count, liability_risk_count, financial_risk_count)
+SELECT d.id,
+    COALESCE(agg.obligation_count, 0),
+    COALESCE(agg.amount_sum, 0),
+    COALESCE(agg.calculated_value_sum, 0),
+    COALESCE(agg.risk_level_sum, 0),
+    COALESCE(rk.property_count, 0),
+    COALESCE(rk.health_count, 0),
+    COALESCE(rk.life_count, 0),
+    COALESCE(rk.liability_count, 0),
+    COALESCE(rk.financial_count, 0)
+FROM derivatives d
+LEFT JOIN (
+    SELECT dob.derivative_id, COUNT(*) AS obligation_count, SUM(o.amount) AS amount_sum,
+           SUM(o.calculated_value) AS calculated_value_sum, SUM(o.risk_level) AS risk_level_sum
+    FROM derivative_obligations dob
+    JOIN insurance_obligations o ON o.id = dob.obligation_id
+    GROUP BY dob.derivative_id
+) agg ON agg.derivative_id = d.id
+LEFT JOIN (
+    SELECT dob.derivative_id,
+           COUNT(*) FILTER (WHERE r.category = 'PROPERTY') AS property_count,
+           COUNT(*) FILTER (WHERE r.category = 'HEALTH') AS health_count,
+           COUNT(*) FILTER (WHERE r.category = 'LIFE') AS life_count,
+           COUNT(*) FILTER (WHERE r.category = 'LIABILITY') AS liability_count,
+           COUNT(*) FILTER (WHERE r.category = 'FINANCIAL') AS financial_count
+    FROM derivative_obligations dob
+    JOIN obligation_risks obr ON obr.obligation_id = dob.obligation_id
+    JOIN risks r ON r.code = obr.risk_code
+    GROUP BY dob.derivative_id
+) rk ON rk.derivative_id = d.id
+ON CONFLICT (derivative_id) DO NOTHING;
\ No newline at end of file
@@ -0,0 +1,263 @@
+-- Секціонування insurance_obligations за start_date (по роках).
+-- Первинний ключ секціонованої таблиці мусить містити ключ секціонування, тож
+-- глобальну унікальність id та policy_number і цілі зовнішніх ключів дочірніх
+-- таблиць забезпечує таблиця insurance_obligation_keys, яку підтримують тригери.
+
+ALTER TABLE insurance_obligations RENAME TO insurance_obligations_legacy;
+ALTER SEQUENCE insurance_obligations_id_seq OWNED BY NONE;
+
+CREATE TABLE insurance_obligations (
+    id INTEGER NOT NULL DEFAULT nextval('insurance_obligations_id_seq'),
+    policy_number VARCHAR(40) NOT NULL,
+    type VARCHAR(40) NOT NULL CHECK (type IN ('PROPERTY', 'HEALTH', 'LIFE', 'AUTO', 'TRAVEL', 'ACCIDENT')),
+    risk_level DECIMAL(5,2) NOT NULL CHECK (risk_level BETWEEN 0 AND 1),
+    amount DECIMAL(20,2) NOT NULL,
+    duration_months INTEGER NOT NULL,
+    calculated_value DECIMAL(20,2) NOT NULL,
+    start_date TIMESTAMP NOT NULL,
+    end_date TIMESTAMP NOT NULL,
+    status VARCHAR(40) NOT NULL CHECK (status IN ('DRAFT', 'ACTIVE', 'EXPIRED', 'CANCELLED', 'PENDING', 'CLAIMED')),
+    notes TEXT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, start_date)
+) PARTITION BY RANGE (start_date);
+
+ALTER SEQUENCE insurance_obligations_id_seq OWNED BY insurance_obligations.id;
+
+CREATE TABLE insurance_obligations_default PARTITION OF insurance_obligations DEFAULT;
+
+-- Глобальні ключі зобов'язань: ціль зовнішніх ключів та унікальність номера полісу
+CREATE TABLE insurance_obligation_keys (
+    id INTEGER PRIMARY KEY,
+    policy_number VARCHAR(40) NOT NULL UNIQUE,
+    start_date TIMESTAMP NOT NULL
+);
+
+-- Перевіряє, чи виконується обслуговування секцій (перенесення рядків між секціями).
+-- Під час обслуговування тригери ключів і статистики не спрацьовують.
+CREATE OR REPLACE FUNCTION obligation_partition_maintenance() RETURNS BOOLEAN AS $$
+BEGIN
+    RETURN COALESCE(current_setting('insurance.partition_maintenance', true), '') = 'on';
+END;
+$$ LANGUAGE plpgsql STABLE;
+
+-- Повністю перераховує статистику деривативу (рідкісні випадки, напр. перенесення рядка між секціями)
+CREATE OR REPLACE FUNCTION derivative_stats_refresh(p_derivative_id INTEGER) RETURNS VOID AS $$
+BEGIN
+    UPDATE derivative_stats s SET
+        obligation_count = agg.obligation_count,
+        amount_sum = agg.amount_sum,
+        calculated_value_sum = agg.calculated_value_sum,
+        risk_level_sum = agg.risk_level_sum,
+        property_risk_count = rk.property_count,
+        health_risk_count = rk.health_count,
+        life_risk_count = rk.life_count,
+        liability_risk_count = rk.liability_count,
+        financial_risk_count = rk.financial_count
+    FROM (
+        SELECT COUNT(*) AS obligation_count, COALESCE(SUM(o.amount), 0) AS amount_sum,
+               COALESCE(SUM(o.calculated_value), 0) AS calculated_value_sum,
+               COALESCE(SUM(o.risk_level), 0) AS risk_level_sum
+        FROM derivative_obligations dob
+        JOIN insurance_obligations o ON o.id = dob.obligation_id
+        WHERE dob.derivative_id = p_derivative_id
+    ) agg, (
+        SELECT COUNT(*) FILTER (WHERE r.category = 'PROPERTY') AS property_count,
+               COUNT(*) FILTER (WHERE r.category = 'HEALTH') AS health_count,
+               COUNT(*) FILTER (WHERE r.category = 'LIFE') AS life_count,
+               COUNT(*) FILTER (WHERE r.category = 'LIABILITY') AS liability_count,
+               COUNT(*) FILTER (WHERE r.category = 'FINANCIAL') AS financial_count
+        FROM derivative_obligations dob
+        JOIN obligation_risks obr ON obr.obligation_id = dob.obligation_id
+        JOIN risks r ON r.code = obr.risk_code
+        WHERE dob.derivative_id = p_derivative_id
+    ) rk
+    WHERE s.derivative_id = p_derivative_id;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Новий рядок реєструє ключ. Якщо ключ уже є, рядок перенесено в іншу секцію
+-- оновленням start_date: оновлюємо ключ і перераховуємо статистику деривативів,
+-- бо тригер оновлення для перенесених рядків не спрацьовує.
+CREATE OR REPLACE FUNCTION obligation_keys_on_insert() RETURNS TRIGGER AS $$
+DECLARE
+    link RECORD;
+BEGIN
+    IF obligation_partition_maintenance() THEN
+        RETURN NULL;
+    END IF;
+    IF EXISTS (SELECT 1 FROM insurance_obligation_keys WHERE id = NEW.id) THEN
+        UPDATE insurance_obligation_keys SET policy_number = NEW.policy_number, start_date = NEW.start_date
+        WHERE id = NEW.id;
+        FOR link IN SELECT derivative_id FROM derivative_obligations WHERE obligation_id = NEW.id LOOP
+            PERFORM derivative_stats_refresh(link.derivative_id);
+        END LOOP;
+    ELSE
+        INSERT INTO insurance_obligation_keys (id, policy_number, start_date)
+        VALUES (NEW.id, NEW.policy_number, NEW.start_date);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Оновлення номера полісу чи дати без перенесення рядка синхронізує ключ
+CREATE OR REPLACE FUNCTION obligation_keys_on_update() RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE insurance_obligation_keys SET policy_number = NEW.policy_number, start_date = NEW.start_date
+    WHERE id = NEW.id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Видалення рядка видаляє ключ, а разом з ним каскадно дочірні записи.
+-- Якщо рядок з таким id ще існує, його лише перенесено в іншу секцію.
+CREATE OR REPLACE FUNCTION obligation_keys_on_delete() RETURNS TRIGGER AS $$
+BEGIN
+    IF obligation_partition_maintenance() THEN
+        RETURN NULL;
+    END IF;
+    DELETE FROM insurance_obligation_keys k
+    WHERE k.id = OLD.id AND NOT EXISTS (SELECT 1 FROM insurance_obligations WHERE id = OLD.id);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_obligation_keys_insert
+    AFTER INSERT ON insurance_obligations
+    FOR EACH ROW EXECUTE FUNCTION obligation_keys_on_insert();
+
+CREATE TRIGGER trg_obligation_keys_update
+    AFTER UPDATE OF policy_number, start_date ON insurance_obligations
+    FOR EACH ROW
+    WHEN (OLD.policy_number IS DISTINCT FROM NEW.policy_number OR OLD.start_date IS DISTINCT FROM NEW.start_date)
+    EXECUTE FUNCTION obligation_keys_on_update();
+
+CREATE TRIGGER trg_obligation_keys_delete
+    AFTER DELETE ON insurance_obligations
+    FOR EACH ROW EXECUTE FUNCTION obligation_keys_on_delete();
+
+-- Створює річні секції з поточного року на p_years_ahead років уперед.
+-- Рядки цих років, що потрапили до секції за замовчуванням, переносяться в нову секцію.
+CREATE OR REPLACE FUNCTION create_obligation_partitions(p_years_ahead INTEGER) RETURNS INTEGER AS $$
+DECLARE
+    first_year INTEGER := EXTRACT(YEAR FROM CURRENT_DATE)::INTEGER;
+BEGIN
+    RETURN create_obligation_partitions(first_year, first_year + p_years_ahead);
+END;
+$$ LANGUAGE plpgsql;
+
+-- Створює річні секції для років з p_from_year по p_to_year включно, яких ще немає.
+-- Повертає кількість створених секцій.
+CREATE OR REPLACE FUNCTION create_obligation_partitions(p_from_year INTEGER, p_to_year INTEGER) RETURNS INTEGER AS $$
+DECLARE
+    partition_year INTEGER;
+    partition_name TEXT;
+    range_start TIMESTAMP;
+    range_end TIMESTAMP;
+    created INTEGER := 0;
+BEGIN
+    FOR partition_year IN p_from_year..p_to_year LOOP
+        partition_name := 'insurance_obligations_y' || partition_year;
+        CONTINUE WHEN to_regclass(partition_name) IS NOT NULL;
+
+        range_start := make_timestamp(partition_year, 1, 1, 0, 0, 0);
+        range_end := make_timestamp(partition_year + 1, 1, 1, 0, 0, 0);
+
+        IF EXISTS (SELECT 1 FROM insurance_obligations_default
+                   WHERE start_date >= range_start AND start_date < range_end) THEN
+            PERFORM set_config('insurance.partition_maintenance', 'on', true);
+            CREATE TEMP TABLE obligation_partition_rows (LIKE insurance_obligations) ON COMMIT DROP;
+            WITH moved AS (
+                DELETE FROM insurance_obligations_default
+                WHERE start_date >= range_start AND start_date < range_end
+                RETURNING *
+            )
+            INSERT INTO obligation_partition_rows SELECT * FROM moved;
+            EXECUTE format('CREATE TABLE %I PARTITION OF insurance_obligations FOR VALUES FROM (%L) TO (%L)',
+                partition_name, range_start, range_end);
+            INSERT INTO insurance_obligations SELECT * FROM obligation_partition_rows;
+            DROP TABLE obligation_partition_rows;
+            PERFORM set_config('insurance.partition_maintenance', 'off', true);
+        ELSE
+            EXECUTE format('CREATE TABLE %I PARTITION OF insurance_obligations FOR VALUES FROM (%L) TO (%L)',
+                partition_name, range_start, range_end);
+        END IF;
+        created := created + 1;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Секції для всіх років наявних даних, поточного та наступного року
+SELECT create_obligation_partitions(
+    LEAST(EXTRACT(YEAR FROM CURRENT_DATE)::INTEGER,
+          COALESCE((SELECT EXTRACT(YEAR FROM MIN(start_date))::INTEGER FROM insurance_obligations_legacy),
+                   EXTRACT(YEAR FROM CURRENT_DATE)::INTEGER)),
+    GREATEST(EXTRACT(YEAR FROM CURRENT_DATE)::INTEGER + 1,
+             COALESCE((SELECT EXTRACT(YEAR FROM MAX(start_date))::INTEGER FROM insurance_obligations_legacy),
+                      EXTRACT(YEAR FROM CURRENT_DATE)::INTEGER)));
+
+-- Перенесення даних; ключі заповнює тригер
+INSERT INTO insurance_obligations (id, policy_number, type, risk_level, amount, duration_months, calculated_value,
+    start_date, end_date, status, notes, created_at, updated_at)
+SELECT id, policy_number, type, risk_level, amount, duration_months, calculated_value,
+    start_date, end_date, status, notes, created_at, updated_at
+FROM insurance_obligations_legacy;
+
+-- Дочірні таблиці посилаються на глобальні ключі
+ALTER TABLE obligation_risks DROP CONSTRAINT IF EXISTS obligation_risks_obligation_id_fkey;
+ALTER TABLE property_insurance DROP CONSTRAINT IF EXISTS property_insurance_obligation_id_fkey;
+ALTER TABLE health_insurance DROP CONSTRAINT IF EXISTS health_insurance_obligation_id_fkey;
+ALTER TABLE life_insurance DROP CONSTRAINT IF EXISTS life_insurance_obligation_id_fkey;
+ALTER TABLE derivative_obligations DROP CONSTRAINT IF EXISTS derivative_obligations_obligation_id_fkey;
+
+ALTER TABLE obligation_risks ADD CONSTRAINT obligation_risks_obligation_id_fkey
+    FOREIGN KEY (obligation_id) REFERENCES insurance_obligation_keys(id) ON DELETE CASCADE;
+ALTER TABLE property_insurance ADD CONSTRAINT property_insurance_obligation_id_fkey
+    FOREIGN KEY (obligation_id) REFERENCES insurance_obligation_keys(id) ON DELETE CASCADE;
+ALTER TABLE health_insurance ADD CONSTRAINT health_insurance_obligation_id_fkey
+    FOREIGN KEY (obligation_id) REFERENCES insurance_obligation_keys(id) ON DELETE CASCADE;
+ALTER TABLE life_insurance ADD CONSTRAINT life_insurance_obligation_id_fkey
+    FOREIGN KEY (obligation_id) REFERENCES insurance_obligation_keys(id) ON DELETE CASCADE;
+ALTER TABLE derivative_obligations ADD CONSTRAINT derivative_obligations_obligation_id_fkey
+    FOREIGN KEY (obligation_id) REFERENCES insurance_obligation_keys(id) ON DELETE CASCADE;
+
+DROP TABLE insurance_obligations_legacy;
+
+-- Індекси створюються на кожній секції
+CREATE INDEX IF NOT EXISTS idx_insurance_type ON insurance_obligations(type);
+CREATE INDEX IF NOT EXISTS idx_insurance_risk ON insurance_obligations(risk_level);
+CREATE INDEX IF NOT EXISTS idx_insurance_value ON insurance_obligations(calculated_value);
+CREATE INDEX IF NOT EXISTS idx_insurance_status ON insurance_obligations(status, start_date);
+CREATE INDEX IF NOT EXISTS idx_insurance_dates ON insurance_obligations(start_date, end_date);
+CREATE INDEX IF NOT EXISTS idx_insurance_policy_number ON insurance_obligations(policy_number);
+CREATE INDEX IF NOT EXISTS idx_insurance_notes_fts ON insurance_obligations USING GIN (to_tsvector('simple', COALESCE(notes, '')));
+
+-- Тригери статистики деривативів (V7) для нової таблиці.
+-- Під час обслуговування секцій внесок зобов'язань не змінюється.
+CREATE OR REPLACE FUNCTION derivative_stats_on_obligation_delete() RETURNS TRIGGER AS $$
+DECLARE
+    link RECORD;
+BEGIN
+    IF obligation_partition_maintenance() THEN
+        RETURN OLD;
+    END IF;
+    FOR link IN SELECT derivative_id FROM derivative_obligations WHERE obligation_id = OLD.id LOOP
+        PERFORM derivative_stats_apply(link.derivative_id, OLD.id, -1);
+    END LOOP;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_derivative_stats_obligation_update
+    AFTER UPDATE OF amount, calculated_value, risk_level ON insurance_obligations
+    FOR EACH ROW
+    WHEN (OLD.amount IS DISTINCT FROM NEW.amount
+        OR OLD.calculated_value IS DISTINCT FROM NEW.calculated_value
+        OR OLD.risk_level IS DISTINCT FROM NEW.risk_level)
+    EXECUTE FUNCTION derivative_stats_on_obligation_update();
+
+CREATE TRIGGER trg_derivative_stats_obligation_delete
+    BEFORE DELETE ON insurance_obligations
+    FOR EACH ROW EXECUTE FUNCTION derivative_stats_on_obligation_delete();
\ No newline at end of file
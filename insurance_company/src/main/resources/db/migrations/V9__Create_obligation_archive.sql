@@ -0,0 +1,226 @@
+-- Архів зобов'язань зі статусом EXPIRED або CANCELLED, що давно завершилися.
+-- Ключ архівованого зобов'язання залишається в insurance_obligation_keys, тож
+-- зв'язки з деривативами зберігаються, а вартість деривативів не змінюється.
+
+CREATE TABLE IF NOT EXISTS insurance_obligations_archive (
+    id INTEGER PRIMARY KEY REFERENCES insurance_obligation_keys(id) ON DELETE CASCADE,
+    policy_number VARCHAR(40) NOT NULL,
+    type VARCHAR(40) NOT NULL,
+    risk_level DECIMAL(5,2) NOT NULL,
+    amount DECIMAL(20,2) NOT NULL,
+    duration_months INTEGER NOT NULL,
+    calculated_value DECIMAL(20,2) NOT NULL,
+    start_date TIMESTAMP NOT NULL,
+    end_date TIMESTAMP NOT NULL,
+    status VARCHAR(40) NOT NULL,
+    notes TEXT,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS obligation_risks_archive (
+    obligation_id INTEGER REFERENCES insurance_obligation_keys(id) ON DELETE CASCADE,
+    risk_code VARCHAR(20) REFERENCES risks(code) ON DELETE CASCADE,
+    PRIMARY KEY (obligation_id, risk_code)
+);
+
+CREATE TABLE IF NOT EXISTS property_insurance_archive (
+    LIKE property_insurance INCLUDING DEFAULTS,
+    PRIMARY KEY (obligation_id),
+    FOREIGN KEY (obligation_id) REFERENCES insurance_obligation_keys(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS health_insurance_archive (
+    LIKE health_insurance INCLUDING DEFAULTS,
+    PRIMARY KEY (obligation_id),
+    FOREIGN KEY (obligation_id) REFERENCES insurance_obligation_keys(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS life_insurance_archive (
+    LIKE life_insurance INCLUDING DEFAULTS,
+    PRIMARY KEY (obligation_id),
+    FOREIGN KEY (obligation_id) REFERENCES insurance_obligation_keys(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_insurance_archive_status ON insurance_obligations_archive(status);
+CREATE INDEX IF NOT EXISTS idx_insurance_archive_dates ON insurance_obligations_archive(start_date, end_date);
+
+-- Індекс для вибору кандидатів на архівування
+CREATE INDEX IF NOT EXISTS idx_insurance_status_end ON insurance_obligations(status, end_date);
+
+-- Представлення над активними та архівними даними
+CREATE OR REPLACE VIEW all_insurance_obligations AS
+    SELECT id, policy_number, type, risk_level, amount, duration_months, calculated_value,
+           start_date, end_date, status, notes, created_at, updated_at
+    FROM insurance_obligations
+    UNION ALL
+    SELECT id, policy_number, type, risk_level, amount, duration_months, calculated_value,
+           start_date, end_date, status, notes, created_at, updated_at
+    FROM insurance_obligations_archive;
+
+CREATE OR REPLACE VIEW all_obligation_risks AS
+    SELECT obligation_id, risk_code FROM obligation_risks
+    UNION ALL
+    SELECT obligation_id, risk_code FROM obligation_risks_archive;
+
+CREATE OR REPLACE VIEW all_property_insurance AS
+    SELECT * FROM property_insurance
+    UNION ALL
+    SELECT * FROM property_insurance_archive;
+
+CREATE OR REPLACE VIEW all_health_insurance AS
+    SELECT * FROM health_insurance
+    UNION ALL
+    SELECT * FROM health_insurance_archive;
+
+CREATE OR REPLACE VIEW all_life_insurance AS
+    SELECT * FROM life_insurance
+    UNION ALL
+    SELECT * FROM life_insurance_archive;
+
+-- Чи переносяться зараз рядки зобов'язань без зміни їхнього змісту
+-- (обслуговування секцій або архівування). Тригери ключів і статистики тоді не спрацьовують.
+CREATE OR REPLACE FUNCTION obligation_rows_relocating() RETURNS BOOLEAN AS $$
+BEGIN
+    RETURN obligation_partition_maintenance()
+        OR COALESCE(current_setting('insurance.archiving', true), '') = 'on';
+END;
+$$ LANGUAGE plpgsql STABLE;
+
+-- Внесок зобов'язання у статистику рахується і для архівних зобов'язань
+CREATE OR REPLACE FUNCTION derivative_stats_apply(p_derivative_id INTEGER, p_obligation_id INTEGER, p_sign INTEGER)
+RETURNS VOID AS $$
+BEGIN
+    UPDATE derivative_stats s SET
+        obligation_count = s.obligation_count + p_sign,
+        amount_sum = s.amount_sum + p_sign * o.amount,
+        calculated_value_sum = s.calculated_value_sum + p_sign * o.calculated_value,
+        risk_level_sum = s.risk_level_sum + p_sign * o.risk_level,
+        property_risk_count = s.property_risk_count + p_sign * rc.property_count,
+        health_risk_count = s.health_risk_count + p_sign * rc.health_count,
+        life_risk_count = s.life_risk_count + p_sign * rc.life_count,
+        liability_risk_count = s.liability_risk_count + p_sign * rc.liability_count,
+        financial_risk_count = s.financial_risk_count + p_sign * rc.financial_count
+    FROM all_insurance_obligations o,
+        LATERAL (
+            SELECT COUNT(*) FILTER (WHERE r.category = 'PROPERTY') AS property_count,
+                   COUNT(*) FILTER (WHERE r.category = 'HEALTH') AS health_count,
+                   COUNT(*) FILTER (WHERE r.category = 'LIFE') AS life_count,
+                   COUNT(*) FILTER (WHERE r.category = 'LIABILITY') AS liability_count,
+                   COUNT(*) FILTER (WHERE r.category = 'FINANCIAL') AS financial_count
+            FROM all_obligation_risks obr
+            JOIN risks r ON r.code = obr.risk_code
+            WHERE obr.obligation_id = o.id
+        ) rc
+    WHERE s.derivative_id = p_derivative_id AND o.id = p_obligation_id;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION derivative_stats_refresh(p_derivative_id INTEGER) RETURNS VOID AS $$
+BEGIN
+    UPDATE derivative_stats s SET
+        obligation_count = agg.obligation_count,
+        amount_sum = agg.amount_sum,
+        calculated_value_sum = agg.calculated_value_sum,
+        risk_level_sum = agg.risk_level_sum,
+        property_risk_count = rk.property_count,
+        health_risk_count = rk.health_count,
+        life_risk_count = rk.life_count,
+        liability_risk_count = rk.liability_count,
+        financial_risk_count = rk.financial_count
+    FROM (
+        SELECT COUNT(*) AS obligation_count, COALESCE(SUM(o.amount), 0) AS amount_sum,
+               COALESCE(SUM(o.calculated_value), 0) AS calculated_value_sum,
+               COALESCE(SUM(o.risk_level), 0) AS risk_level_sum
+        FROM derivative_obligations dob
+        JOIN all_insurance_obligations o ON o.id = dob.obligation_id
+        WHERE dob.derivative_id = p_derivative_id
+    ) agg, (
+        SELECT COUNT(*) FILTER (WHERE r.category = 'PROPERTY') AS property_count,
+               COUNT(*) FILTER (WHERE r.category = 'HEALTH') AS health_count,
+               COUNT(*) FILTER (WHERE r.category = 'LIFE') AS life_count,
+               COUNT(*) FILTER (WHERE r.category = 'LIABILITY') AS liability_count,
+               COUNT(*) FILTER (WHERE r.category = 'FINANCIAL') AS financial_count
+        FROM derivative_obligations dob
+        JOIN all_obligation_risks obr ON obr.obligation_id = dob.obligation_id
+        JOIN risks r ON r.code = obr.risk_code
+        WHERE dob.derivative_id = p_derivative_id
+    ) rk
+    WHERE s.derivative_id = p_derivative_id;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Ключ видаляється лише тоді, коли зобов'язання немає ні серед активних, ні в архіві
+CREATE OR REPLACE FUNCTION obligation_keys_on_delete() RETURNS TRIGGER AS $$
+BEGIN
+    IF obligation_rows_relocating() THEN
+        RETURN NULL;
+    END IF;
+    DELETE FROM insurance_obligation_keys k
+    WHERE k.id = OLD.id AND NOT EXISTS (SELECT 1 FROM all_insurance_obligations WHERE id = OLD.id);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION derivative_stats_on_obligation_delete() RETURNS TRIGGER AS $$
+DECLARE
+    link RECORD;
+BEGIN
+    IF obligation_rows_relocating() THEN
+        RETURN OLD;
+    END IF;
+    FOR link IN SELECT derivative_id FROM derivative_obligations WHERE obligation_id = OLD.id LOOP
+        PERFORM derivative_stats_apply(link.derivative_id, OLD.id, -1);
+    END LOOP;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Ризики, що переносяться в архів разом із зобов'язанням, не змінюють статистику
+CREATE OR REPLACE FUNCTION derivative_stats_on_obligation_risk_change() RETURNS TRIGGER AS $$
+DECLARE
+    risk_category VARCHAR(40);
+BEGIN
+    IF obligation_rows_relocating() THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP = 'INSERT' THEN
+        SELECT category INTO risk_category FROM risks WHERE code = NEW.risk_code;
+        PERFORM derivative_stats_apply_risk(NEW.obligation_id, risk_category, 1);
+    ELSIF EXISTS (SELECT 1 FROM insurance_obligations WHERE id = OLD.obligation_id) THEN
+        SELECT category INTO risk_category FROM risks WHERE code = OLD.risk_code;
+        IF FOUND THEN
+            PERFORM derivative_stats_apply_risk(OLD.obligation_id, risk_category, -1);
+        END IF;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Видалення ризику чи зміна його категорії враховує також архівні зобов'язання
+CREATE OR REPLACE FUNCTION derivative_stats_on_risk_change() RETURNS TRIGGER AS $$
+DECLARE
+    link RECORD;
+BEGIN
+    FOR link IN SELECT obligation_id FROM all_obligation_risks WHERE risk_code = OLD.code LOOP
+        PERFORM derivative_stats_apply_risk(link.obligation_id, OLD.category, -1);
+        IF TG_OP = 'UPDATE' THEN
+            PERFORM derivative_stats_apply_risk(link.obligation_id, NEW.category, 1);
+        END IF;
+    END LOOP;
+    IF TG_OP = 'DELETE' THEN
+        RETURN OLD;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Видалення архівного зобов'язання віднімає його внесок і видаляє ключ
+CREATE TRIGGER trg_derivative_stats_archive_delete
+    BEFORE DELETE ON insurance_obligations_archive
+    FOR EACH ROW EXECUTE FUNCTION derivative_stats_on_obligation_delete();
+
+CREATE TRIGGER trg_obligation_keys_archive_delete
+    AFTER DELETE ON insurance_obligations_archive
+    FOR EACH ROW EXECUTE FUNCTION obligation_keys_on_delete();
\ No newline at end of file
@@ -0,0 +1,86 @@
+package proj.Database;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AdaptivePoolControllerTest {
+    private HikariPoolMXBean metrics;
+    private HikariConfigMXBean config;
+    private AdaptivePoolController controller;
+
+    @BeforeEach
+    void setUp() {
+        metrics = mock(HikariPoolMXBean.class);
+        config = mock(HikariConfigMXBean.class);
+        controller = new AdaptivePoolController(metrics, config, 4, 20, 2);
+    }
+
+    @Test
+    void testGrowsWhenThreadsAreWaiting() {
+        assertEquals(12, controller.decide(10, 10, 1), "Пул повинен зрости щонайменше на крок");
+        assertEquals(15, controller.decide(10, 10, 5), "Пул повинен зрости на кількість очікуючих");
+        assertEquals(20, controller.decide(18, 18, 7), "Пул не повинен перевищувати максимум");
+    }
+
+    @Test
+    void testShrinksOnlyAfterSustainedLowUtilisation() {
+        for (int i = 1; i < AdaptivePoolController.SHRINK_AFTER_SAMPLES; i++) {
+            assertEquals(10, controller.decide(10, 2, 0));
+        }
+        assertEquals(8, controller.decide(10, 2, 0), "Пул повинен зменшитися на крок");
+
+        // Навантаження між вибірками скидає лічильник
+        controller.decide(8, 2, 0);
+        controller.decide(8, 6, 0);
+        controller.decide(8, 2, 0);
+        assertEquals(8, controller.decide(8, 2, 0));
+    }
+
+    @Test
+    void testNeverShrinksBelowMinimum() {
+        for (int i = 0; i < AdaptivePoolController.SHRINK_AFTER_SAMPLES * 3; i++) {
+            assertTrue(controller.decide(5, 0, 0) >= 4);
+        }
+        assertEquals(4, controller.decide(4, 0, 0));
+    }
+
+    @Test
+    void testSampleAppliesAndRecordsDecision() {
+        when(config.getMaximumPoolSize()).thenReturn(10);
+        when(metrics.getActiveConnections()).thenReturn(10);
+        when(metrics.getIdleConnections()).thenReturn(0);
+        when(metrics.getThreadsAwaitingConnection()).thenReturn(3);
+
+        PoolResizeDecision decision = controller.sample();
+
+        assertNotNull(decision);
+        assertEquals(10, decision.getPreviousSize());
+        assertEquals(13, decision.getNewSize());
+        assertEquals(3, decision.getThreadsAwaiting());
+        verify(config).setMaximumPoolSize(13);
+        assertEquals(1, controller.getDecisions().size());
+    }
+
+    @Test
+    void testSampleWithoutChangeIsNotRecorded() {
+        when(config.getMaximumPoolSize()).thenReturn(10);
+        when(metrics.getActiveConnections()).thenReturn(8);
+
+        assertNull(controller.sample());
+        verify(config, never()).setMaximumPoolSize(anyInt());
+        assertTrue(controller.getDecisions().isEmpty());
+    }
+
+    @Test
+    void testInvalidBounds() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new AdaptivePoolController(metrics, config, 10, 5, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new AdaptivePoolController(metrics, config, 1, 5, 0));
+    }
+}
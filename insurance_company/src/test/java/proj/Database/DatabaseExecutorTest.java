@@ -0,0 +1,74 @@
+package proj.Database;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseExecutorTest {
+
+    @Test
+    void testCallRunsOnVirtualThread() {
+        try (DatabaseExecutor executor = new DatabaseExecutor(2)) {
+            assertTrue(executor.submit(() -> Thread.currentThread().isVirtual()).join(),
+                    "Виклик повинен виконуватися на віртуальному потоці");
+        }
+    }
+
+    @Test
+    void testConcurrencyIsCapped() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (DatabaseExecutor executor = new DatabaseExecutor(3)) {
+            List<CompletableFuture<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                futures.add(executor.submit(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    return 1;
+                }));
+            }
+            Thread.sleep(200);
+            assertEquals(0, executor.getAvailablePermits(), "Усі дозволи повинні бути зайняті");
+            release.countDown();
+
+            int completed = futures.stream().mapToInt(CompletableFuture::join).sum();
+            assertEquals(10, completed);
+            assertEquals(3, maxRunning.get(), "Одночасно не повинно виконуватися більше викликів, ніж дозволів");
+            assertEquals(3, executor.getAvailablePermits(), "Дозволи повинні повертатися після викликів");
+        }
+    }
+
+    @Test
+    void testSqlExceptionCompletesExceptionally() {
+        try (DatabaseExecutor executor = new DatabaseExecutor(1)) {
+            CompletableFuture<Object> future = executor.submit(() -> {
+                throw new SQLException("boom");
+            });
+
+            CompletionException e = assertThrows(CompletionException.class, future::join);
+            assertInstanceOf(SQLException.class, e.getCause());
+            assertEquals(1, executor.getAvailablePermits(), "Дозвіл повинен повертатися після помилки");
+        }
+    }
+
+    @Test
+    void testInvalidConcurrency() {
+        assertThrows(IllegalArgumentException.class, () -> new DatabaseExecutor(0));
+    }
+}
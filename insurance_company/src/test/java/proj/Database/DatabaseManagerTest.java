@@ -52,6 +52,26 @@ class DatabaseManagerTest {
         }
     }
 
+    @Test
+    void testReadConnection() throws SQLException {
+        try (java.sql.Connection conn = dbManager.getReadConnection()) {
+            assertTrue(conn.isValid(1), "З'єднання для читання має бути робочим");
+        }
+        if (dbManager.hasReplica()) {
+            // Одразу після запису потік читає з основної бази
+            dbManager.getConnection().close();
+            try (java.sql.Connection conn = dbManager.getReadConnection()) {
+                assertFalse(conn.isReadOnly(), "Після запису читання має йти з основної бази");
+            }
+            // Так само й для читання з іншого потоку, наприклад асинхронного виклику
+            assertFalse(dbManager.getAsyncExecutor().submit(() -> {
+                try (java.sql.Connection conn = dbManager.getReadConnection()) {
+                    return conn.isReadOnly();
+                }
+            }).join(), "Після запису читання з іншого потоку має йти з основної бази");
+        }
+    }
+
     @Test
     void testCloseConnectionPool() {
         DatabaseManager testManager = DatabaseManager.getInstance();
@@ -0,0 +1,43 @@
+package proj.Database;
+
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class NotificationListenerTest {
+
+    @Test
+    void testCallbackRunsOnConnectAndOnNotification() throws Exception {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        PGConnection pgConnection = mock(PGConnection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getNotifications(anyInt()))
+                .thenReturn(new PGNotification[] { mock(PGNotification.class) })
+                .thenReturn(new PGNotification[0]);
+
+        // Один виклик після підключення та один за повідомленням
+        CountDownLatch calls = new CountDownLatch(2);
+        try (NotificationListener listener = new NotificationListener(() -> connection, "test_channel",
+                calls::countDown)) {
+            listener.start();
+            assertTrue(calls.await(5, TimeUnit.SECONDS), "Зворотний виклик повинен виконатися двічі");
+        }
+        verify(statement).execute("LISTEN test_channel");
+    }
+
+    @Test
+    void testInvalidChannel() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new NotificationListener(() -> null, "bad channel; DROP TABLE risks", () -> { }));
+    }
+}
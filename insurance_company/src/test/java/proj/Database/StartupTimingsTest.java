@@ -0,0 +1,50 @@
+package proj.Database;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StartupTimingsTest {
+
+    @Test
+    void testPhasesAreRecordedInOrder() throws SQLException {
+        StartupTimings timings = new StartupTimings();
+
+        assertEquals(42, timings.time("first", () -> 42));
+        timings.time("second", () -> { });
+        timings.record("first", Duration.ofMillis(5));
+
+        Map<String, Duration> phases = timings.getPhases();
+        assertEquals(List.of("first", "second"), List.copyOf(phases.keySet()));
+        assertTrue(phases.get("first").compareTo(Duration.ofMillis(5)) >= 0,
+                "Повторний запис етапу повинен додаватися до його тривалості");
+    }
+
+    @Test
+    void testFailedPhaseIsRecorded() {
+        StartupTimings timings = new StartupTimings();
+
+        assertThrows(SQLException.class, () -> timings.time("migrations", () -> {
+            throw new SQLException("connection refused");
+        }));
+
+        assertTrue(timings.getPhases().containsKey("migrations"));
+    }
+
+    @Test
+    void testReport() {
+        StartupTimings timings = new StartupTimings();
+        timings.record("connection pool", Duration.ofMillis(120));
+
+        String report = timings.report();
+
+        assertTrue(report.startsWith("Startup timings:"));
+        assertTrue(report.matches("(?s).*connection pool\\s+120 ms.*"), report);
+        assertTrue(report.contains("total"));
+    }
+}
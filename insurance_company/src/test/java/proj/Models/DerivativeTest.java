@@ -9,6 +9,7 @@ import proj.Models.Risk.RiskCategory;
 import org.junit.jupiter.api.*;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -113,4 +114,56 @@ class DerivativeTest {
         assertTrue(str.contains("id=1"));
         assertTrue(str.contains("name='Test Derivative'"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testPersistedObligationIds() {
+        assertNull(derivative.getPersistedObligationIds());
+
+        // Без знімка відмітки ігноруються
+        derivative.setObligationPersisted(1, true);
+        assertNull(derivative.getPersistedObligationIds());
+
+        derivative.setPersistedObligationIds(List.of(1, 2));
+        derivative.setObligationPersisted(3, true);
+        derivative.setObligationPersisted(1, false);
+        assertEquals(Set.of(2, 3), derivative.getPersistedObligationIds());
+        assertThrows(UnsupportedOperationException.class, () -> derivative.getPersistedObligationIds().add(4));
+    }
+
+    @Test
+    void testLazyObligationLoading() {
+        derivative.setTotalValue(123.0);
+        int[] loads = {0};
+        derivative.setObligationLoader(d -> {
+            loads[0]++;
+            return List.of(lifeInsurance, healthInsurance);
+        });
+
+        assertFalse(derivative.isObligationsLoaded());
+        assertTrue(derivative.toString().contains("obligations=?"), "toString не повинен завантажувати зобов'язання");
+        assertEquals(0, loads[0]);
+
+        assertEquals(2, derivative.getObligations().size());
+        assertTrue(derivative.isObligationsLoaded());
+        assertEquals(123.0, derivative.getTotalValue(), 0.001, "Завантаження не повинно перераховувати вартість");
+
+        derivative.getObligations();
+        derivative.addObligation(propertyInsurance);
+        assertEquals(1, loads[0], "Зобов'язання повинні завантажуватися лише один раз");
+        assertEquals(3, derivative.getObligations().size());
+    }
+
+    @Test
+    void testLazyLoadingFailurePropagates() {
+        derivative.setObligationLoader(d -> {
+            throw new IllegalStateException("closed");
+        });
+
+        assertThrows(IllegalStateException.class, () -> derivative.getObligations());
+        assertFalse(derivative.isObligationsLoaded());
+
+        derivative.setObligations(List.of(lifeInsurance));
+        assertTrue(derivative.isObligationsLoaded());
+        assertEquals(1, derivative.getObligations().size());
+    }
+}
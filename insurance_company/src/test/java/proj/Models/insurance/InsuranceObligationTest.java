@@ -276,4 +276,115 @@ class InsuranceObligationTest {
         assertTrue(str.contains("policyNumber='POL-123'"));
         assertTrue(str.contains("duration=12 months"));
     }
+
+    @Test
+    void testDirtyTrackingStartsUntracked() {
+        InsuranceObligation obligation = new LifeInsurance(0.5, 1000.0, 12);
+        obligation.setNotes("Нотатка");
+
+        assertNull(obligation.getDirtyFields(), "Стан бази нового зобов'язання невідомий");
+        assertTrue(obligation.isDirty());
+    }
+
+    @Test
+    void testDirtyTrackingRecordsChangedFields() {
+        InsuranceObligation obligation = new LifeInsurance(0.5, 1000.0, 12);
+        obligation.markClean();
+        assertFalse(obligation.isDirty());
+
+        obligation.setNotes("Нотатка");
+        obligation.setStatus(InsuranceObligation.ObligationStatus.PENDING);
+
+        assertEquals(Set.of("notes", "status"), obligation.getDirtyFields());
+
+        obligation.markClean();
+        assertTrue(obligation.getDirtyFields().isEmpty());
+    }
+
+    @Test
+    void testSettingSameValueIsNotDirty() {
+        InsuranceObligation obligation = new LifeInsurance(0.5, 1000.0, 12);
+        obligation.markClean();
+
+        obligation.setAmount(1000.0);
+        obligation.setRiskLevel(0.5);
+        obligation.setDurationMonths(12);
+        obligation.setStatus(obligation.getStatus());
+
+        assertFalse(obligation.isDirty(), "Те саме значення не повинно позначати поле зміненим");
+    }
+
+    @Test
+    void testDurationChangeMarksEndDate() {
+        InsuranceObligation obligation = new LifeInsurance(0.5, 1000.0, 12);
+        obligation.markClean();
+
+        obligation.setDurationMonths(24);
+
+        assertEquals(Set.of("durationMonths", "endDate"), obligation.getDirtyFields());
+    }
+
+    @Test
+    void testRiskChangesAreDetected() {
+        InsuranceObligation obligation = new LifeInsurance(0.5, 1000.0, 12);
+        obligation.markClean();
+        Risk risk = new Risk("FLOOD01", "Flood", "Flood risk", 0.2, Risk.RiskCategory.PROPERTY);
+
+        obligation.getCoveredRisks().add(risk);
+        assertEquals(Set.of(InsuranceObligation.COVERED_RISKS), obligation.getDirtyFields());
+
+        obligation.removeRisk(risk);
+        assertFalse(obligation.isDirty(), "Повернення до збереженого набору ризиків не є зміною");
+    }
+
+    @Test
+    void testSubtypeFieldsAreTracked() {
+        PropertyInsurance property = new PropertyInsurance(0.4, 300000.0, 24,
+                "Kyiv", 500000.0, false, "APARTMENT", true);
+        property.markClean();
+
+        property.setPropertyLocation("Lviv");
+        property.setHighRiskArea(true);
+
+        assertEquals(Set.of("propertyLocation", "highRiskArea"), property.getDirtyFields());
+
+        property.markUntracked();
+        assertNull(property.getDirtyFields());
+    }
+
+    @Test
+    void testCopyConstructorCopiesSubtypeFields() {
+        PropertyInsurance property = new PropertyInsurance(0.4, 300000.0, 24,
+                "Kyiv", 500000.0, true, "HOUSE", true);
+        property.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 12, 0));
+
+        PropertyInsurance copy = new PropertyInsurance(property);
+
+        assertEquals(property.getPolicyNumber(), copy.getPolicyNumber());
+        assertEquals("Kyiv", copy.getPropertyLocation());
+        assertEquals(500000.0, copy.getPropertyValue(), 0.01);
+        assertTrue(copy.isHighRiskArea());
+        assertEquals("HOUSE", copy.getPropertyType());
+        assertTrue(copy.includesNaturalDisasters());
+        assertEquals(property.getUpdatedAt(), copy.getUpdatedAt(), "Копіювання не повинно змінювати дату оновлення");
+    }
+
+    @Test
+    void testTrackedChangesUpdateTimestamp() {
+        LocalDateTime loadedAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+        LifeInsurance life = new LifeInsurance(0.5, 1000.0, 12, "Іван", false, false);
+        life.setUpdatedAt(loadedAt);
+        life.markClean();
+
+        life.setNotes("Нова примітка");
+        assertTrue(life.getUpdatedAt().isAfter(loadedAt), "Зміна приміток повинна оновлювати дату оновлення");
+
+        life.setUpdatedAt(loadedAt);
+        life.setBeneficiary("Марія");
+        assertTrue(life.getUpdatedAt().isAfter(loadedAt), "Зміна поля підтипу повинна оновлювати дату оновлення");
+
+        life.setUpdatedAt(loadedAt);
+        life.setBeneficiary("Марія");
+        assertEquals(loadedAt, life.getUpdatedAt(), "Те саме значення не є зміною");
+    }
 }
\ No newline at end of file
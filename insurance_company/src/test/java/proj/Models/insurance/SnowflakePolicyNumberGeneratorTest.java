@@ -0,0 +1,100 @@
+package proj.Models.insurance;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakePolicyNumberGeneratorTest {
+
+    @Test
+    void testNumbersAreUniqueAcrossThreads() throws Exception {
+        SnowflakePolicyNumberGenerator generator = new SnowflakePolicyNumberGenerator(1);
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        int perThread = 50_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        numbers.add(generator.nextPolicyNumber());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(threads * perThread, numbers.size(), "Номери полісів не повинні повторюватися");
+    }
+
+    @Test
+    void testNumbersAreOrderedWhenSequenceOverflowsOrClockGoesBack() {
+        AtomicLong clock = new AtomicLong(SnowflakePolicyNumberGenerator.EPOCH_MILLIS + 1000);
+        SnowflakePolicyNumberGenerator generator = new SnowflakePolicyNumberGenerator(3, clock::get);
+
+        String previous = generator.nextPolicyNumber();
+        // Більше номерів, ніж уміщує одна мілісекунда, а потім годинник іде назад
+        for (int i = 0; i < 10_000; i++) {
+            if (i == 5_000) {
+                clock.addAndGet(-500);
+            }
+            String next = generator.nextPolicyNumber();
+            assertTrue(next.compareTo(previous) > 0, "Номери повинні зростати: " + previous + " → " + next);
+            previous = next;
+        }
+    }
+
+    @Test
+    void testDifferentNodesNeverCollide() {
+        AtomicLong clock = new AtomicLong(SnowflakePolicyNumberGenerator.EPOCH_MILLIS + 1000);
+        SnowflakePolicyNumberGenerator first = new SnowflakePolicyNumberGenerator(1, clock::get);
+        SnowflakePolicyNumberGenerator second = new SnowflakePolicyNumberGenerator(2, clock::get);
+
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < 5_000; i++) {
+            assertTrue(ids.add(first.nextId()));
+            assertTrue(ids.add(second.nextId()));
+        }
+    }
+
+    @Test
+    void testFormat() {
+        String number = new SnowflakePolicyNumberGenerator(0).nextPolicyNumber();
+
+        assertTrue(number.matches("POL-\\d{19}"), "Неочікуваний формат: " + number);
+        assertTrue(number.length() <= 40, "Номер повинен уміщатися в стовпець policy_number");
+    }
+
+    @Test
+    void testInvalidNodeId() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakePolicyNumberGenerator(-1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SnowflakePolicyNumberGenerator(SnowflakePolicyNumberGenerator.MAX_NODE_ID + 1));
+    }
+
+    @Test
+    void testObligationUsesConfiguredGenerator() {
+        PolicyNumberGenerator original = InsuranceObligation.getPolicyNumberGenerator();
+        try {
+            InsuranceObligation.setPolicyNumberGenerator(() -> "POL-TEST");
+            assertEquals("POL-TEST", new LifeInsurance(0.5, 1000.0, 12).getPolicyNumber());
+        } finally {
+            InsuranceObligation.setPolicyNumberGenerator(original);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package proj.Repositories;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedCacheTest {
+    private AtomicLong clock;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong();
+    }
+
+    private BoundedCache<Integer, String> cache(long maximumWeight, Duration ttl) {
+        return new BoundedCache<>(maximumWeight, value -> 1, ttl, clock::get);
+    }
+
+    @Test
+    void testHitAndMissAreCounted() {
+        BoundedCache<Integer, String> cache = cache(10, Duration.ZERO);
+
+        assertNull(cache.get(1));
+        assertTrue(cache.put(1, "one"));
+        assertEquals("one", cache.get(1));
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getSize());
+        assertEquals(0.5, stats.getHitRate(), 0.0001);
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() {
+        BoundedCache<Integer, String> cache = cache(2, Duration.ZERO);
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.get(1);
+        cache.get(2);
+        cache.get(1);
+        // Новий ключ, до якого зверталися частіше, ніж до найстарішого (2)
+        for (int i = 0; i < 3; i++) {
+            cache.get(3);
+        }
+
+        assertTrue(cache.put(3, "three"));
+        assertEquals("one", cache.get(1));
+        assertNull(cache.get(2), "Повинен витіснятися найдавніше використаний запис");
+        assertEquals(1, cache.stats().getEvictionCount());
+        assertEquals(2, cache.stats().getSize());
+    }
+
+    @Test
+    void testColdCandidateIsRejected() {
+        BoundedCache<Integer, String> cache = cache(2, Duration.ZERO);
+        cache.put(1, "one");
+        cache.put(2, "two");
+        for (int i = 0; i < 5; i++) {
+            cache.get(1);
+            cache.get(2);
+        }
+
+        assertFalse(cache.put(3, "three"), "Разовий запис не повинен витісняти часто потрібні");
+        assertEquals("one", cache.get(1));
+        assertEquals("two", cache.get(2));
+        assertEquals(1, cache.stats().getRejectionCount());
+        assertEquals(0, cache.stats().getEvictionCount());
+    }
+
+    @Test
+    void testRejectionKeepsLruOrder() {
+        BoundedCache<Integer, String> cache = cache(2, Duration.ZERO);
+        cache.put(1, "one");
+        cache.put(2, "two");
+        for (int i = 0; i < 5; i++) {
+            cache.get(1);
+            cache.get(2);
+        }
+        assertFalse(cache.put(3, "three"));
+
+        // Перевірка кандидатів під час відмови не повинна оновлювати їхній порядок
+        for (int i = 0; i < 10; i++) {
+            cache.get(4);
+        }
+        assertTrue(cache.put(4, "four"));
+        assertNull(cache.get(1), "Повинен витіснятися найдавніше використаний запис");
+        assertEquals("two", cache.get(2));
+    }
+
+    @Test
+    void testReplacingValueIsAlwaysAccepted() {
+        BoundedCache<Integer, String> cache = cache(1, Duration.ZERO);
+        cache.put(1, "one");
+
+        assertTrue(cache.put(1, "updated"));
+        assertEquals("updated", cache.get(1));
+        assertEquals(1, cache.stats().getSize());
+    }
+
+    @Test
+    void testEntriesExpireAfterTtl() {
+        BoundedCache<Integer, String> cache = cache(10, Duration.ofSeconds(5));
+        cache.put(1, "one");
+
+        clock.addAndGet(Duration.ofSeconds(4).toNanos());
+        assertEquals("one", cache.get(1));
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertNull(cache.get(1));
+        assertEquals(1, cache.stats().getExpirationCount());
+        assertEquals(0, cache.stats().getSize());
+    }
+
+    @Test
+    void testExpiredEntryDoesNotBlockAdmission() {
+        BoundedCache<Integer, String> cache = cache(1, Duration.ofSeconds(5));
+        cache.put(1, "one");
+        for (int i = 0; i < 5; i++) {
+            cache.get(1);
+        }
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        assertTrue(cache.put(2, "two"));
+        assertEquals(1, cache.stats().getExpirationCount());
+    }
+
+    @Test
+    void testWeightBound() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(10, String::length, Duration.ZERO, clock::get);
+
+        assertTrue(cache.put(1, "abcd"));
+        assertTrue(cache.put(2, "efgh"));
+        assertFalse(cache.put(3, "too long value"), "Значення важче за весь кеш не допускається");
+        assertEquals(8, cache.stats().getWeight());
+
+        cache.get(3);
+        cache.get(3);
+        assertTrue(cache.put(3, "ijkl"));
+        assertTrue(cache.stats().getWeight() <= 10);
+        assertEquals(2, cache.stats().getSize());
+    }
+
+    @Test
+    void testInvalidate() {
+        BoundedCache<Integer, String> cache = cache(10, Duration.ZERO);
+        cache.put(1, "one");
+        cache.put(2, "two");
+
+        cache.invalidate(1);
+        assertNull(cache.get(1));
+        assertEquals("two", cache.get(2));
+
+        cache.invalidateAll();
+        assertNull(cache.get(2));
+        assertEquals(0, cache.stats().getWeight());
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> cache(0, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> cache(10, Duration.ofSeconds(-1)));
+    }
+}
@@ -0,0 +1,38 @@
+package proj.Repositories;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CopyRowWriterTest {
+
+    private static String row(Object... values) {
+        StringBuilder buffer = new StringBuilder();
+        CopyRowWriter.appendRow(buffer, values);
+        return buffer.toString();
+    }
+
+    @Test
+    void testNumbersAndBooleans() {
+        assertEquals("1,0.25,10000000,t,f\n", row(1, 0.25, 1.0E7, true, false));
+    }
+
+    @Test
+    void testNullAndEmptyString() {
+        // NULL записується без лапок, порожній рядок — у лапках
+        assertEquals("7,,\"\"\n", row(7, null, ""));
+    }
+
+    @Test
+    void testQuotesAreEscaped() {
+        assertEquals("\"Kyiv, \"\"Center\"\"\"\n", row("Kyiv, \"Center\""));
+    }
+
+    @Test
+    void testTimestamp() {
+        LocalDateTime time = LocalDateTime.of(2024, 5, 1, 10, 30, 15);
+        assertEquals("2024-05-01 10:30:15.0\n", row(time));
+    }
+}
@@ -2,14 +2,19 @@ package proj.Repositories;
 
 import org.junit.jupiter.api.*;
 import proj.Models.Derivative;
+import proj.Models.DerivativeStats;
 import proj.Models.insurance.InsuranceObligation;
 import proj.Models.insurance.HealthInsurance;
 import proj.Models.insurance.LifeInsurance;
 import proj.Models.insurance.PropertyInsurance;
+import proj.Models.Risk;
+import proj.Models.Risk.RiskCategory;
+import proj.Service.DerivativeService;
 
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -93,6 +98,140 @@ class DerivativeRepositoryTest {
         repository.delete(anotherDerivative.getId());
     }
 
+    @Test
+    void testFindAllLoadsObligationsWithConstantQueries() throws SQLException {
+        // Два деривативи зі спільним зобов'язанням
+        Derivative first = new Derivative("Shared Obligation A");
+        first.addObligation(testObligation1);
+        first = repository.save(first);
+        Derivative second = new Derivative("Shared Obligation B");
+        second.addObligation(testObligation1);
+        second.addObligation(testObligation2);
+        second = repository.save(second);
+
+        // Каталог ризиків кешується; прогріваємо його, щоб рахувати лише запити зобов'язань
+        new RiskRepository().getCatalog();
+        try (QueryCounter counter = new QueryCounter()) {
+            List<Derivative> derivatives = new DerivativeRepository().findAll();
+
+            assertTrue(counter.getExecutions() <= 3,
+                    "findAll повинен виконувати сталу кількість запитів незалежно від кількості зобов'язань");
+
+            int firstId = first.getId();
+            int secondId = second.getId();
+            Derivative loadedFirst = derivatives.stream().filter(d -> d.getId() == firstId).findFirst().orElseThrow();
+            Derivative loadedSecond = derivatives.stream().filter(d -> d.getId() == secondId).findFirst().orElseThrow();
+            assertEquals(1, loadedFirst.getObligations().size());
+            assertEquals(2, loadedSecond.getObligations().size());
+
+            InsuranceObligation sharedInSecond = loadedSecond.getObligations().stream()
+                    .filter(o -> o.getId() == testObligation1.getId()).findFirst().orElseThrow();
+            assertSame(loadedFirst.getObligations().get(0), sharedInSecond,
+                    "Спільне зобов'язання повинно бути одним екземпляром");
+        } finally {
+            repository.delete(first.getId());
+            repository.delete(second.getId());
+        }
+    }
+
+    @Test
+    void testSessionSharesObligationsAcrossCalls() throws SQLException {
+        Derivative first = new Derivative("Session Shared A");
+        first.addObligation(testObligation1);
+        first = repository.save(first);
+        Derivative second = new Derivative("Session Shared B");
+        second.addObligation(testObligation1);
+        second.addObligation(testObligation2);
+        second = repository.save(second);
+
+        try {
+            InsuranceObligation shared;
+            try (QueryCounter counter = new QueryCounter()) {
+                DerivativeRepository sessionRepository = new DerivativeRepository(new RepositorySession());
+                Derivative loadedFirst = sessionRepository.findById(first.getId()).orElseThrow();
+                shared = loadedFirst.getObligations().get(0);
+
+                int beforeSecond = counter.getExecutions();
+                Derivative loadedSecond = sessionRepository.findById(second.getId()).orElseThrow();
+                int secondQueries = counter.getExecutions() - beforeSecond;
+
+                InsuranceObligation sharedInSecond = loadedSecond.getObligations().stream()
+                        .filter(o -> o.getId() == testObligation1.getId()).findFirst().orElseThrow();
+                assertSame(shared, sharedInSecond, "У межах сесії зобов'язання повинно бути одним екземпляром");
+
+                int beforeRepeat = counter.getExecutions();
+                sessionRepository.findById(first.getId()).orElseThrow();
+                assertTrue(counter.getExecutions() - beforeRepeat < secondQueries,
+                        "Відомі сесії зобов'язання не повинні завантажуватися повторно");
+            }
+
+            Derivative otherSession = new DerivativeRepository().findById(first.getId()).orElseThrow();
+            assertNotSame(shared, otherSession.getObligations().get(0));
+        } finally {
+            repository.delete(first.getId());
+            repository.delete(second.getId());
+        }
+    }
+
+    @Test
+    void testFindPageWithKeyset() throws SQLException {
+        List<Derivative> created = new java.util.ArrayList<>();
+        for (String name : List.of("Keyset Page C", "Keyset Page A", "Keyset Page B")) {
+            created.add(repository.save(new Derivative(name)));
+        }
+
+        try {
+            DerivativeCriteria criteria = new DerivativeCriteria();
+            criteria.setNameSearch("keyset page");
+            criteria.setSort(DerivativeSort.NAME_ASC);
+
+            assertEquals(3, repository.countByCriteria(criteria), "Повинно знайти 3 деривативи");
+
+            DerivativePage first = repository.findPage(criteria, null, 2);
+            assertEquals(2, first.getDerivatives().size());
+            assertEquals("Keyset Page A", first.getDerivatives().get(0).getName());
+            assertEquals("Keyset Page B", first.getDerivatives().get(1).getName());
+            assertTrue(first.hasNext(), "Після першої сторінки повинна бути наступна");
+            assertEquals(0, first.getStats(first.getDerivatives().get(0)).getObligationCount());
+
+            DerivativePage second = repository.findPage(criteria, first.getNextKey(), 2);
+            assertEquals(1, second.getDerivatives().size());
+            assertEquals("Keyset Page C", second.getDerivatives().get(0).getName());
+            assertFalse(second.hasNext(), "Друга сторінка повинна бути останньою");
+        } finally {
+            for (Derivative derivative : created) {
+                repository.delete(derivative.getId());
+            }
+        }
+    }
+
+    @Test
+    void testFindPageLoadsObligationsOnDemand() throws SQLException {
+        Derivative lazy = new Derivative("Lazy Page Derivative");
+        lazy.addObligation(testObligation1);
+        lazy.addObligation(testObligation2);
+        lazy = repository.save(lazy);
+
+        try {
+            DerivativeCriteria criteria = new DerivativeCriteria();
+            criteria.setNameSearch("lazy page derivative");
+
+            try (QueryCounter counter = new QueryCounter()) {
+                DerivativePage page = repository.findPage(criteria, null, 10);
+                int queriesForPage = counter.getExecutions();
+                Derivative loaded = page.getDerivatives().get(0);
+                assertFalse(loaded.isObligationsLoaded(), "Сторінка не повинна завантажувати зобов'язання");
+                assertEquals(queriesForPage, counter.getExecutions());
+
+                assertEquals(2, loaded.getObligations().size());
+                assertTrue(counter.getExecutions() > queriesForPage, "Зобов'язання повинні завантажитися при зверненні");
+                assertEquals(lazy.getTotalValue(), loaded.getTotalValue(), 0.01);
+            }
+        } finally {
+            repository.delete(lazy.getId());
+        }
+    }
+
     @Test
     void testDelete() throws SQLException {
         // Створення та видалення деривативу
@@ -156,4 +295,235 @@ class DerivativeRepositoryTest {
         repository.delete(saved.getId());
         obligationRepository.delete(found.get().getObligations().get(0).getId());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testUpdateWritesOnlyChangedLinks() throws SQLException {
+        Derivative derivative = new Derivative("Link Diff Test");
+        derivative.addObligation(testObligation1);
+        derivative = repository.save(derivative);
+        assertEquals(Set.of(testObligation1.getId()), derivative.getPersistedObligationIds());
+
+        try {
+            derivative.removeObligation(testObligation1);
+            derivative.addObligation(testObligation2);
+            try (QueryCounter counter = new QueryCounter()) {
+                new DerivativeRepository().save(derivative);
+                // UPDATE назви та один запит зі зміною зв'язків і вартості
+                assertEquals(2, counter.getExecutions(), "Повинна записуватися лише різниця зв'язків");
+            }
+
+            Derivative found = repository.findById(derivative.getId()).orElseThrow();
+            assertEquals(1, found.getObligations().size());
+            assertEquals(testObligation2.getId(), found.getObligations().get(0).getId());
+        } finally {
+            repository.delete(derivative.getId());
+        }
+    }
+
+    @Test
+    void testUpdateWithoutSnapshotReadsCurrentLinks() throws SQLException {
+        Derivative derivative = new Derivative("Link Snapshot Test");
+        derivative.addObligation(testObligation1);
+        derivative = repository.save(derivative);
+
+        try {
+            // Без знімка репозиторій зчитує поточні зв'язки з бази
+            derivative.setPersistedObligationIds(null);
+            derivative.addObligation(testObligation2);
+            repository.save(derivative);
+
+            Derivative found = repository.findById(derivative.getId()).orElseThrow();
+            assertEquals(2, found.getObligations().size());
+        } finally {
+            repository.delete(derivative.getId());
+        }
+    }
+
+    @Test
+    void testAttachAndDetachAdjustTotalValue() throws SQLException {
+        Derivative derivative = repository.save(new Derivative("Attach Test"));
+        double value1 = testObligation1.getCalculatedValue();
+        double value2 = testObligation2.getCalculatedValue();
+
+        try {
+            repository.attachObligation(derivative, testObligation1);
+            double total = repository.attachObligation(derivative, testObligation2);
+            assertEquals(value1 + value2, total, 0.01, "Вартість повинна зрости на вартість зобов'язань");
+            assertEquals(total, derivative.getTotalValue(), 0.001, "Модель повинна отримати вартість з бази");
+
+            // Повторна прив'язка не змінює вартість
+            assertEquals(total, repository.attachObligation(derivative, testObligation2), 0.001);
+
+            total = repository.detachObligation(derivative, testObligation1);
+            assertEquals(value2, total, 0.01, "Вартість повинна зменшитися на вартість зобов'язання");
+
+            Derivative found = repository.findById(derivative.getId()).orElseThrow();
+            assertEquals(1, found.getObligations().size());
+            assertEquals(value2, found.getTotalValue(), 0.01);
+        } finally {
+            repository.delete(derivative.getId());
+        }
+    }
+
+    @Test
+    void testTotalValueFollowsObligationChanges() throws SQLException {
+        InsuranceObligation health = obligationRepository.save(
+                new HealthInsurance(0.4, 1000.0, 12, 40, false, 30000, true, false));
+        Derivative derivative = repository.save(new Derivative("Total Value Sync Derivative"));
+
+        try {
+            repository.attachObligation(derivative, health);
+            repository.attachObligation(derivative, testObligation2);
+            double before = health.getCalculatedValue();
+
+            health.setAmount(3000.0);
+            obligationRepository.save(health);
+            double expected = health.getCalculatedValue() + testObligation2.getCalculatedValue();
+            assertNotEquals(before, health.getCalculatedValue(), 0.001);
+
+            Derivative found = repository.findById(derivative.getId()).orElseThrow();
+            assertEquals(expected, found.getTotalValue(), 0.01,
+                    "Вартість деривативу повинна врахувати нову вартість зобов'язання");
+
+            DerivativeCriteria criteria = new DerivativeCriteria();
+            criteria.setNameSearch("total value sync");
+            DerivativePage page = repository.findPage(criteria, null, 10);
+            assertEquals(1, page.getDerivatives().size());
+            assertEquals(expected, page.getDerivatives().get(0).getTotalValue(), 0.01);
+
+            obligationRepository.delete(health.getId());
+            found = repository.findById(derivative.getId()).orElseThrow();
+            assertEquals(testObligation2.getCalculatedValue(), found.getTotalValue(), 0.01,
+                    "Видалене зобов'язання не повинно входити до вартості деривативу");
+        } finally {
+            repository.delete(derivative.getId());
+            obligationRepository.delete(health.getId());
+        }
+    }
+
+    @Test
+    void testAttachAndDetachKeepObligationsLazy() throws SQLException {
+        Derivative derivative = new Derivative("Lazy Attach Derivative");
+        derivative.addObligation(testObligation1);
+        derivative = repository.save(derivative);
+
+        try {
+            DerivativeCriteria criteria = new DerivativeCriteria();
+            criteria.setNameSearch("lazy attach derivative");
+            Derivative lazy = repository.findPage(criteria, null, 10).getDerivatives().get(0);
+
+            double total = repository.attachObligation(lazy, testObligation2);
+            assertFalse(lazy.isObligationsLoaded(), "Прив'язка не повинна завантажувати зобов'язання");
+            assertEquals(total, lazy.getTotalValue(), 0.001);
+
+            total = repository.detachObligation(lazy, testObligation1);
+            assertFalse(lazy.isObligationsLoaded(), "Відв'язка не повинна завантажувати зобов'язання");
+            assertEquals(testObligation2.getCalculatedValue(), total, 0.01);
+            assertEquals(total, lazy.getTotalValue(), 0.001, "Вартість не повинна перераховуватися в пам'яті");
+
+            assertEquals(List.of(testObligation2.getId()),
+                    lazy.getObligations().stream().map(InsuranceObligation::getId).toList());
+        } finally {
+            repository.delete(derivative.getId());
+        }
+    }
+
+    @Test
+    void testConcurrentAttachesAreNotLost() throws SQLException {
+        Derivative derivative = repository.save(new Derivative("Concurrent Attach Test"));
+
+        try {
+            // Дві копії одного деривативу, як у двох вікнах
+            Derivative firstDesk = repository.findById(derivative.getId()).orElseThrow();
+            Derivative secondDesk = repository.findById(derivative.getId()).orElseThrow();
+            repository.attachObligation(firstDesk, testObligation1);
+            repository.attachObligation(secondDesk, testObligation2);
+
+            Derivative found = repository.findById(derivative.getId()).orElseThrow();
+            assertEquals(2, found.getObligations().size());
+            assertEquals(testObligation1.getCalculatedValue() + testObligation2.getCalculatedValue(),
+                    found.getTotalValue(), 0.01, "Жодне оновлення вартості не повинно загубитися");
+        } finally {
+            repository.delete(derivative.getId());
+        }
+    }
+
+    @Test
+    void testSearchByName() throws SQLException {
+        Derivative exact = repository.save(new Derivative("Trigram Portfolio"));
+        Derivative partial = repository.save(new Derivative("Trigram Portfolio Extended Edition"));
+
+        try {
+            List<Derivative> found = repository.searchByName("trigram portfolio", 10);
+            assertTrue(found.size() >= 2, "Пошук підрядка повинен не враховувати регістр");
+            assertEquals(exact.getId(), found.get(0).getId(), "Найсхожіша назва повинна бути першою");
+            assertEquals(1, repository.searchByName("trigram portfolio", 1).size(), "Повинно діяти обмеження");
+        } finally {
+            repository.delete(exact.getId());
+            repository.delete(partial.getId());
+        }
+    }
+
+    @Test
+    void testAggregatesMatchInMemoryCalculation() throws SQLException {
+        InsuranceObligation property = new PropertyInsurance(0.4, 1500.0, 6,
+                "Kyiv", 200000.0, false, "APARTMENT", true);
+        property.addRisk(new Risk("FIRE01", "Fire", "Fire risk", 0.15, RiskCategory.PROPERTY));
+        property.addRisk(new Risk("THFT01", "Theft", "Theft risk", 0.1, RiskCategory.PROPERTY));
+        Derivative derivative = new Derivative("Aggregates Test");
+        derivative.addObligation(testObligation1);
+        derivative.addObligation(testObligation2);
+        derivative.addObligation(property);
+        derivative = repository.save(derivative);
+
+        try {
+            Derivative loaded = repository.findById(derivative.getId()).orElseThrow();
+            DerivativeService service = DerivativeService.getInstance();
+
+            assertEquals(3, repository.countObligations(derivative.getId()));
+            assertEquals(service.countRisksByCategory(loaded), repository.countRisksByCategory(derivative.getId()));
+            assertEquals(service.calculateAverageRisk(loaded), repository.calculateAverageRisk(derivative.getId()),
+                    0.0001);
+            assertEquals(service.countObligationsByType(loaded),
+                    repository.countObligationsByType(derivative.getId()));
+        } finally {
+            repository.delete(derivative.getId());
+            obligationRepository.delete(property.getId());
+        }
+    }
+
+    @Test
+    void testStatsFollowObligationChanges() throws SQLException {
+        InsuranceObligation property = new PropertyInsurance(0.4, 1500.0, 6,
+                "Kyiv", 200000.0, false, "APARTMENT", true);
+        property.addRisk(new Risk("FIRE01", "Fire", "Fire risk", 0.15, RiskCategory.PROPERTY));
+        Derivative derivative = new Derivative("Stats Test");
+        derivative.addObligation(testObligation1);
+        derivative.addObligation(property);
+        derivative = repository.save(derivative);
+        DerivativeService service = DerivativeService.getInstance();
+
+        try {
+            DerivativeStats stats = repository.findStats(derivative.getId()).orElseThrow();
+            assertEquals(2, stats.getObligationCount());
+            assertEquals(derivative.getTotalValue(), stats.getCalculatedValueSum(), 0.01);
+            assertEquals(service.calculateAverageRisk(derivative), stats.getAverageRiskLevel(), 0.0001);
+            assertEquals(1, stats.getRiskCount(RiskCategory.PROPERTY));
+
+            repository.attachObligation(derivative, testObligation2);
+            stats = repository.findStats(derivative.getId()).orElseThrow();
+            assertEquals(3, stats.getObligationCount());
+            assertEquals(derivative.getTotalValue(), stats.getCalculatedValueSum(), 0.01);
+
+            repository.detachObligation(derivative, testObligation1);
+            obligationRepository.delete(property.getId());
+            stats = repository.findStats(List.of(derivative.getId())).get(derivative.getId());
+            assertEquals(1, stats.getObligationCount(), "Видалене зобов'язання не повинно враховуватися");
+            assertEquals(testObligation2.getCalculatedValue(), stats.getCalculatedValueSum(), 0.01);
+            assertEquals(0, stats.getRiskCount(RiskCategory.PROPERTY));
+        } finally {
+            repository.delete(derivative.getId());
+            obligationRepository.delete(property.getId());
+        }
+    }
+}
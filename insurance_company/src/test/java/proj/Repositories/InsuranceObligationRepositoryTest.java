@@ -5,10 +5,18 @@ import proj.Models.insurance.*;
 import proj.Models.Risk;
 import proj.Models.Risk.RiskCategory;
 import proj.Models.Derivative;
+import proj.Models.ObligationRow;
 
 import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -133,6 +141,28 @@ class InsuranceObligationRepositoryTest {
         assertTrue(obligations.size() >= 2, "Повинно бути щонайменше 2 зобов'язання");
     }
 
+    @Test
+    void testHydrationDoesNotGeneratePolicyNumbers() throws SQLException {
+        repository.save(testLifeInsurance);
+        repository.save(testPropertyInsurance);
+
+        PolicyNumberGenerator original = InsuranceObligation.getPolicyNumberGenerator();
+        AtomicInteger generated = new AtomicInteger();
+        InsuranceObligation.setPolicyNumberGenerator(() -> {
+            generated.incrementAndGet();
+            return original.nextPolicyNumber();
+        });
+        try {
+            List<InsuranceObligation> obligations = repository.findAll();
+            assertTrue(obligations.size() >= 2);
+            assertEquals(testLifeInsurance.getPolicyNumber(),
+                    repository.findById(testLifeInsurance.getId()).orElseThrow().getPolicyNumber());
+            assertEquals(0, generated.get(), "Читання не повинно витрачати номери полісів");
+        } finally {
+            InsuranceObligation.setPolicyNumberGenerator(original);
+        }
+    }
+
     @Test
     void testDelete() throws SQLException {
         // Видалення зобов'язання
@@ -160,6 +190,324 @@ class InsuranceObligationRepositoryTest {
         );
     }
 
+    @Test
+    void testFindAllHydratesInSingleQuery() throws SQLException {
+        // Зберігаємо по одному зобов'язанню кожного типу
+        repository.save(testLifeInsurance);
+        repository.save(testHealthInsurance);
+        repository.save(testPropertyInsurance);
+
+        // Каталог ризиків кешується; прогріваємо його, щоб рахувати лише запити зобов'язань
+        new RiskRepository().getCatalog();
+        try (QueryCounter counter = new QueryCounter()) {
+            List<InsuranceObligation> obligations = new InsuranceObligationRepository().findAll();
+
+            assertEquals(1, counter.getExecutions(), "findAll повинен виконувати рівно один запит");
+            assertEquals(1, counter.getConnections(), "findAll повинен брати одне з'єднання з пулу");
+
+            InsuranceObligation life = obligations.stream()
+                    .filter(o -> o.getId() == testLifeInsurance.getId()).findFirst().orElseThrow();
+            assertTrue(life instanceof LifeInsurance, "Тип повинен бути LifeInsurance");
+            assertEquals("John Doe", ((LifeInsurance) life).getBeneficiary(), "Beneficiary повинен співпадати");
+            assertTrue(life.coversRisk("DEATH01"), "Ризики повинні бути завантажені");
+
+            InsuranceObligation health = obligations.stream()
+                    .filter(o -> o.getId() == testHealthInsurance.getId()).findFirst().orElseThrow();
+            assertEquals(35, ((HealthInsurance) health).getAge(), "Age повинен співпадати");
+            assertEquals(3, health.getCoveredRisks().size(), "Повинно містити 3 ризики");
+
+            InsuranceObligation property = obligations.stream()
+                    .filter(o -> o.getId() == testPropertyInsurance.getId()).findFirst().orElseThrow();
+            assertEquals("Kyiv", ((PropertyInsurance) property).getPropertyLocation(), "Location повинен співпадати");
+        }
+    }
+
+    @Test
+    void testFindByStatusHydratesInSingleQuery() throws SQLException {
+        testPropertyInsurance.setStatus(InsuranceObligation.ObligationStatus.ACTIVE);
+        repository.save(testPropertyInsurance);
+
+        // Каталог ризиків кешується; прогріваємо його, щоб рахувати лише запити зобов'язань
+        new RiskRepository().getCatalog();
+        try (QueryCounter counter = new QueryCounter()) {
+            List<InsuranceObligation> active = new InsuranceObligationRepository()
+                    .findByStatus(InsuranceObligation.ObligationStatus.ACTIVE);
+
+            assertEquals(1, counter.getExecutions(), "findByStatus повинен виконувати рівно один запит");
+            InsuranceObligation found = active.stream()
+                    .filter(o -> o.getId() == testPropertyInsurance.getId()).findFirst().orElseThrow();
+            assertTrue(((PropertyInsurance) found).includesNaturalDisasters(), "Дані підтипу повинні бути завантажені");
+            assertTrue(found.coversRisk("NATD01"), "Ризики повинні бути завантажені");
+        }
+    }
+
+    @Test
+    void testStreamByCriteria() throws SQLException {
+        testLifeInsurance.setStatus(InsuranceObligation.ObligationStatus.PENDING);
+        repository.save(testLifeInsurance);
+        repository.save(testHealthInsurance);
+
+        ObligationCriteria criteria = new ObligationCriteria();
+        criteria.setStatus(InsuranceObligation.ObligationStatus.PENDING);
+        criteria.setType("LIFE");
+        criteria.setFetchSize(1);
+
+        List<InsuranceObligation> streamed = new ArrayList<>();
+        long processed = repository.stream(criteria, streamed::add);
+
+        assertEquals(streamed.size(), processed, "Кількість оброблених записів повинна співпадати");
+        assertTrue(streamed.stream().anyMatch(o -> o.getId() == testLifeInsurance.getId()),
+                "Потік повинен містити збережене зобов'язання");
+        assertTrue(streamed.stream().noneMatch(o -> o.getId() == testHealthInsurance.getId()),
+                "Потік не повинен містити зобов'язання іншого типу");
+        InsuranceObligation life = streamed.stream()
+                .filter(o -> o.getId() == testLifeInsurance.getId()).findFirst().orElseThrow();
+        assertEquals("John Doe", ((LifeInsurance) life).getBeneficiary(), "Дані підтипу повинні бути завантажені");
+    }
+
+    @Test
+    void testStreamCancellation() throws SQLException {
+        repository.save(testLifeInsurance);
+        repository.save(testHealthInsurance);
+        repository.save(testPropertyInsurance);
+
+        ObligationCriteria criteria = new ObligationCriteria();
+        criteria.setFetchSize(1);
+        List<InsuranceObligation> streamed = new ArrayList<>();
+
+        long processed = repository.stream(criteria, streamed::add, () -> streamed.size() >= 2);
+
+        assertEquals(2, processed, "Обхід повинен зупинитися після скасування");
+        assertEquals(2, streamed.size());
+    }
+
+    @Test
+    void testFindByCriteria() throws SQLException {
+        Derivative derivative = new Derivative("Criteria Test");
+        derivative.addObligation(testLifeInsurance);
+        derivative.addObligation(testHealthInsurance);
+        derivative.addObligation(testPropertyInsurance);
+        derivative = derivativeRepository.save(derivative);
+
+        try {
+            ObligationCriteria criteria = new ObligationCriteria();
+            criteria.setDerivativeId(derivative.getId());
+            criteria.setSort(ObligationSort.CALCULATED_VALUE_DESC);
+            List<InsuranceObligation> sorted = repository.findByCriteria(criteria);
+            assertEquals(3, sorted.size(), "Повинні бути знайдені лише зобов'язання деривативу");
+            assertTrue(sorted.get(0).getCalculatedValue() >= sorted.get(1).getCalculatedValue());
+            assertTrue(sorted.get(1).getCalculatedValue() >= sorted.get(2).getCalculatedValue());
+
+            criteria.setLimit(1);
+            assertEquals(1, repository.findByCriteria(criteria).size(), "Повинно діяти обмеження кількості");
+
+            criteria.setLimit(null);
+            criteria.setSearchText("life");
+            List<InsuranceObligation> found = repository.findByCriteria(criteria);
+            assertEquals(1, found.size(), "Пошук повинен не враховувати регістр");
+            assertEquals(testLifeInsurance.getId(), found.get(0).getId());
+
+            criteria.setSearchText(null);
+            criteria.setMinCalculatedValue(testHealthInsurance.getCalculatedValue());
+            criteria.setMaxCalculatedValue(testHealthInsurance.getCalculatedValue());
+            found = repository.findByCriteria(criteria);
+            assertTrue(found.stream().anyMatch(o -> o.getId() == testHealthInsurance.getId()),
+                    "Діапазон вартості повинен включати межі");
+        } finally {
+            derivativeRepository.delete(derivative.getId());
+        }
+    }
+
+    @Test
+    void testFindRowsByCriteria() throws SQLException {
+        Derivative derivative = new Derivative("Rows Test");
+        derivative.addObligation(testLifeInsurance);
+        derivative.addObligation(testHealthInsurance);
+        derivative = derivativeRepository.save(derivative);
+
+        try {
+            ObligationCriteria criteria = new ObligationCriteria();
+            criteria.setDerivativeId(derivative.getId());
+            criteria.setSort(ObligationSort.CALCULATED_VALUE_DESC);
+
+            List<InsuranceObligation> full = repository.findByCriteria(criteria);
+            List<ObligationRow> rows = repository.findRowsByCriteria(criteria);
+            assertEquals(full.size(), rows.size(), "Рядки повинні відповідати тим самим критеріям");
+            for (int i = 0; i < rows.size(); i++) {
+                assertEquals(full.get(i).getId(), rows.get(i).getId(), "Порядок рядків повинен збігатися");
+                assertEquals(full.get(i).getPolicyNumber(), rows.get(i).getPolicyNumber());
+                assertEquals(full.get(i).getType(), rows.get(i).getType());
+                assertEquals(full.get(i).getCalculatedValue(), rows.get(i).getCalculatedValue(), 0.01);
+                assertEquals(full.get(i).getStatus(), rows.get(i).getStatus());
+            }
+        } finally {
+            derivativeRepository.delete(derivative.getId());
+        }
+    }
+
+    @Test
+    void testSearchNotes() throws SQLException {
+        testLifeInsurance.setNotes("Клієнт просив перевірити бенефіціара повторно");
+        testHealthInsurance.setNotes("Потрібна перевірка медичних документів");
+        repository.save(testLifeInsurance);
+        repository.save(testHealthInsurance);
+
+        List<InsuranceObligation> found = repository.searchNotes("бенефіціара повторно", 10);
+        assertTrue(found.stream().anyMatch(o -> o.getId() == testLifeInsurance.getId()),
+                "Повинно знайтися зобов'язання з усіма словами запиту");
+        assertTrue(found.stream().noneMatch(o -> o.getId() == testHealthInsurance.getId()),
+                "Зобов'язання без слів запиту не повинно знайтися");
+    }
+
+    @Test
+    void testSaveUsesSingleConnection() throws SQLException {
+        try (QueryCounter counter = new QueryCounter()) {
+            new InsuranceObligationRepository().save(testHealthInsurance);
+
+            assertEquals(1, counter.getConnections(), "Збереження повинно виконуватися через одне з'єднання");
+        }
+        assertTrue(testHealthInsurance.getId() > 0, "ID повинен бути більше 0 після збереження");
+    }
+
+    @Test
+    void testSecondLevelCache() throws SQLException {
+        new RiskRepository().getCatalog();
+        repository.save(testLifeInsurance);
+        InsuranceObligationRepository.setCache(new BoundedCache<>(100, obligation -> 1, Duration.ofMinutes(5)));
+        try (QueryCounter counter = new QueryCounter()) {
+            InsuranceObligationRepository cached = new InsuranceObligationRepository();
+            int id = testLifeInsurance.getId();
+            InsuranceObligation first = cached.findById(id).orElseThrow();
+            InsuranceObligation second = cached.findById(id, true).orElseThrow();
+
+            assertEquals(1, counter.getExecutions(), "Повторне читання не повинно звертатися до бази");
+            assertNotSame(first, second, "Кожен виклик повинен отримувати власну копію");
+            assertEquals(first.getAmount(), second.getAmount(), 0.01);
+            assertEquals(first.getCoveredRisks(), second.getCoveredRisks());
+
+            first.setNotes("Незбережена примітка");
+            assertNotEquals("Незбережена примітка", cached.findById(id).orElseThrow().getNotes(),
+                    "Незбережені зміни не повинні потрапляти до кешу");
+            assertEquals(1, cached.findAllByIds(List.of(id), true).size());
+            assertEquals(1, counter.getExecutions(), "Пакетне читання повинно брати зобов'язання з кешу");
+
+            first.setAmount(60000.0);
+            cached.save(first);
+            counter.reset();
+            InsuranceObligation reloaded = cached.findById(id, true).orElseThrow();
+            assertEquals(1, counter.getExecutions(), "Збереження повинно вилучати зобов'язання з кешу");
+            assertEquals(60000.0, reloaded.getAmount(), 0.01);
+
+            cached.findById(id);
+            assertEquals(2, counter.getExecutions(),
+                    "Зобов'язання, прочитане разом з архівними, не повинно обслуговувати пошук активних");
+
+            CacheStats stats = InsuranceObligationRepository.getCacheStats();
+            assertEquals(4, stats.getHitCount());
+            assertEquals(2, stats.getMissCount());
+        } finally {
+            InsuranceObligationRepository.setCache(null);
+        }
+    }
+
+    @Test
+    void testAsyncOperations() {
+        repository.saveAsync(testLifeInsurance).join();
+        repository.saveAsync(testHealthInsurance).join();
+
+        CompletableFuture<Optional<InsuranceObligation>> life = repository.findByIdAsync(testLifeInsurance.getId(), false);
+        CompletableFuture<Optional<InsuranceObligation>> health = repository.findByIdAsync(testHealthInsurance.getId(), false);
+        assertInstanceOf(LifeInsurance.class, life.join().orElseThrow());
+        assertInstanceOf(HealthInsurance.class, health.join().orElseThrow());
+
+        testPropertyInsurance.addRisk(new Risk("MISSING", "Missing", "Missing risk", 0.1, RiskCategory.PROPERTY));
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> repository.saveAsync(testPropertyInsurance).join());
+        assertInstanceOf(SQLException.class, e.getCause());
+    }
+
+    @Test
+    void testUpdateWritesOnlyChangedColumns() throws SQLException {
+        new RiskRepository().getCatalog();
+        repository.save(testPropertyInsurance);
+        LocalDateTime createdAt = repository.findById(testPropertyInsurance.getId()).orElseThrow().getCreatedAt();
+
+        try (QueryCounter counter = new QueryCounter()) {
+            InsuranceObligationRepository counted = new InsuranceObligationRepository();
+            PropertyInsurance loaded = (PropertyInsurance) counted.findById(testPropertyInsurance.getId()).orElseThrow();
+            counter.reset();
+
+            counted.save(loaded);
+            assertEquals(0, counter.getExecutions(), "Незмінене зобов'язання не повинно записуватися");
+
+            loaded.setUpdatedAt(loaded.getUpdatedAt().minusDays(1));
+            loaded.markClean();
+            loaded.setNotes("Лише примітка");
+            assertEquals(Set.of("notes"), loaded.getDirtyFields());
+            counted.save(loaded);
+            assertEquals(1, counter.getExecutions(), "Ризики та дані підтипу не повинні перезаписуватися");
+            LocalDateTime notesUpdatedAt = counted.findById(testPropertyInsurance.getId(), true)
+                    .orElseThrow().getUpdatedAt();
+            assertTrue(notesUpdatedAt.isAfter(LocalDateTime.now().minusHours(1)),
+                    "Зміна приміток повинна записувати нову дату оновлення");
+
+            counter.reset();
+            loaded.setPropertyLocation("Lviv");
+            counted.save(loaded);
+            assertEquals(2, counter.getExecutions(), "Повинні оновлюватися базовий рядок і рядок підтипу");
+        }
+
+        PropertyInsurance reloaded = (PropertyInsurance) repository.findById(testPropertyInsurance.getId()).orElseThrow();
+        assertEquals("Лише примітка", reloaded.getNotes());
+        assertEquals("Lviv", reloaded.getPropertyLocation());
+        assertEquals(3, reloaded.getCoveredRisks().size(), "Ризики повинні залишитися без змін");
+        assertEquals(createdAt, reloaded.getCreatedAt());
+        assertFalse(reloaded.isDirty(), "Завантажене зобов'язання не повинно мати змін");
+    }
+
+    @Test
+    void testSaveAll() throws SQLException {
+        testPropertyInsurance.setNotes("Примітка з \"лапками\", комою");
+        testPropertyInsurance.addRisk(new Risk("FIRE01", "Fire", "Fire risk", 0.15, RiskCategory.PROPERTY));
+        List<InsuranceObligation> batch = List.of(testLifeInsurance, testHealthInsurance, testPropertyInsurance);
+
+        try (QueryCounter counter = new QueryCounter()) {
+            assertEquals(3, new InsuranceObligationRepository().saveAll(batch));
+            assertEquals(1, counter.getConnections(), "Масове збереження повинно використовувати одне з'єднання");
+        }
+
+        for (InsuranceObligation obligation : batch) {
+            assertTrue(obligation.getId() > 0, "ID повинен бути виділений для кожного зобов'язання");
+        }
+        InsuranceObligation property = repository.findById(testPropertyInsurance.getId()).orElseThrow();
+        assertEquals("Примітка з \"лапками\", комою", property.getNotes());
+        assertEquals("Kyiv", ((PropertyInsurance) property).getPropertyLocation());
+        assertEquals(testPropertyInsurance.getCoveredRisks().size(), property.getCoveredRisks().size(),
+                "Ризики повинні бути збережені");
+        assertEquals("John Doe",
+                ((LifeInsurance) repository.findById(testLifeInsurance.getId()).orElseThrow()).getBeneficiary());
+    }
+
+    @Test
+    void testSaveAllRejectsSavedObligations() throws SQLException {
+        repository.save(testLifeInsurance);
+
+        assertThrows(IllegalArgumentException.class, () -> repository.saveAll(List.of(testLifeInsurance)));
+    }
+
+    @Test
+    void testFailedSaveRollsBack() throws SQLException {
+        // Ризик, якого немає в таблиці risks, порушує зовнішній ключ obligation_risks
+        testPropertyInsurance.addRisk(new Risk("MISSING", "Missing", "Missing risk", 0.1, RiskCategory.PROPERTY));
+        String policyNumber = testPropertyInsurance.getPolicyNumber();
+
+        assertThrows(SQLException.class, () -> repository.save(testPropertyInsurance));
+
+        assertEquals(0, testPropertyInsurance.getId(), "ID нового зобов'язання повинен бути скинутий");
+        assertTrue(repository.findAll().stream().noneMatch(o -> policyNumber.equals(o.getPolicyNumber())),
+                "Після відкату не повинно лишитися частково збереженого зобов'язання");
+    }
+
     @Test
     void testSaveWithRisks() throws SQLException {
         // Тест збереження з ризиками
@@ -276,4 +624,64 @@ class InsuranceObligationRepositoryTest {
         // Прибираємо тестові дані
         repository.delete(found.getId());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindByStartDateRangeAcrossPartitions() throws SQLException {
+        LocalDateTime lastYear = LocalDateTime.now().minusYears(1).withDayOfYear(1).plusDays(10);
+        testPropertyInsurance.setStartDate(lastYear);
+        testPropertyInsurance.addRisk(new Risk("FIRE01", "Fire", "Fire risk", 0.15, RiskCategory.PROPERTY));
+        PropertyInsurance saved = (PropertyInsurance) repository.save(testPropertyInsurance);
+
+        try {
+            List<InsuranceObligation> found = repository.findByStartDateRange(
+                    lastYear.minusDays(1), lastYear.plusDays(1));
+            assertTrue(found.stream().anyMatch(o -> o.getId() == saved.getId()),
+                    "Зобов'язання повинно бути знайдене в діапазоні дат");
+
+            // Зміна дати початку переносить рядок в іншу секцію, дочірні дані зберігаються
+            saved.setStartDate(LocalDateTime.now());
+            repository.save(saved);
+
+            InsuranceObligation moved = repository.findById(saved.getId()).orElseThrow();
+            assertEquals(1, moved.getCoveredRisks().size(), "Ризики повинні зберегтися після перенесення");
+            assertEquals("Kyiv", ((PropertyInsurance) moved).getPropertyLocation());
+            assertTrue(repository.findByStartDateRange(lastYear.minusDays(1), lastYear.plusDays(1)).stream()
+                    .noneMatch(o -> o.getId() == saved.getId()), "Старий діапазон не повинен містити зобов'язання");
+        } finally {
+            repository.delete(saved.getId());
+        }
+    }
+
+    @Test
+    void testArchiveKeepsDerivativeValue() throws SQLException {
+        Derivative derivative = derivativeRepository.save(new Derivative("Archive Test"));
+        testPropertyInsurance.setStartDate(LocalDateTime.now().minusYears(3));
+        testPropertyInsurance.setStatus(InsuranceObligation.ObligationStatus.EXPIRED);
+        testPropertyInsurance.addRisk(new Risk("FIRE01", "Fire", "Fire risk", 0.15, RiskCategory.PROPERTY));
+        InsuranceObligation saved = repository.save(testPropertyInsurance, derivative);
+        double totalValue = derivativeRepository.findById(derivative.getId()).orElseThrow().getTotalValue();
+
+        try {
+            assertTrue(repository.archiveBatch(saved.getEndDate().plusSeconds(1), 1000) >= 1);
+
+            assertTrue(repository.findById(saved.getId()).isEmpty(), "Архівне зобов'язання не повинно бути активним");
+            InsuranceObligation archived = repository.findById(saved.getId(), true).orElseThrow();
+            assertEquals(1, archived.getCoveredRisks().size(), "Ризики повинні перейти до архіву");
+            assertEquals("Kyiv", ((PropertyInsurance) archived).getPropertyLocation());
+            assertTrue(repository.findAll(true).stream().anyMatch(o -> o.getId() == saved.getId()));
+            assertTrue(repository.findAll().stream().noneMatch(o -> o.getId() == saved.getId()));
+
+            Derivative reloaded = derivativeRepository.findById(derivative.getId()).orElseThrow();
+            assertEquals(1, reloaded.getObligations().size(), "Дериватив повинен бачити архівне зобов'язання");
+            assertEquals(totalValue, reloaded.getTotalValue(), 0.01, "Вартість деривативу не повинна змінитися");
+            assertEquals(1, derivativeRepository.findStats(derivative.getId()).orElseThrow().getObligationCount());
+
+            assertTrue(repository.delete(saved.getId()), "Архівне зобов'язання повинно видалятися");
+            assertTrue(repository.findById(saved.getId(), true).isEmpty());
+            assertEquals(0, derivativeRepository.findStats(derivative.getId()).orElseThrow().getObligationCount());
+        } finally {
+            derivativeRepository.delete(derivative.getId());
+            repository.delete(saved.getId());
+        }
+    }
+}
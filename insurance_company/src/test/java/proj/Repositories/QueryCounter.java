@@ -0,0 +1,107 @@
+package proj.Repositories;
+
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import proj.Database.DatabaseManager;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Допоміжний клас для тестів: підміняє {@link DatabaseManager#getInstance()} так,
+ * що кожне з'єднання (для запису та для читання) та виконаний запит підраховуються.
+ * Репозиторії, створені всередині блоку try-with-resources, працюють через
+ * лічильник; після закриття поведінка відновлюється.
+ */
+class QueryCounter implements AutoCloseable {
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger executions = new AtomicInteger();
+    private final MockedStatic<DatabaseManager> mocked;
+
+    QueryCounter() throws SQLException {
+        DatabaseManager real = DatabaseManager.getInstance();
+        DatabaseManager spy = Mockito.spy(real);
+        Mockito.doAnswer(invocation -> {
+            connections.incrementAndGet();
+            return countingConnection(real.getConnection());
+        }).when(spy).getConnection();
+        Mockito.doAnswer(invocation -> {
+            connections.incrementAndGet();
+            return countingConnection(real.getReadConnection());
+        }).when(spy).getReadConnection();
+
+        mocked = Mockito.mockStatic(DatabaseManager.class);
+        mocked.when(DatabaseManager::getInstance).thenReturn(spy);
+    }
+
+    /**
+     * @return кількість з'єднань, взятих з пулу
+     */
+    int getConnections() {
+        return connections.get();
+    }
+
+    /**
+     * @return кількість виконань запитів (execute, executeQuery, executeUpdate,
+     *         executeBatch)
+     */
+    int getExecutions() {
+        return executions.get();
+    }
+
+    /**
+     * Скидає лічильники, наприклад після підготовки тестових даних.
+     */
+    void reset() {
+        connections.set(0);
+        executions.set(0);
+    }
+
+    @Override
+    public void close() {
+        mocked.close();
+    }
+
+    private Connection countingConnection(Connection target) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    if (result instanceof Statement) {
+                        return countingStatement((Statement) result);
+                    }
+                    return result;
+                });
+    }
+
+    private Statement countingStatement(Statement target) {
+        Class<?> type = target instanceof CallableStatement ? CallableStatement.class
+                : target instanceof PreparedStatement ? PreparedStatement.class
+                        : Statement.class;
+        return (Statement) Proxy.newProxyInstance(
+                Statement.class.getClassLoader(),
+                new Class<?>[] { type },
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("execute")) {
+                        executions.incrementAndGet();
+                    }
+                    return invoke(target, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
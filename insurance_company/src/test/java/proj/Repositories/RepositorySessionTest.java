@@ -0,0 +1,69 @@
+package proj.Repositories;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import proj.Models.Risk;
+import proj.Models.Risk.RiskCategory;
+import proj.Models.insurance.InsuranceObligation;
+import proj.Models.insurance.LifeInsurance;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepositorySessionTest {
+    private RepositorySession session;
+
+    @BeforeEach
+    void setUp() {
+        session = new RepositorySession();
+    }
+
+    private static InsuranceObligation obligation(int id) {
+        InsuranceObligation obligation = new LifeInsurance(0.5, 100000.0, 12, "John Doe", true, false);
+        obligation.setId(id);
+        return obligation;
+    }
+
+    @Test
+    void testObligationIsMaterializedOnce() {
+        InsuranceObligation first = obligation(1);
+        InsuranceObligation duplicate = obligation(1);
+
+        assertSame(first, session.registerObligation(first));
+        assertSame(first, session.registerObligation(duplicate), "Повинен повертатися перший екземпляр");
+        assertSame(first, session.getObligation(1));
+        assertEquals(1, session.getObligationCount());
+    }
+
+    @Test
+    void testUnsavedObligationIsNotRegistered() {
+        InsuranceObligation unsaved = obligation(0);
+
+        assertSame(unsaved, session.registerObligation(unsaved));
+        assertEquals(0, session.getObligationCount());
+    }
+
+    @Test
+    void testRiskIsMaterializedOnce() {
+        Risk first = new Risk("FIRE01", "Fire", "Fire risk", 0.15, RiskCategory.PROPERTY);
+        Risk duplicate = new Risk("FIRE01", "Fire", "Fire risk", 0.15, RiskCategory.PROPERTY);
+
+        assertSame(first, session.registerRisk(first));
+        assertSame(first, session.registerRisk(duplicate));
+        assertSame(first, session.getRisk("FIRE01"));
+    }
+
+    @Test
+    void testEvictAndClear() {
+        session.registerObligation(obligation(1));
+        session.registerObligation(obligation(2));
+        session.registerRisk(new Risk("FIRE01", "Fire", "Fire risk", 0.15, RiskCategory.PROPERTY));
+
+        session.evictObligation(1);
+        assertNull(session.getObligation(1));
+        assertNotNull(session.getObligation(2));
+
+        session.clear();
+        assertEquals(0, session.getObligationCount());
+        assertEquals(0, session.getRiskCount());
+    }
+}
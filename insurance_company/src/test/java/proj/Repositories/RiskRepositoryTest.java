@@ -154,6 +154,37 @@ class RiskRepositoryTest {
         assertDoesNotThrow(() -> repository.findByObligationId(1));
     }
 
+    @Test
+    void testCatalogIsCachedAndInvalidatedOnSave() throws SQLException {
+        repository.getCatalog();
+
+        try (QueryCounter counter = new QueryCounter()) {
+            RiskRepository cachedRepository = new RiskRepository();
+            Risk first = cachedRepository.findByCode("FIRE01").orElseThrow();
+            Risk second = cachedRepository.findByCode("FIRE01").orElseThrow();
+            cachedRepository.findByCategory(RiskCategory.PROPERTY);
+
+            assertEquals(0, counter.getExecutions(), "Каталог повинен читатися з кешу");
+            assertSame(first, second, "Кожен код повинен бути одним екземпляром");
+
+            cachedRepository.save(testRisk);
+            int afterSave = counter.getExecutions();
+            assertTrue(cachedRepository.findByCode(testRisk.getCode()).isPresent(),
+                    "Після збереження каталог повинен бути перечитаний");
+            assertEquals(afterSave + 1, counter.getExecutions());
+        }
+    }
+
+    @Test
+    void testInvalidateCatalog() throws SQLException {
+        Risk before = repository.findByCode("FIRE01").orElseThrow();
+        RiskRepository.invalidateCatalog();
+        Risk after = repository.findByCode("FIRE01").orElseThrow();
+
+        assertNotSame(before, after, "Після скидання кешу каталог повинен бути перечитаний");
+        assertEquals(before, after);
+    }
+
     @Test
     void testSaveWithNullCode() {
         // Перевірка обробки null коду
@@ -162,4 +193,14 @@ class RiskRepositoryTest {
             repository.save(nullCodeRisk);
         }, "Повинен кидати виняток при спробі створити ризик з null кодом");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSearchByNameRanksByRelevance() throws SQLException {
+        repository.save(testRisk);
+
+        List<Risk> found = repository.searchByName("test risk", 10);
+        assertFalse(found.isEmpty(), "Пошук повинен не враховувати регістр");
+        assertEquals(testRisk.getCode(), found.get(0).getCode(), "Точний збіг повинен бути першим");
+        assertTrue(repository.searchByName("%", 10).isEmpty(), "Символи шаблону повинні екрануватися");
+    }
+}
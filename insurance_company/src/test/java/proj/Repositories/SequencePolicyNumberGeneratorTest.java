@@ -0,0 +1,63 @@
+package proj.Repositories;
+
+import org.junit.jupiter.api.Test;
+import proj.Database.DatabaseManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class SequencePolicyNumberGeneratorTest {
+
+    /** Імітує policy_number_seq з кроком BLOCK_SIZE. */
+    private static DatabaseManager sequenceDatabase(AtomicLong nextvalCalls) throws SQLException {
+        DatabaseManager dbManager = mock(DatabaseManager.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(dbManager.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenAnswer(invocation -> {
+            long start = 1 + nextvalCalls.getAndIncrement() * SequencePolicyNumberGenerator.BLOCK_SIZE;
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.next()).thenReturn(true);
+            when(rs.getLong(1)).thenReturn(start);
+            return rs;
+        });
+        return dbManager;
+    }
+
+    @Test
+    void testNumbersComeFromBlocks() throws SQLException {
+        AtomicLong nextvalCalls = new AtomicLong();
+        SequencePolicyNumberGenerator generator = new SequencePolicyNumberGenerator(sequenceDatabase(nextvalCalls));
+
+        Set<String> numbers = new HashSet<>();
+        for (int i = 0; i < 2500; i++) {
+            numbers.add(generator.nextPolicyNumber());
+        }
+
+        assertEquals(2500, numbers.size(), "Номери полісів не повинні повторюватися");
+        assertEquals(3, nextvalCalls.get(), "До бази повинен звертатися лише кожен номер, що починає блок");
+        assertTrue(numbers.contains("POL-S000000000001"));
+        assertTrue(numbers.contains("POL-S000000002500"));
+    }
+
+    @Test
+    void testSequenceFailureIsReported() throws SQLException {
+        DatabaseManager dbManager = mock(DatabaseManager.class);
+        when(dbManager.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        SequencePolicyNumberGenerator generator = new SequencePolicyNumberGenerator(dbManager);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, generator::nextPolicyNumber);
+        assertInstanceOf(SQLException.class, e.getCause());
+    }
+}
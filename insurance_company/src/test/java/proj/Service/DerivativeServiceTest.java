@@ -9,6 +9,8 @@ import proj.Models.insurance.LifeInsurance;
 import proj.Models.insurance.PropertyInsurance;
 import proj.Models.Risk;
 import proj.Models.Risk.RiskCategory;
+import proj.Repositories.DerivativeCriteria;
+import proj.Repositories.DerivativeSort;
 
 import java.util.List;
 import java.util.Map;
@@ -224,4 +226,57 @@ public class DerivativeServiceTest {
         assertEquals("Alpha", list.get(0).getName());
         assertEquals("Beta", list.get(1).getName());
     }
-}
+
+    @Test
+    void testSortDerivativesByObligationCount() {
+        Derivative d1 = new Derivative("Alpha");
+        Derivative d2 = new Derivative("Beta");
+        d2.addObligation(lifeInsurance);
+        d2.addObligation(healthInsurance);
+        d1.addObligation(propertyInsurance);
+        List<Derivative> list = new java.util.ArrayList<>(List.of(d1, d2));
+
+        DerivativeService.getInstance().sortDerivatives(list, "Кількістю зобов'язань (більше)");
+        assertEquals("Beta", list.get(0).getName());
+
+        DerivativeService.getInstance().sortDerivatives(list, "Кількістю зобов'язань (менше)");
+        assertEquals("Alpha", list.get(0).getName());
+    }
+
+    @Test
+    void testSortDerivativesByAverageRisk() {
+        Derivative d1 = new Derivative("Alpha");
+        Derivative d2 = new Derivative("Beta");
+        d1.addObligation(healthInsurance);
+        d2.addObligation(lifeInsurance);
+        List<Derivative> list = new java.util.ArrayList<>(List.of(d1, d2));
+
+        DerivativeService.getInstance().sortDerivatives(list, "Середнім ризиком (вищий)");
+        assertEquals("Beta", list.get(0).getName());
+
+        DerivativeService.getInstance().sortDerivatives(list, "Середнім ризиком (нижчий)");
+        assertEquals("Alpha", list.get(0).getName());
+    }
+
+    @Test
+    void testBuildCriteria() {
+        DerivativeCriteria criteria = DerivativeService.getInstance()
+                .buildCriteria("Alpha", "100", "500", "Вартістю (спадання)");
+
+        assertEquals("Alpha", criteria.getNameSearch());
+        assertEquals(100.0, criteria.getMinValue(), 0.001);
+        assertEquals(500.0, criteria.getMaxValue(), 0.001);
+        assertEquals(DerivativeSort.VALUE_DESC, criteria.getSort());
+    }
+
+    @Test
+    void testBuildCriteriaIgnoresInvalidInput() {
+        DerivativeCriteria criteria = DerivativeService.getInstance()
+                .buildCriteria("", "abc", "", null);
+
+        assertNull(criteria.getNameSearch());
+        assertNull(criteria.getMinValue());
+        assertNull(criteria.getMaxValue());
+        assertEquals(DerivativeSort.NAME_ASC, criteria.getSort());
+    }
+}
\ No newline at end of file
@@ -7,6 +7,8 @@ import proj.Models.insurance.LifeInsurance;
 import proj.Models.insurance.PropertyInsurance;
 import proj.Models.insurance.HealthInsurance;
 import proj.Models.insurance.InsuranceObligation;
+import proj.Repositories.ObligationCriteria;
+import proj.Repositories.ObligationSort;
 
 import java.util.*;
 
@@ -272,4 +274,27 @@ public class InsuranceServiceTest {
         assertEquals(1, filteredSorted.size());
         assertEquals("PROP456", filteredSorted.get(0).getPolicyNumber());
     }
+
+    @Test
+    void testBuildCriteria() {
+        ObligationCriteria criteria = InsuranceService.getInstance()
+                .buildCriteria("PROP", "50000", "70000", "Розрах. вартість (спадання)");
+
+        assertEquals("PROP", criteria.getSearchText());
+        assertEquals(50000.0, criteria.getMinCalculatedValue());
+        assertEquals(70000.0, criteria.getMaxCalculatedValue());
+        assertEquals(ObligationSort.CALCULATED_VALUE_DESC, criteria.getSort());
+        assertNull(criteria.getDerivativeId());
+        assertNull(criteria.getLimit());
+    }
+
+    @Test
+    void testBuildCriteriaIgnoresInvalidInput() {
+        ObligationCriteria criteria = InsuranceService.getInstance().buildCriteria("", "abc", "100", "Невідоме");
+
+        assertNull(criteria.getSearchText());
+        assertNull(criteria.getMinCalculatedValue());
+        assertNull(criteria.getMaxCalculatedValue());
+        assertNull(criteria.getSort());
+    }
 }
@@ -0,0 +1,47 @@
+package proj.Service;
+
+import org.junit.jupiter.api.Test;
+import proj.Repositories.InsuranceObligationRepository;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ObligationArchiverTest {
+
+    @Test
+    void testArchivesInBatchesUntilPartialBatch() throws SQLException {
+        InsuranceObligationRepository repository = mock(InsuranceObligationRepository.class);
+        when(repository.archiveBatch(any(LocalDateTime.class), eq(100))).thenReturn(100, 100, 42);
+
+        ObligationArchiver archiver = new ObligationArchiver(repository, Duration.ofDays(365), 100);
+
+        assertEquals(242, archiver.archiveExpired());
+        verify(repository, times(3)).archiveBatch(any(LocalDateTime.class), eq(100));
+    }
+
+    @Test
+    void testUsesRetentionWindow() throws SQLException {
+        InsuranceObligationRepository repository = mock(InsuranceObligationRepository.class);
+        ObligationArchiver archiver = new ObligationArchiver(repository, Duration.ofDays(30), 10);
+
+        assertEquals(0, archiver.archiveExpired());
+        verify(repository).archiveBatch(argThat(cutoff ->
+                cutoff.isBefore(LocalDateTime.now().minusDays(29))
+                        && cutoff.isAfter(LocalDateTime.now().minusDays(31))), eq(10));
+    }
+
+    @Test
+    void testInvalidParameters() {
+        InsuranceObligationRepository repository = mock(InsuranceObligationRepository.class);
+        assertThrows(IllegalArgumentException.class,
+                () -> new ObligationArchiver(repository, Duration.ofDays(-1), 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ObligationArchiver(repository, Duration.ofDays(1), 0));
+    }
+}